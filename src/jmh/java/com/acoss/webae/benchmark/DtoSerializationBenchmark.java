@@ -0,0 +1,124 @@
+package com.acoss.webae.benchmark;
+
+import com.acoss.webae.service.dto.MetadataDTO;
+import com.acoss.webae.service.dto.UserDTO;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the list responses of the REST API, with each Jackson setup.
+ * <p>
+ * "reflection" is a plain ObjectMapper, and "afterburner" is configured as the application one, with the
+ * Afterburner module. Each list is written with a new ObjectWriter per call, as Spring does by default, and with a
+ * writer reused for its type, as the application does.
+ * <p>
+ * Run with "./mvnw -Pdev,jmh test-compile exec:exec".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DtoSerializationBenchmark {
+
+    @Param({"reflection", "afterburner"})
+    private String mapper;
+
+    @Param({"100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter userListWriter;
+
+    private ObjectWriter metadataListWriter;
+
+    private List<UserDTO> users;
+
+    private List<MetadataDTO> metadata;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("afterburner".equals(mapper)) {
+            objectMapper.registerModule(new AfterburnerModule());
+        }
+        userListWriter = objectMapper.writerFor(new TypeReference<List<UserDTO>>() { });
+        metadataListWriter = objectMapper.writerFor(new TypeReference<List<MetadataDTO>>() { });
+
+        users = new ArrayList<>(size);
+        metadata = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserDTO user = new UserDTO();
+            user.setId((long) i);
+            user.setLogin("user" + i);
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setEmail("user" + i + "@localhost");
+            user.setImageUrl("http://placehold.it/50x50");
+            user.setActivated(true);
+            user.setLangKey("fr");
+            user.setCreatedBy("system");
+            user.setCreatedDate(Instant.EPOCH.plusSeconds(i));
+            user.setLastModifiedBy("system");
+            user.setLastModifiedDate(Instant.EPOCH.plusSeconds(i));
+            user.setAuthorities(new HashSet<>(Arrays.asList("ROLE_USER", "ROLE_ADMIN")));
+            users.add(user);
+
+            MetadataDTO metadataDTO = new MetadataDTO();
+            metadataDTO.setId((long) i);
+            metadataDTO.setTitle("Metadata " + i);
+            metadata.add(metadataDTO);
+        }
+    }
+
+    @Benchmark
+    public int usersWithNewWriter() throws IOException {
+        out.reset();
+        objectMapper.writer().forType(objectMapper.getTypeFactory().constructCollectionType(List.class, UserDTO.class))
+            .writeValue(out, users);
+        return out.size();
+    }
+
+    @Benchmark
+    public int usersWithCachedWriter() throws IOException {
+        out.reset();
+        userListWriter.writeValue(out, users);
+        return out.size();
+    }
+
+    @Benchmark
+    public int metadataWithNewWriter() throws IOException {
+        out.reset();
+        objectMapper.writer().forType(objectMapper.getTypeFactory().constructCollectionType(List.class, MetadataDTO.class))
+            .writeValue(out, metadata);
+        return out.size();
+    }
+
+    @Benchmark
+    public int metadataWithCachedWriter() throws IOException {
+        out.reset();
+        metadataListWriter.writeValue(out, metadata);
+        return out.size();
+    }
+}
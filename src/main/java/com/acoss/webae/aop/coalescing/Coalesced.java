@@ -0,0 +1,18 @@
+package com.acoss.webae.aop.coalescing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Coalesces the identical concurrent calls of the annotated method, see {@link CoalescingAspect}.
+ * <p>
+ * The method must be read-only, and its callers must not modify its result, which is shared between them.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
@@ -0,0 +1,44 @@
+package com.acoss.webae.aop.coalescing;
+
+import com.acoss.webae.security.SecurityUtils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aspect coalescing the identical concurrent calls of the methods annotated with {@link Coalesced}.
+ * <p>
+ * Calls are identical when they are made on the same method, with equal arguments, by the same user. The aspect
+ * runs before the transaction is started, so that waiting calls do not hold a database connection. Calls made from
+ * within a transaction are never coalesced, as they may need to see data not committed yet. A call waiting longer
+ * than "application.coalescing.timeout-millis" is rejected with a
+ * {@link org.springframework.core.task.TaskRejectedException}.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CoalescingAspect {
+
+    private final SingleFlight<List<Object>, Object> singleFlight;
+
+    public CoalescingAspect(MetricRegistry metricRegistry, long timeoutMillis) {
+        this.singleFlight = new SingleFlight<>(metricRegistry, "coalescing.methods", timeoutMillis);
+    }
+
+    @Around("@annotation(com.acoss.webae.aop.coalescing.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        List<Object> key = Arrays.asList(joinPoint.getSignature().toLongString(),
+            SecurityUtils.getCurrentUserLogin().orElse(null), Arrays.asList(joinPoint.getArgs()));
+        return singleFlight.execute(key, joinPoint::proceed);
+    }
+}
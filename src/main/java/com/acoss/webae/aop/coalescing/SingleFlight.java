@@ -0,0 +1,96 @@
+package com.acoss.webae.aop.coalescing;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces identical concurrent calls: the first call for a key is executed, and the calls made with the same key
+ * while it is running wait for it and get its result, or its exception, instead of being executed.
+ * <p>
+ * Results are not kept once the call has returned: this is not a cache, it only removes duplicate work. The result
+ * is shared between all the callers, so it must not be modified. A call waits for the running one for a bounded
+ * time, after which it is rejected with a {@link TaskRejectedException}.
+ * <p>
+ * Three meters are published: "&lt;name&gt;.executed" counts the calls actually executed, "&lt;name&gt;.coalesced"
+ * counts the calls saved, and "&lt;name&gt;.timeouts" counts the calls rejected after waiting.
+ *
+ * @param <K> the type of the keys identifying identical calls
+ * @param <V> the type of the results
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * A call which may be coalesced.
+     */
+    @FunctionalInterface
+    public interface Call<V> {
+
+        V call() throws Throwable;
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    private final Meter executed;
+
+    private final Meter coalesced;
+
+    private final Meter timeouts;
+
+    private final long timeoutMillis;
+
+    /**
+     * @param metricRegistry the registry of the meters
+     * @param name the prefix of the names of the meters
+     * @param timeoutMillis the time a call waits for the identical call running, in milliseconds
+     */
+    public SingleFlight(MetricRegistry metricRegistry, String name, long timeoutMillis) {
+        this.executed = metricRegistry.meter(MetricRegistry.name(name, "executed"));
+        this.coalesced = metricRegistry.meter(MetricRegistry.name(name, "coalesced"));
+        this.timeouts = metricRegistry.meter(MetricRegistry.name(name, "timeouts"));
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Execute a call, or wait for the identical call already running.
+     *
+     * @param key the key of the call
+     * @param call the call
+     * @return the result of the call
+     * @throws TaskRejectedException if the identical call running did not return in time
+     * @throws Throwable the exception thrown by the call
+     */
+    public V execute(K key, Call<V> call) throws Throwable {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.mark();
+            try {
+                return running.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (TimeoutException e) {
+                timeouts.mark();
+                throw new TaskRejectedException("The identical call did not return within " + timeoutMillis + " ms", e);
+            }
+        }
+        executed.mark();
+        try {
+            V result = call.call();
+            future.complete(result);
+            return result;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            calls.remove(key, future);
+        }
+    }
+}
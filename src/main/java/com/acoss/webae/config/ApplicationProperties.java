@@ -2,6 +2,13 @@ package com.acoss.webae.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Properties specific to Cfe Backonly.
  * <p>
@@ -11,4 +18,934 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
 
+    private final Schemas schemas = new Schemas();
+
+    private final Export export = new Export();
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final Cache cache = new Cache();
+
+    private final Coalescing coalescing = new Coalescing();
+
+    private final BatchLoading batchLoading = new BatchLoading();
+
+    private final Streaming streaming = new Streaming();
+
+    private final Http2 http2 = new Http2();
+
+    private final Undertow undertow = new Undertow();
+
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final AsyncRequests asyncRequests = new AsyncRequests();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final TokenRevocation tokenRevocation = new TokenRevocation();
+
+    private final RefreshToken refreshToken = new RefreshToken();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final LoginThrottling loginThrottling = new LoginThrottling();
+
+    public Schemas getSchemas() {
+        return schemas;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public BatchLoading getBatchLoading() {
+        return batchLoading;
+    }
+
+    public Streaming getStreaming() {
+        return streaming;
+    }
+
+    public Http2 getHttp2() {
+        return http2;
+    }
+
+    public Undertow getUndertow() {
+        return undertow;
+    }
+
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public AsyncRequests getAsyncRequests() {
+        return asyncRequests;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public TokenRevocation getTokenRevocation() {
+        return tokenRevocation;
+    }
+
+    public RefreshToken getRefreshToken() {
+        return refreshToken;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public LoginThrottling getLoginThrottling() {
+        return loginThrottling;
+    }
+
+    public static class Schemas {
+
+        /**
+         * Location of the metadata JSON schemas, one "<name>.json" file per schema.
+         */
+        private String location = "classpath:schemas/";
+
+        public String getLocation() {
+            return location;
+        }
+
+        public void setLocation(String location) {
+            this.location = location;
+        }
+    }
+
+    public static class Export {
+
+        /**
+         * Number of rows fetched from the database at once, which is also the number of rows kept in the
+         * persistence context before it is cleared.
+         */
+        private int fetchSize = 500;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class BulkImport {
+
+        /**
+         * Number of rows sent to the database in one JDBC batch, which is also the number of rows kept in the
+         * persistence context before it is flushed and cleared.
+         */
+        private int batchSize = 500;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Settings of the regions which are not configured in "regions".
+         */
+        private final Region defaults = new Region();
+
+        /**
+         * Settings of each cache region, by region name, for instance "metadata" or "user-authorities".
+         */
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        public Region getDefaults() {
+            return defaults;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        /**
+         * @param name the name of the region
+         * @return the settings of the region, or the default settings if it is not configured
+         */
+        public Region getRegion(String name) {
+            return regions.getOrDefault(name, defaults);
+        }
+
+        public static class Region {
+
+            private long timeToLiveSeconds = 3600;
+
+            private long maxEntries = 100;
+
+            public long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    public static class Coalescing {
+
+        /**
+         * URL patterns of the GET requests coalesced by the CoalescingFilter; the filter is disabled if empty.
+         */
+        private List<String> urlPatterns = new ArrayList<>();
+
+        /**
+         * Ant patterns of the paths which are never coalesced, such as the streamed lists: a coalesced response is
+         * held in memory until it is complete.
+         */
+        private List<String> excludedPaths = new ArrayList<>(Collections.singletonList("/api/users"));
+
+        /**
+         * Time a call or a request waits for the identical one running, in milliseconds; over it, it is rejected with
+         * status 503 (Service Unavailable).
+         */
+        private long timeoutMillis = 5000;
+
+        public List<String> getUrlPatterns() {
+            return urlPatterns;
+        }
+
+        public void setUrlPatterns(List<String> urlPatterns) {
+            this.urlPatterns = urlPatterns;
+        }
+
+        public List<String> getExcludedPaths() {
+            return excludedPaths;
+        }
+
+        public void setExcludedPaths(List<String> excludedPaths) {
+            this.excludedPaths = excludedPaths;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+    }
+
+    public static class BatchLoading {
+
+        /**
+         * Time during which the lookups by id are grouped into a single query, in microseconds.
+         */
+        private long windowMicros = 2000;
+
+        /**
+         * Maximum number of ids of a single query; a full batch is executed without waiting for the window to close.
+         */
+        private int maxBatchSize = 100;
+
+        /**
+         * Number of threads running the batches whose window has closed.
+         */
+        private int threads = 4;
+
+        /**
+         * Number of closed batches waiting for a thread; over it, the lookups read their metadata directly.
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * Time a lookup waits for its batch before reading its metadata directly, in milliseconds.
+         */
+        private long timeoutMillis = 1000;
+
+        public long getWindowMicros() {
+            return windowMicros;
+        }
+
+        public void setWindowMicros(long windowMicros) {
+            this.windowMicros = windowMicros;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+    }
+
+    public static class Streaming {
+
+        /**
+         * Number of rows fetched from the database at once by the list endpoints.
+         */
+        private int fetchSize = 500;
+
+        /**
+         * Number of elements written to the response between two flushes.
+         */
+        private int flushSize = 100;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getFlushSize() {
+            return flushSize;
+        }
+
+        public void setFlushSize(int flushSize) {
+            this.flushSize = flushSize;
+        }
+    }
+
+    public static class Http2 {
+
+        /**
+         * Enable HTTP/2 on cleartext connections (h2c), with prior knowledge or an HTTP/1.1 upgrade, for instance
+         * behind a load balancer which terminates TLS. HTTP/2 over TLS is enabled by "jhipster.http.version".
+         */
+        private boolean cleartext = false;
+
+        /**
+         * Maximum number of concurrent streams a client can open on one connection.
+         */
+        private int maxConcurrentStreams = 100;
+
+        /**
+         * Initial flow-control window of each stream, in bytes.
+         */
+        private int initialWindowSize = 65535;
+
+        /**
+         * Size of the HPACK header compression table, in bytes.
+         */
+        private int headerTableSize = 4096;
+
+        public boolean isCleartext() {
+            return cleartext;
+        }
+
+        public void setCleartext(boolean cleartext) {
+            this.cleartext = cleartext;
+        }
+
+        public int getMaxConcurrentStreams() {
+            return maxConcurrentStreams;
+        }
+
+        public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+            this.maxConcurrentStreams = maxConcurrentStreams;
+        }
+
+        public int getInitialWindowSize() {
+            return initialWindowSize;
+        }
+
+        public void setInitialWindowSize(int initialWindowSize) {
+            this.initialWindowSize = initialWindowSize;
+        }
+
+        public int getHeaderTableSize() {
+            return headerTableSize;
+        }
+
+        public void setHeaderTableSize(int headerTableSize) {
+            this.headerTableSize = headerTableSize;
+        }
+    }
+
+    public static class Undertow {
+
+        /**
+         * Number of IO threads, which accept connections and parse requests. Defaults to the number of cores.
+         */
+        private Integer ioThreads;
+
+        /**
+         * Number of worker threads, which run the blocking servlet code. Defaults to 8 per IO thread.
+         */
+        private Integer workerThreads;
+
+        /**
+         * Size of each buffer of the buffer pool, in bytes. It also bounds the size of each write to a socket.
+         * Replaces "server.undertow.buffer-size".
+         */
+        private int bufferSize = 16384;
+
+        /**
+         * Allocate the buffers outside of the Java heap. Replaces "server.undertow.direct-buffers".
+         */
+        private boolean directBuffers = true;
+
+        public Integer getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(Integer ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public Integer getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(Integer workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public boolean isDirectBuffers() {
+            return directBuffers;
+        }
+
+        public void setDirectBuffers(boolean directBuffers) {
+            this.directBuffers = directBuffers;
+        }
+    }
+
+    public static class ConcurrencyLimit {
+
+        /**
+         * Reject the requests over the concurrency limit of their group, see the ConcurrencyLimitFilter.
+         */
+        private boolean enabled = true;
+
+        /**
+         * URL patterns of each group of endpoints; the requests matching no group share the "default" group.
+         */
+        private Map<String, List<String>> groups = new LinkedHashMap<>();
+
+        /**
+         * Limit of each group at startup.
+         */
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 200;
+
+        /**
+         * Ratio between the latency of a request and the latency without load, under which the limit can grow.
+         */
+        private double rttTolerance = 2.0;
+
+        /**
+         * Weight of each new estimate of the limit, between 0 and 1.
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Fixed limit of the management endpoints, which are not counted in any other group.
+         */
+        private int managementLimit = 8;
+
+        /**
+         * Delay sent in the Retry-After header of the rejected requests, in seconds.
+         */
+        private int retryAfterSeconds = 1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Map<String, List<String>> getGroups() {
+            return groups;
+        }
+
+        public void setGroups(Map<String, List<String>> groups) {
+            this.groups = groups;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getRttTolerance() {
+            return rttTolerance;
+        }
+
+        public void setRttTolerance(double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public int getManagementLimit() {
+            return managementLimit;
+        }
+
+        public void setManagementLimit(int managementLimit) {
+            this.managementLimit = managementLimit;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+
+    public static class Idempotency {
+
+        /**
+         * URL patterns of the POST requests made idempotent by the IdempotencyFilter; the filter is disabled if
+         * empty. The stored responses are kept in the "idempotency" cache region.
+         */
+        private List<String> urlPatterns = new ArrayList<>();
+
+        /**
+         * Ant patterns of the paths whose responses are never stored, such as the endpoints returning tokens.
+         */
+        private List<String> excludedPaths = new ArrayList<>(Arrays.asList("/api/authenticate", "/api/authenticate/**"));
+
+        /**
+         * Ant patterns of the paths on which the anonymous requests are made idempotent; the anonymous callers share
+         * their keys, so only responses which reveal nothing beyond the request belong here.
+         */
+        private List<String> anonymousPaths = new ArrayList<>(Collections.singletonList("/api/register"));
+
+        /**
+         * Time a request waits for the request with the same key running, in milliseconds; over it, it is rejected
+         * with status 409 (Conflict).
+         */
+        private long timeoutMillis = 5000;
+
+        public List<String> getUrlPatterns() {
+            return urlPatterns;
+        }
+
+        public void setUrlPatterns(List<String> urlPatterns) {
+            this.urlPatterns = urlPatterns;
+        }
+
+        public List<String> getExcludedPaths() {
+            return excludedPaths;
+        }
+
+        public void setExcludedPaths(List<String> excludedPaths) {
+            this.excludedPaths = excludedPaths;
+        }
+
+        public List<String> getAnonymousPaths() {
+            return anonymousPaths;
+        }
+
+        public void setAnonymousPaths(List<String> anonymousPaths) {
+            this.anonymousPaths = anonymousPaths;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+    }
+
+    public static class AsyncRequests {
+
+        /**
+         * Executor of the validation requests, such as the bulk import of metadata.
+         */
+        private final Executor validation = new Executor(2, 4, 20, 120);
+
+        /**
+         * Executor of the streamed exports, and of the other streamed bodies.
+         */
+        private final Executor export = new Executor(2, 4, 10, 600);
+
+        /**
+         * Executor of the account registrations, which hash the password.
+         */
+        private final Executor registration = new Executor(4, 8, 100, 30);
+
+        public Executor getValidation() {
+            return validation;
+        }
+
+        public Executor getExport() {
+            return export;
+        }
+
+        public Executor getRegistration() {
+            return registration;
+        }
+
+        public static class Executor {
+
+            private int corePoolSize;
+
+            private int maxPoolSize;
+
+            /**
+             * Number of requests waiting for a thread; the requests over it are rejected with a 503.
+             */
+            private int queueCapacity;
+
+            /**
+             * Time after which a request which is still waiting or running gets a 503, in seconds.
+             */
+            private long timeoutSeconds;
+
+            public Executor(int corePoolSize, int maxPoolSize, int queueCapacity, long timeoutSeconds) {
+                this.corePoolSize = corePoolSize;
+                this.maxPoolSize = maxPoolSize;
+                this.queueCapacity = queueCapacity;
+                this.timeoutSeconds = timeoutSeconds;
+            }
+
+            public int getCorePoolSize() {
+                return corePoolSize;
+            }
+
+            public void setCorePoolSize(int corePoolSize) {
+                this.corePoolSize = corePoolSize;
+            }
+
+            public int getMaxPoolSize() {
+                return maxPoolSize;
+            }
+
+            public void setMaxPoolSize(int maxPoolSize) {
+                this.maxPoolSize = maxPoolSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public long getTimeoutSeconds() {
+                return timeoutSeconds;
+            }
+
+            public void setTimeoutSeconds(long timeoutSeconds) {
+                this.timeoutSeconds = timeoutSeconds;
+            }
+        }
+    }
+
+    public static class VirtualThreads {
+
+        /**
+         * Run the servlet requests and the @Async tasks, such as the mails, on virtual threads instead of the
+         * bounded pools, when the JDK supports them (Java 21 and later). Ignored on older JDKs.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class TokenRevocation {
+
+        /**
+         * Delay between two reads of the revocation version, in milliseconds: the revocations made by the other
+         * nodes are applied after at most this delay. Read by the @Scheduled TokenRevocationService.
+         */
+        private long pollIntervalMs = 5000;
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+    }
+
+    public static class RefreshToken {
+
+        /**
+         * Validity of the access tokens issued by /api/authenticate and /api/authenticate/refresh, in seconds. The
+         * clients get a new one from their refresh token, without sending the password again.
+         */
+        private long accessTokenValidityInSeconds = 900;
+
+        /**
+         * Validity of the refresh tokens, in seconds: the session ends after this delay, even if the token is used.
+         */
+        private long validityInSeconds = 86400;
+
+        /**
+         * Validity of the refresh tokens when "remember me" is checked, in seconds.
+         */
+        private long validityInSecondsForRememberMe = 2592000;
+
+        public long getAccessTokenValidityInSeconds() {
+            return accessTokenValidityInSeconds;
+        }
+
+        public void setAccessTokenValidityInSeconds(long accessTokenValidityInSeconds) {
+            this.accessTokenValidityInSeconds = accessTokenValidityInSeconds;
+        }
+
+        public long getValidityInSeconds() {
+            return validityInSeconds;
+        }
+
+        public void setValidityInSeconds(long validityInSeconds) {
+            this.validityInSeconds = validityInSeconds;
+        }
+
+        public long getValidityInSecondsForRememberMe() {
+            return validityInSecondsForRememberMe;
+        }
+
+        public void setValidityInSecondsForRememberMe(long validityInSecondsForRememberMe) {
+            this.validityInSecondsForRememberMe = validityInSecondsForRememberMe;
+        }
+    }
+
+    public static class PasswordHashing {
+
+        /**
+         * Number of threads hashing and verifying the passwords, 0 for the number of processors.
+         */
+        private int poolSize = 0;
+
+        /**
+         * Number of hashes waiting for a thread, over which the requests get a 503. Defaults to 0, for as many as
+         * leave half of the Undertow worker threads free of hashes, counting those waiting for a running hash.
+         */
+        private int queueCapacity = 0;
+
+        /**
+         * Time a request waits for its hash, queue included, after which it gets a 503, in milliseconds.
+         */
+        private long timeoutMillis = 5000;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+    }
+
+    public static class LoginThrottling {
+
+        /**
+         * Reject the login attempts of the logins and addresses which failed too often, see LoginThrottle.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of failures of a login over which its attempts are rejected.
+         */
+        private int maxLoginFailures = 10;
+
+        /**
+         * Number of failures from an IP address over which its attempts are rejected.
+         */
+        private int maxIpFailures = 100;
+
+        /**
+         * Delay after which the failure counts are halved, in seconds; also sent in the Retry-After header.
+         */
+        private long halfLifeSeconds = 300;
+
+        /**
+         * Number of independently locked stripes of each count-min sketch, a power of two.
+         */
+        private int stripes = 64;
+
+        /**
+         * Number of counters of each of the 4 rows of a stripe. A sketch takes 16 * stripes * width bytes; the wider
+         * it is, the more distinct logins can fail within a half-life before unrelated logins are throttled.
+         */
+        private int width = 2048;
+
+        /**
+         * IP addresses of the reverse proxies whose X-Forwarded-For header gives the address of the client. The
+         * header of the other clients is ignored, since it can be forged.
+         */
+        private List<String> trustedProxies = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxLoginFailures() {
+            return maxLoginFailures;
+        }
+
+        public void setMaxLoginFailures(int maxLoginFailures) {
+            this.maxLoginFailures = maxLoginFailures;
+        }
+
+        public int getMaxIpFailures() {
+            return maxIpFailures;
+        }
+
+        public void setMaxIpFailures(int maxIpFailures) {
+            this.maxIpFailures = maxIpFailures;
+        }
+
+        public long getHalfLifeSeconds() {
+            return halfLifeSeconds;
+        }
+
+        public void setHalfLifeSeconds(long halfLifeSeconds) {
+            this.halfLifeSeconds = halfLifeSeconds;
+        }
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public void setWidth(int width) {
+            this.width = width;
+        }
+
+        public List<String> getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        public void setTrustedProxies(List<String> trustedProxies) {
+            this.trustedProxies = trustedProxies;
+        }
+    }
 }
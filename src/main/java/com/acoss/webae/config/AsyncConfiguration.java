@@ -9,10 +9,13 @@ import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.*;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.Optional;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 
 @Configuration
 @EnableAsync
@@ -23,13 +26,24 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final JHipsterProperties jHipsterProperties;
 
-    public AsyncConfiguration(JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public AsyncConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
+        if (applicationProperties.getVirtualThreads().isEnabled()) {
+            Optional<ThreadFactory> virtualThreadFactory = VirtualThreads.threadFactory("cfe-backonly-Executor-");
+            if (virtualThreadFactory.isPresent()) {
+                log.debug("Creating Async Task Executor on virtual threads");
+                return new ExceptionHandlingAsyncTaskExecutor(new SimpleAsyncTaskExecutor(virtualThreadFactory.get()));
+            }
+            log.warn("Virtual threads are not supported by this JDK, the Async Task Executor uses a thread pool");
+        }
         log.debug("Creating Async Task Executor");
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(jHipsterProperties.getAsync().getCorePoolSize());
@@ -0,0 +1,95 @@
+package com.acoss.webae.config;
+
+import com.acoss.webae.web.rest.util.AsyncRequestExecutor;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded executors of the slow requests, configured in "application.async-requests".
+ * <p>
+ * The export executor is also the default executor of Spring MVC, which runs the streamed bodies. Each executor
+ * publishes its queue size and active threads, the time its tasks wait in the queue and run, and its rejections,
+ * as "async-requests.&lt;name&gt;.*" metrics.
+ */
+@Configuration
+public class AsyncRequestConfiguration extends WebMvcConfigurerAdapter {
+
+    private final Logger log = LoggerFactory.getLogger(AsyncRequestConfiguration.class);
+
+    private final ApplicationProperties.AsyncRequests properties;
+
+    private final MetricRegistry metricRegistry;
+
+    public AsyncRequestConfiguration(ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
+        this.properties = applicationProperties.getAsyncRequests();
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Bean
+    public AsyncRequestExecutor validationExecutor() {
+        return createExecutor("validation", properties.getValidation());
+    }
+
+    @Bean
+    public AsyncRequestExecutor exportExecutor() {
+        return createExecutor("export", properties.getExport());
+    }
+
+    @Bean
+    public AsyncRequestExecutor registrationExecutor() {
+        return createExecutor("registration", properties.getRegistration());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        AsyncRequestExecutor exportExecutor = exportExecutor();
+        configurer.setTaskExecutor(exportExecutor.getExecutor());
+        configurer.setDefaultTimeout(exportExecutor.getTimeoutMillis());
+    }
+
+    private AsyncRequestExecutor createExecutor(String name, ApplicationProperties.AsyncRequests.Executor pool) {
+        log.debug("Creating the {} request executor", name);
+        String prefix = MetricRegistry.name("async-requests", name);
+        Timer queueWait = metricRegistry.timer(MetricRegistry.name(prefix, "queue-wait"));
+        Timer execution = metricRegistry.timer(MetricRegistry.name(prefix, "execution"));
+        Meter rejected = metricRegistry.meter(MetricRegistry.name(prefix, "rejected"));
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pool.getCorePoolSize());
+        executor.setMaxPoolSize(pool.getMaxPoolSize());
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setThreadNamePrefix("cfe-backonly-" + name + "-");
+        executor.setTaskDecorator(task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                queueWait.update(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                try (Timer.Context ignored = execution.time()) {
+                    task.run();
+                }
+            };
+        });
+        executor.setRejectedExecutionHandler((task, threadPoolExecutor) -> {
+            rejected.mark();
+            new ThreadPoolExecutor.AbortPolicy().rejectedExecution(task, threadPoolExecutor);
+        });
+        executor.initialize();
+
+        metricRegistry.register(MetricRegistry.name(prefix, "queue-size"),
+            (Gauge<Integer>) () -> executor.getThreadPoolExecutor().getQueue().size());
+        metricRegistry.register(MetricRegistry.name(prefix, "active-threads"), (Gauge<Integer>) executor::getActiveCount);
+        return new AsyncRequestExecutor(executor, TimeUnit.SECONDS.toMillis(pool.getTimeoutSeconds()));
+    }
+}
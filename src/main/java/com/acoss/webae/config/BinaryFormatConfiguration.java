@@ -0,0 +1,51 @@
+package com.acoss.webae.config;
+
+import com.acoss.webae.web.rest.util.CborHttpMessageConverter;
+import com.acoss.webae.web.rest.util.SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Support for the Smile and CBOR binary formats in the REST API, negotiated through the Accept and Content-Type
+ * headers.
+ * <p>
+ * The binary converters are added after the default ones, so that JSON stays the response format when the client
+ * accepts any media type, as browsers do. Their object mappers get the same modules and settings as the JSON one.
+ */
+@Configuration
+public class BinaryFormatConfiguration extends WebMvcConfigurerAdapter {
+
+    private final List<AbstractJackson2HttpMessageConverter> binaryMessageConverters;
+
+    public BinaryFormatConfiguration(Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        jackson2ObjectMapperBuilder.configure(smileMapper);
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        jackson2ObjectMapperBuilder.configure(cborMapper);
+        this.binaryMessageConverters = Arrays.asList(
+            new SmileHttpMessageConverter(smileMapper),
+            new CborHttpMessageConverter(cborMapper));
+    }
+
+    /**
+     * @return the Smile and CBOR message converters
+     */
+    public List<AbstractJackson2HttpMessageConverter> getBinaryMessageConverters() {
+        return binaryMessageConverters;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.addAll(binaryMessageConverters);
+    }
+}
@@ -0,0 +1,26 @@
+package com.acoss.webae.config;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Media types of the binary formats supported by the REST API, see {@link BinaryFormatConfiguration}.
+ */
+public final class BinaryMediaTypes {
+
+    /**
+     * The Jackson Smile binary JSON format.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    /**
+     * The CBOR binary format (RFC 7049).
+     */
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+
+    public static final MediaType APPLICATION_CBOR = MediaType.valueOf(APPLICATION_CBOR_VALUE);
+
+    private BinaryMediaTypes() {
+    }
+}
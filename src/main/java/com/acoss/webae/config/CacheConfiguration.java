@@ -0,0 +1,67 @@
+package com.acoss.webae.config;
+
+import com.codahale.metrics.MetricRegistry;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.expiry.Duration;
+import org.ehcache.expiry.Expirations;
+import org.ehcache.jsr107.Eh107Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ehcache caches, used as the Hibernate second-level cache through JCache, and by the
+ * {@link com.acoss.webae.web.filter.IdempotencyFilter}.
+ * <p>
+ * The size and time to live of each region are set in "application.cache", and the statistics of each cache are
+ * published as "cache.&lt;region&gt;.*" metrics.
+ */
+@Configuration
+@EnableCaching
+@AutoConfigureAfter(value = { MetricsConfiguration.class })
+@AutoConfigureBefore(value = { WebConfigurer.class, DatabaseConfiguration.class })
+public class CacheConfiguration {
+
+    private final ApplicationProperties.Cache cacheProperties;
+
+    private final MetricRegistry metricRegistry;
+
+    public CacheConfiguration(ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
+        this.cacheProperties = applicationProperties.getCache();
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer() {
+        return cm -> {
+            createCache(cm, com.acoss.webae.domain.Metadata.class.getName(), "metadata");
+            createCache(cm, com.acoss.webae.domain.Authority.class.getName(), "authority");
+            createCache(cm, com.acoss.webae.domain.User.class.getName(), "user");
+            createCache(cm, com.acoss.webae.domain.User.class.getName() + ".authorities", "user-authorities");
+            createCache(cm, com.acoss.webae.web.filter.IdempotencyFilter.CACHE_NAME, "idempotency");
+            createCache(cm, com.acoss.webae.security.UserDetailsCache.CACHE_NAME, "user-details");
+            // jhipster-needle-ehcache-add-entry
+        };
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, String regionName) {
+        ApplicationProperties.Cache.Region region = cacheProperties.getRegion(regionName);
+        // The default cache manager is shared by the application contexts of the JVM, such as the test contexts
+        if (cm.getCache(cacheName) == null) {
+            cm.createCache(cacheName, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                    ResourcePoolsBuilder.heap(region.getMaxEntries()))
+                    .withExpiry(Expirations.timeToLiveExpiration(Duration.of(region.getTimeToLiveSeconds(), TimeUnit.SECONDS)))
+                    .build()));
+        }
+        cm.enableStatistics(cacheName, true);
+        metricRegistry.register(MetricRegistry.name("cache", regionName), new JCacheStatisticsGaugeSet(cm, cacheName));
+    }
+}
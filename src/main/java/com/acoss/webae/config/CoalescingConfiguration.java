@@ -0,0 +1,47 @@
+package com.acoss.webae.config;
+
+import com.acoss.webae.aop.coalescing.CoalescingAspect;
+import com.acoss.webae.web.filter.CoalescingFilter;
+
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+import java.util.List;
+
+/**
+ * Coalescing of identical concurrent calls: on the methods annotated with
+ * {@link com.acoss.webae.aop.coalescing.Coalesced}, and on the GET requests matching
+ * "application.coalescing.url-patterns", except the "excluded-paths".
+ */
+@Configuration
+@EnableAspectJAutoProxy
+public class CoalescingConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(CoalescingConfiguration.class);
+
+    @Bean
+    public CoalescingAspect coalescingAspect(MetricRegistry metricRegistry, ApplicationProperties applicationProperties) {
+        return new CoalescingAspect(metricRegistry, applicationProperties.getCoalescing().getTimeoutMillis());
+    }
+
+    @Bean
+    public FilterRegistrationBean coalescingFilter(MetricRegistry metricRegistry,
+            ApplicationProperties applicationProperties) {
+        ApplicationProperties.Coalescing coalescing = applicationProperties.getCoalescing();
+        List<String> urlPatterns = coalescing.getUrlPatterns();
+        FilterRegistrationBean registration = new FilterRegistrationBean(new CoalescingFilter(metricRegistry,
+            coalescing.getExcludedPaths(), coalescing.getTimeoutMillis()));
+        registration.setUrlPatterns(urlPatterns);
+        // The requests are coalesced by user, so the filter runs after the Spring Security filters
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        registration.setEnabled(!urlPatterns.isEmpty());
+        log.debug("Coalescing the GET requests on {}", urlPatterns);
+        return registration;
+    }
+}
@@ -0,0 +1,39 @@
+package com.acoss.webae.config;
+
+import com.acoss.webae.web.filter.AdaptiveConcurrencyLimit;
+import com.acoss.webae.web.filter.ConcurrencyLimitFilter;
+
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Load shedding: the requests over the concurrency limit of their group of endpoints are rejected, as configured
+ * by "application.concurrency-limit".
+ */
+@Configuration
+public class ConcurrencyLimitConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(ConcurrencyLimitConfiguration.class);
+
+    @Bean
+    public FilterRegistrationBean concurrencyLimitFilter(MetricRegistry metricRegistry,
+            ApplicationProperties applicationProperties) {
+        ApplicationProperties.ConcurrencyLimit properties = applicationProperties.getConcurrencyLimit();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(metricRegistry, properties.getGroups(),
+            () -> new AdaptiveConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getRttTolerance(), properties.getSmoothing()),
+            properties.getManagementLimit(), properties.getRetryAfterSeconds());
+        FilterRegistrationBean registration = new FilterRegistrationBean(filter);
+        registration.addUrlPatterns("/*");
+        // Rejected requests must cost as little as possible, so the filter runs before all the others
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(properties.isEnabled());
+        log.debug("Limiting the concurrent requests of the groups {}", properties.getGroups().keySet());
+        return registration;
+    }
+}
@@ -0,0 +1,40 @@
+package com.acoss.webae.config;
+
+import com.acoss.webae.web.filter.IdempotencyFilter;
+
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.util.List;
+
+/**
+ * Idempotency of the POST requests which have an Idempotency-Key header, on the URLs matching
+ * "application.idempotency.url-patterns".
+ */
+@Configuration
+public class IdempotencyConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(IdempotencyConfiguration.class);
+
+    @Bean
+    public FilterRegistrationBean idempotencyFilter(MetricRegistry metricRegistry, CacheManager cacheManager,
+            ApplicationProperties applicationProperties) {
+        ApplicationProperties.Idempotency idempotency = applicationProperties.getIdempotency();
+        List<String> urlPatterns = idempotency.getUrlPatterns();
+        FilterRegistrationBean registration = new FilterRegistrationBean(new IdempotencyFilter(metricRegistry,
+            cacheManager, idempotency.getExcludedPaths(), idempotency.getAnonymousPaths(),
+            idempotency.getTimeoutMillis()));
+        registration.setUrlPatterns(urlPatterns);
+        // The keys are scoped by user, so the filter runs after the Spring Security filters
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        registration.setEnabled(!urlPatterns.isEmpty());
+        log.debug("Making the POST requests with an idempotency key idempotent on {}", urlPatterns);
+        return registration;
+    }
+}
@@ -0,0 +1,66 @@
+package com.acoss.webae.config;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.RatioGauge;
+
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gauges reading the statistics of a JCache cache, which must have its statistics enabled.
+ * <p>
+ * JCache only exposes its statistics as an MBean, registered under the name defined by the specification.
+ */
+public class JCacheStatisticsGaugeSet implements MetricSet {
+
+    private final CacheStatisticsMXBean statistics;
+
+    public JCacheStatisticsGaugeSet(CacheManager cacheManager, String cacheName) {
+        this(ManagementFactory.getPlatformMBeanServer(), cacheManager, cacheName);
+    }
+
+    JCacheStatisticsGaugeSet(MBeanServer mBeanServer, CacheManager cacheManager, String cacheName) {
+        this.statistics = JMX.newMXBeanProxy(mBeanServer, objectName(cacheManager, cacheName),
+            CacheStatisticsMXBean.class);
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        Map<String, Metric> gauges = new HashMap<>();
+        gauges.put("hits", (Gauge<Long>) statistics::getCacheHits);
+        gauges.put("misses", (Gauge<Long>) statistics::getCacheMisses);
+        gauges.put("puts", (Gauge<Long>) statistics::getCachePuts);
+        gauges.put("evictions", (Gauge<Long>) statistics::getCacheEvictions);
+        gauges.put("hit-ratio", new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                long hits = statistics.getCacheHits();
+                return Ratio.of(hits, hits + statistics.getCacheMisses());
+            }
+        });
+        return gauges;
+    }
+
+    private static ObjectName objectName(CacheManager cacheManager, String cacheName) {
+        try {
+            return new ObjectName("javax.cache:type=CacheStatistics" +
+                ",CacheManager=" + sanitize(cacheManager.getURI().toString()) +
+                ",Cache=" + sanitize(cacheName));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid cache name " + cacheName, e);
+        }
+    }
+
+    private static String sanitize(String value) {
+        return value == null ? "" : value.replaceAll("[,:=\n]", ".");
+    }
+}
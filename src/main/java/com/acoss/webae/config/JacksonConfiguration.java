@@ -1,10 +1,14 @@
 package com.acoss.webae.config;
 
+import com.acoss.webae.web.rest.util.CachingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.zalando.problem.ProblemModule;
 import org.zalando.problem.validation.ConstraintViolationProblemModule;
 
@@ -27,6 +31,14 @@ public class JacksonConfiguration {
         return new AfterburnerModule();
     }
 
+    /*
+     * JSON message converter reusing one ObjectWriter/ObjectReader per type, in place of Spring Boot's default one.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new CachingJackson2HttpMessageConverter(objectMapper);
+    }
+
     /*
      * Module for serialization/deserialization of RFC7807 Problem.
      */
@@ -32,6 +32,7 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
     private static final String PROP_METRIC_REG_JVM_FILES = "jvm.files";
     private static final String PROP_METRIC_REG_JVM_BUFFERS = "jvm.buffers";
     private static final String PROP_METRIC_REG_JVM_ATTRIBUTE_SET = "jvm.attributes";
+    private static final String PROP_METRIC_REG_UNDERTOW = "undertow";
 
     private final Logger log = LoggerFactory.getLogger(MetricsConfiguration.class);
 
@@ -39,6 +40,8 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
 
     private HealthCheckRegistry healthCheckRegistry = new HealthCheckRegistry();
 
+    private UndertowGaugeSet undertowGaugeSet = new UndertowGaugeSet();
+
     private final JHipsterProperties jHipsterProperties;
 
     private HikariDataSource hikariDataSource;
@@ -64,6 +67,14 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
         return healthCheckRegistry;
     }
 
+    /**
+     * @return the Undertow gauges, installed in the server by the {@link WebConfigurer}
+     */
+    @Bean
+    public UndertowGaugeSet getUndertowGaugeSet() {
+        return undertowGaugeSet;
+    }
+
     @PostConstruct
     public void init() {
         log.debug("Registering JVM gauges");
@@ -73,6 +84,7 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
         metricRegistry.register(PROP_METRIC_REG_JVM_FILES, new FileDescriptorRatioGauge());
         metricRegistry.register(PROP_METRIC_REG_JVM_BUFFERS, new BufferPoolMetricSet(ManagementFactory.getPlatformMBeanServer()));
         metricRegistry.register(PROP_METRIC_REG_JVM_ATTRIBUTE_SET, new JvmAttributeGaugeSet());
+        metricRegistry.register(PROP_METRIC_REG_UNDERTOW, undertowGaugeSet);
         if (hikariDataSource != null) {
             log.debug("Monitoring the datasource");
             hikariDataSource.setMetricRegistry(metricRegistry);
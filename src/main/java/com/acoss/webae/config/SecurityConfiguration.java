@@ -3,6 +3,7 @@ package com.acoss.webae.config;
 import com.acoss.webae.security.*;
 import com.acoss.webae.security.jwt.*;
 
+import com.codahale.metrics.MetricRegistry;
 import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,16 +37,26 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     private final TokenProvider tokenProvider;
 
+    private final TokenRevocationList tokenRevocationList;
+
     private final CorsFilter corsFilter;
 
     private final SecurityProblemSupport problemSupport;
 
-    public SecurityConfiguration(AuthenticationManagerBuilder authenticationManagerBuilder, UserDetailsService userDetailsService,TokenProvider tokenProvider,CorsFilter corsFilter, SecurityProblemSupport problemSupport) {
+    private final ApplicationProperties applicationProperties;
+
+    private final MetricRegistry metricRegistry;
+
+    public SecurityConfiguration(AuthenticationManagerBuilder authenticationManagerBuilder, UserDetailsService userDetailsService,TokenProvider tokenProvider,TokenRevocationList tokenRevocationList,CorsFilter corsFilter, SecurityProblemSupport problemSupport,
+            ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
         this.authenticationManagerBuilder = authenticationManagerBuilder;
         this.userDetailsService = userDetailsService;
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationList = tokenRevocationList;
         this.corsFilter = corsFilter;
         this.problemSupport = problemSupport;
+        this.applicationProperties = applicationProperties;
+        this.metricRegistry = metricRegistry;
     }
 
     @PostConstruct
@@ -61,7 +72,29 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        ApplicationProperties.PasswordHashing passwordHashing = applicationProperties.getPasswordHashing();
+        int poolSize = passwordHashing.getPoolSize() > 0 ?
+            passwordHashing.getPoolSize() : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = passwordHashing.getQueueCapacity();
+        if (queueCapacity <= 0) {
+            // The callers of the running and queued hashes hold at most half of the worker threads
+            queueCapacity = Math.max(1, workerThreads() / 2 - poolSize);
+        }
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity,
+            passwordHashing.getTimeoutMillis(), metricRegistry);
+    }
+
+    /**
+     * @return the number of Undertow worker threads, with the defaults of Undertow
+     */
+    private int workerThreads() {
+        ApplicationProperties.Undertow undertow = applicationProperties.getUndertow();
+        if (undertow.getWorkerThreads() != null) {
+            return undertow.getWorkerThreads();
+        }
+        int ioThreads = undertow.getIoThreads() != null ?
+            undertow.getIoThreads() : Math.max(Runtime.getRuntime().availableProcessors(), 2);
+        return ioThreads * 8;
     }
 
     @Override
@@ -96,6 +129,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
             .antMatchers("/api/register").permitAll()
             .antMatchers("/api/activate").permitAll()
             .antMatchers("/api/authenticate").permitAll()
+            .antMatchers("/api/authenticate/refresh").permitAll()
             .antMatchers("/api/account/reset-password/init").permitAll()
             .antMatchers("/api/account/reset-password/finish").permitAll()
             .antMatchers("/api/profile-info").permitAll()
@@ -111,7 +145,7 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     }
 
     private JWTConfigurer securityConfigurerAdapter() {
-        return new JWTConfigurer(tokenProvider);
+        return new JWTConfigurer(tokenProvider, tokenRevocationList);
     }
 
 }
@@ -0,0 +1,171 @@
+package com.acoss.webae.config;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.connector.PooledByteBuffer;
+import io.undertow.server.HandlerWrapper;
+import org.xnio.management.XnioWorkerMXBean;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Gauges reading the usage of the Undertow worker and buffer pool.
+ * <p>
+ * XNIO only exposes the sizes of its worker as an MBean, registered under the name of the worker, which must be
+ * {@link #WORKER_NAME}, and not the number of its busy threads. The requests being served, which can be fewer than
+ * the busy threads, and the buffers in use are counted by the handler wrapper and the buffer pool returned by this
+ * class, which must be installed in the Undertow server. Until the server has started, the worker gauges are null.
+ */
+public class UndertowGaugeSet implements MetricSet {
+
+    public static final String WORKER_NAME = "undertow";
+
+    private final MBeanServer mBeanServer;
+
+    private final ObjectName workerNamePattern;
+
+    private final AtomicInteger activeRequests = new AtomicInteger();
+
+    private final AtomicInteger buffersInUse = new AtomicInteger();
+
+    private volatile int bufferSize;
+
+    public UndertowGaugeSet() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    UndertowGaugeSet(MBeanServer mBeanServer) {
+        this.mBeanServer = mBeanServer;
+        try {
+            this.workerNamePattern = new ObjectName("org.xnio:type=Xnio,provider=*,worker=" +
+                ObjectName.quote(WORKER_NAME));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return a handler wrapper counting the requests being served by a worker thread, to install in the servlet
+     * handler chain
+     */
+    public HandlerWrapper activeRequestsHandlerWrapper() {
+        return next -> exchange -> {
+            activeRequests.incrementAndGet();
+            try {
+                next.handleRequest(exchange);
+            } finally {
+                activeRequests.decrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * @param pool the buffer pool of the Undertow server
+     * @return a buffer pool counting the buffers of the given pool which are in use
+     */
+    public ByteBufferPool instrument(ByteBufferPool pool) {
+        this.bufferSize = pool.getBufferSize();
+        return new InstrumentedByteBufferPool(pool);
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        Map<String, Metric> gauges = new HashMap<>();
+        gauges.put("worker.io-threads", workerGauge(XnioWorkerMXBean::getIoThreadCount));
+        gauges.put("worker.max-threads", workerGauge(XnioWorkerMXBean::getMaxWorkerPoolSize));
+        gauges.put("worker.queue-size", workerGauge(XnioWorkerMXBean::getWorkerQueueSize));
+        gauges.put("worker.active-requests", (Gauge<Integer>) activeRequests::get);
+        gauges.put("buffer-pool.buffer-size", (Gauge<Integer>) () -> bufferSize);
+        gauges.put("buffer-pool.in-use", (Gauge<Integer>) buffersInUse::get);
+        gauges.put("buffer-pool.in-use-bytes", (Gauge<Long>) () -> (long) buffersInUse.get() * bufferSize);
+        return gauges;
+    }
+
+    private Gauge<Integer> workerGauge(ToIntFunction<XnioWorkerMXBean> attribute) {
+        return () -> {
+            Set<ObjectName> names = mBeanServer.queryNames(workerNamePattern, null);
+            if (names.isEmpty()) {
+                return null;
+            }
+            return attribute.applyAsInt(JMX.newMXBeanProxy(mBeanServer, names.iterator().next(), XnioWorkerMXBean.class));
+        };
+    }
+
+    private final class InstrumentedByteBufferPool implements ByteBufferPool {
+
+        private final ByteBufferPool delegate;
+
+        private InstrumentedByteBufferPool(ByteBufferPool delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public PooledByteBuffer allocate() {
+            PooledByteBuffer buffer = delegate.allocate();
+            buffersInUse.incrementAndGet();
+            return new InstrumentedPooledByteBuffer(buffer);
+        }
+
+        @Override
+        public ByteBufferPool getArrayBackedPool() {
+            return delegate.getArrayBackedPool();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        @Override
+        public int getBufferSize() {
+            return delegate.getBufferSize();
+        }
+
+        @Override
+        public boolean isDirect() {
+            return delegate.isDirect();
+        }
+    }
+
+    private final class InstrumentedPooledByteBuffer implements PooledByteBuffer {
+
+        private final PooledByteBuffer delegate;
+
+        private boolean released;
+
+        private InstrumentedPooledByteBuffer(PooledByteBuffer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ByteBuffer getBuffer() {
+            return delegate.getBuffer();
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                buffersInUse.decrementAndGet();
+            }
+            delegate.close();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+    }
+}
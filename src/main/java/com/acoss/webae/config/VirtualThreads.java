@@ -0,0 +1,68 @@
+package com.acoss.webae.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads when the JDK supports them.
+ * <p>
+ * The application is compiled for Java 8, so the virtual threads of Java 21 are created by reflection. A virtual
+ * thread is cheap and releases its carrier thread while it blocks on JDBC or SMTP, so the executors created here
+ * start a new thread per task instead of pooling them, and have no bound.
+ */
+public final class VirtualThreads {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL = findOfVirtual();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the JDK can create virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param namePrefix the prefix of the names of the threads, followed by a counter
+     * @return a factory of virtual threads, or empty if the JDK does not support them
+     */
+    public static Optional<ThreadFactory> threadFactory(String namePrefix) {
+        if (OF_VIRTUAL == null) {
+            return Optional.empty();
+        }
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = builderClass.getMethod("name", String.class, long.class)
+                .invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads cannot be created: {}", e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param namePrefix the prefix of the names of the threads, followed by a counter
+     * @return an executor running each task on a new virtual thread, or empty if the JDK does not support them
+     */
+    public static Optional<Executor> executor(String namePrefix) {
+        return threadFactory(namePrefix).map(factory -> command -> factory.newThread(command).start());
+    }
+
+    private static Method findOfVirtual() {
+        try {
+            return Thread.class.getMethod("ofVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -13,6 +13,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.embedded.*;
 import org.springframework.boot.context.embedded.undertow.UndertowEmbeddedServletContainerFactory;
 import io.undertow.UndertowOptions;
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.server.DefaultByteBufferPool;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,8 +23,10 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 import org.springframework.http.MediaType;
+import org.xnio.Options;
 
 import java.util.*;
+import java.util.concurrent.Executor;
 import javax.servlet.*;
 
 /**
@@ -37,12 +41,17 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
 
     private final JHipsterProperties jHipsterProperties;
 
+    private final ApplicationProperties applicationProperties;
+
     private MetricRegistry metricRegistry;
 
-    public WebConfigurer(Environment env, JHipsterProperties jHipsterProperties) {
+    private UndertowGaugeSet undertowGaugeSet;
+
+    public WebConfigurer(Environment env, JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
 
         this.env = env;
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
@@ -69,16 +78,62 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
 
         /*
          * Enable HTTP/2 for Undertow - https://twitter.com/ankinson/status/829256167700492288
-         * HTTP/2 requires HTTPS, so HTTP requests will fallback to HTTP/1.1.
-         * See the JHipsterProperties class and your application-*.yml configuration files
-         * for more information.
+         * Browsers only use HTTP/2 over HTTPS, so their HTTP requests will fallback to HTTP/1.1.
+         * The "application.http2.cleartext" property enables it for HTTP clients which support h2c,
+         * such as a load balancer terminating TLS.
+         * See the JHipsterProperties and ApplicationProperties classes and your application-*.yml
+         * configuration files for more information.
          */
-        if (jHipsterProperties.getHttp().getVersion().equals(JHipsterProperties.Http.Version.V_2_0) &&
+        ApplicationProperties.Http2 http2 = applicationProperties.getHttp2();
+        if ((jHipsterProperties.getHttp().getVersion().equals(JHipsterProperties.Http.Version.V_2_0) || http2.isCleartext()) &&
             container instanceof UndertowEmbeddedServletContainerFactory) {
 
             ((UndertowEmbeddedServletContainerFactory) container)
-                .addBuilderCustomizers(builder ->
-                    builder.setServerOption(UndertowOptions.ENABLE_HTTP2, true));
+                .addBuilderCustomizers(builder -> builder
+                    .setServerOption(UndertowOptions.ENABLE_HTTP2, true)
+                    .setServerOption(UndertowOptions.HTTP2_SETTINGS_MAX_CONCURRENT_STREAMS, http2.getMaxConcurrentStreams())
+                    .setServerOption(UndertowOptions.HTTP2_SETTINGS_INITIAL_WINDOW_SIZE, http2.getInitialWindowSize())
+                    .setServerOption(UndertowOptions.HTTP2_SETTINGS_HEADER_TABLE_SIZE, http2.getHeaderTableSize()));
+        }
+
+        if (container instanceof UndertowEmbeddedServletContainerFactory) {
+            customizeUndertow((UndertowEmbeddedServletContainerFactory) container);
+        }
+    }
+
+    /**
+     * Size the Undertow threads and buffers, instrument the worker and the buffer pool for the metrics, and run the
+     * requests on virtual threads if they are enabled.
+     */
+    private void customizeUndertow(UndertowEmbeddedServletContainerFactory container) {
+        ApplicationProperties.Undertow undertow = applicationProperties.getUndertow();
+        if (undertow.getIoThreads() != null) {
+            container.setIoThreads(undertow.getIoThreads());
+        }
+        if (undertow.getWorkerThreads() != null) {
+            container.setWorkerThreads(undertow.getWorkerThreads());
+        }
+        container.addBuilderCustomizers(builder -> {
+            ByteBufferPool bufferPool = new DefaultByteBufferPool(undertow.isDirectBuffers(), undertow.getBufferSize(), -1, 4);
+            builder
+                .setWorkerOption(Options.WORKER_NAME, UndertowGaugeSet.WORKER_NAME)
+                .setByteBufferPool(undertowGaugeSet == null ? bufferPool : undertowGaugeSet.instrument(bufferPool));
+        });
+        if (undertowGaugeSet != null) {
+            container.addDeploymentInfoCustomizers(deploymentInfo ->
+                deploymentInfo.addInnerHandlerChainWrapper(undertowGaugeSet.activeRequestsHandlerWrapper()));
+        }
+        if (applicationProperties.getVirtualThreads().isEnabled()) {
+            Optional<Executor> virtualThreadExecutor = VirtualThreads.executor("undertow-virtual-");
+            if (virtualThreadExecutor.isPresent()) {
+                log.info("Undertow runs the requests on virtual threads");
+                // The worker pool still runs the tasks of Undertow itself, but no longer the blocking servlet code
+                container.addDeploymentInfoCustomizers(deploymentInfo -> deploymentInfo
+                    .setExecutor(virtualThreadExecutor.get())
+                    .setAsyncExecutor(virtualThreadExecutor.get()));
+            } else {
+                log.warn("Virtual threads are not supported by this JDK, Undertow runs the requests on its worker pool");
+            }
         }
     }
 
@@ -125,4 +180,9 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
     public void setMetricRegistry(MetricRegistry metricRegistry) {
         this.metricRegistry = metricRegistry;
     }
+
+    @Autowired(required = false)
+    public void setUndertowGaugeSet(UndertowGaugeSet undertowGaugeSet) {
+        this.undertowGaugeSet = undertowGaugeSet;
+    }
 }
@@ -1,5 +1,7 @@
 package com.acoss.webae.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
@@ -11,13 +13,14 @@ import java.util.Objects;
  */
 @Entity
 @Table(name = "metadata")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 public class Metadata implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", initialValue = 1000, allocationSize = 1000)
     private Long id;
 
     @Column(name = "title")
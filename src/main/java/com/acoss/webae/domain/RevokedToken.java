@@ -0,0 +1,128 @@
+package com.acoss.webae.domain;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A revoked JWT: either a single token, identified by its id, or all the tokens of a subject issued until the
+ * revocation. The revocation is kept until the revoked tokens expire.
+ */
+@Entity
+@Table(name = "revoked_token")
+public class RevokedToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", initialValue = 1000, allocationSize = 1000)
+    private Long id;
+
+    @Size(max = 64)
+    @Column(name = "token_id", length = 64)
+    private String tokenId;
+
+    @Size(max = 100)
+    @Column(name = "subject", length = 100)
+    private String subject;
+
+    @NotNull
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * The value of the revocation version counter when this token was revoked.
+     */
+    @NotNull
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RevokedToken revokedToken = (RevokedToken) o;
+        if (revokedToken.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), revokedToken.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "RevokedToken{" +
+            "id=" + getId() +
+            ", tokenId='" + getTokenId() + "'" +
+            ", subject='" + getSubject() + "'" +
+            ", revokedAt='" + getRevokedAt() + "'" +
+            ", expiresAt='" + getExpiresAt() + "'" +
+            ", version=" + getVersion() +
+            "}";
+    }
+}
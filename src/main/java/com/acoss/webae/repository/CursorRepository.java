@@ -0,0 +1,118 @@
+package com.acoss.webae.repository;
+
+import com.acoss.webae.config.ApplicationProperties;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.io.IOException;
+
+/**
+ * Repository reading a page of entities through a forward-only database cursor, one row at a time.
+ * <p>
+ * Each entity is detached once it has been handed to the callback, so that the heap used does not depend on the
+ * size of the page. This must be called inside a transaction.
+ */
+@Repository
+public class CursorRepository {
+
+    /**
+     * Receives the rows read from the cursor.
+     *
+     * @param <T> the type of the rows
+     */
+    @FunctionalInterface
+    public interface RowCallback<T> {
+
+        void accept(T row) throws IOException;
+    }
+
+    private final int fetchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CursorRepository(ApplicationProperties applicationProperties) {
+        this.fetchSize = applicationProperties.getStreaming().getFetchSize();
+    }
+
+    /**
+     * Read a page of entities.
+     *
+     * @param entityClass the class of the entity
+     * @param specification the restriction of the query, or null to read all the entities
+     * @param pageable the pagination information
+     * @param callback the callback receiving each entity, in page order
+     * @param <T> the type of the entity
+     * @return the number of entities read
+     * @throws IOException if the callback fails to process an entity
+     */
+    @SuppressWarnings("unchecked")
+    public <T> long forEach(Class<T> entityClass, Specification<T> specification, Pageable pageable,
+            RowCallback<? super T> callback) throws IOException {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        query.select(root);
+        restrict(query, root, builder, specification);
+        if (pageable.getSort() != null) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+
+        Session session = entityManager.unwrap(Session.class);
+        long count = 0;
+        try (ScrollableResults results = entityManager.createQuery(query).unwrap(Query.class)
+                .setFirstResult(pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                T entity = (T) results.get(0);
+                callback.accept(entity);
+                session.detach(entity);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param entityClass the class of the entity
+     * @param specification the restriction of the query, or null to count all the entities
+     * @param <T> the type of the entity
+     * @return the number of entities matching the specification
+     */
+    public <T> long count(Class<T> entityClass, Specification<T> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        query.select(builder.count(root));
+        restrict(query, root, builder, specification);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static <T> void restrict(CriteriaQuery<?> query, Root<T> root, CriteriaBuilder builder,
+            Specification<T> specification) {
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.acoss.webae.repository;
 
 import com.acoss.webae.domain.Metadata;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.jpa.repository.*;
@@ -13,4 +15,9 @@ import org.springframework.data.jpa.repository.*;
 @Repository
 public interface MetadataRepository extends JpaRepository<Metadata, Long> {
 
+    /**
+     * Keyset pagination on the primary key: this reads one more row than the page size to tell if there is a
+     * next slice, and needs neither an offset nor a count query.
+     */
+    Slice<Metadata> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -0,0 +1,91 @@
+package com.acoss.webae.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.util.*;
+
+/**
+ * Repository running tuple queries, which select only some attributes of an entity.
+ * <p>
+ * The entities are neither loaded nor managed: only the selected columns are read, and each row is returned
+ * as a map from field name to value.
+ */
+@Repository
+public class ProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Get a page of entities, projected to the given attributes.
+     *
+     * @param entityClass the class of the entity
+     * @param attributes the entity attribute of each field to select, by field name
+     * @param specification the restriction of the query, or null to select all the entities
+     * @param pageable the pagination information, whose sort refers to entity attributes
+     * @param <T> the type of the entity
+     * @return the page of rows, each with its fields in the order of the attributes
+     */
+    public <T> Page<Map<String, Object>> findAll(Class<T> entityClass, Map<String, String> attributes,
+            Specification<T> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            selections.add(root.get(attribute.getValue()).alias(attribute.getKey()));
+        }
+        query.multiselect(selections);
+        restrict(query, root, builder, specification);
+        if (pageable != null && pageable.getSort() != null) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable != null) {
+            typedQuery.setFirstResult(pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : attributes.keySet()) {
+                row.put(field, tuple.get(field));
+            }
+            content.add(row);
+        }
+        if (pageable == null) {
+            return new PageImpl<>(content);
+        }
+        return new PageImpl<>(content, pageable, count(entityClass, specification, builder));
+    }
+
+    private <T> long count(Class<T> entityClass, Specification<T> specification, CriteriaBuilder builder) {
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        query.select(builder.count(root));
+        restrict(query, root, builder, specification);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static <T> void restrict(CriteriaQuery<?> query, Root<T> root, CriteriaBuilder builder,
+            Specification<T> specification) {
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, builder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.acoss.webae.repository;
+
+import com.acoss.webae.domain.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Spring Data JPA repository for the RefreshToken entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Find a token with its user and the authorities of the user, in a single query on the unique hash index.
+     */
+    @Query("select refreshToken from RefreshToken refreshToken join fetch refreshToken.user user " +
+        "left join fetch user.authorities where refreshToken.tokenHash = ?1")
+    Optional<RefreshToken> findOneWithUserByTokenHash(String tokenHash);
+
+    /**
+     * Delete a token. Only one of the concurrent requests using the same token deletes it.
+     *
+     * @return the number of deleted tokens
+     */
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.tokenHash = ?1")
+    int deleteByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.user.id = ?1")
+    int deleteAllByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.expiresAt < ?1")
+    int deleteAllByExpiresAtBefore(Instant now);
+}
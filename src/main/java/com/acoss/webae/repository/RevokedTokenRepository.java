@@ -0,0 +1,34 @@
+package com.acoss.webae.repository;
+
+import com.acoss.webae.domain.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the RevokedToken entity, and for the revocation version counter.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    List<RevokedToken> findAllByVersionGreaterThanAndExpiresAtAfter(Long version, Instant now);
+
+    @Modifying
+    @Query("delete from RevokedToken revokedToken where revokedToken.expiresAt < ?1")
+    int deleteAllByExpiresAtBefore(Instant now);
+
+    /**
+     * Increment the version counter. The row stays locked until the end of the transaction, so that the versions
+     * are committed in order.
+     */
+    @Modifying
+    @Query(value = "update revocation_version set version = version + 1 where id = 1", nativeQuery = true)
+    int incrementVersion();
+
+    @Query(value = "select version from revocation_version where id = 1", nativeQuery = true)
+    Long findVersion();
+}
@@ -6,7 +6,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.time.Instant;
@@ -19,6 +21,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findOneByActivationKey(String activationKey);
 
+    /**
+     * @param ids the ids of the users
+     * @return the pairs of user id and authority name of the users
+     */
+    @Query("select user.id, authority.name from User user join user.authorities authority where user.id in ?1")
+    List<Object[]> findAllAuthorityNamesByIdIn(Collection<Long> ids);
+
     List<User> findAllByActivatedIsFalseAndCreatedDateBefore(Instant dateTime);
 
     Optional<User> findOneByResetKey(String resetKey);
@@ -36,5 +45,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @EntityGraph(attributePaths = "authorities")
     Optional<User> findOneWithAuthoritiesByEmail(String email);
 
+    /**
+     * Find the users, usually a single one, whose email or login is the given value, with their authorities, in a
+     * single query.
+     */
+    @Query("select distinct user from User user left join fetch user.authorities " +
+        "where user.email = ?1 or user.login = ?1")
+    List<User> findAllWithAuthoritiesByEmailOrLogin(String emailOrLogin);
+
     Page<User> findAllByLoginNot(Pageable pageable, String login);
 }
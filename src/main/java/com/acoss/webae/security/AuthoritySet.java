@@ -0,0 +1,155 @@
+package com.acoss.webae.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An immutable set of authorities, shared by all the users with the same authorities.
+ * <p>
+ * There are only a few distinct combinations of authorities, so the sets are interned by their "auth" claim, the
+ * comma-separated names of their authorities, instead of being built for each request. Each authority name gets a
+ * bit, so that {@link #hasAuthority(String)} is a bitmask test. The table of the sets and the bits are bounded:
+ * past them, the sets are built for each call, and the authorities are looked up one by one.
+ */
+public final class AuthoritySet extends AbstractSet<GrantedAuthority> {
+
+    private static final int MAX_INTERNED_SETS = 256;
+
+    private static final ConcurrentMap<String, AuthoritySet> SETS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, Integer> BITS = new ConcurrentHashMap<>();
+
+    private final List<GrantedAuthority> authorities;
+
+    private final String claim;
+
+    private final long mask;
+
+    private AuthoritySet(List<GrantedAuthority> authorities, String claim, long mask) {
+        this.authorities = authorities;
+        this.claim = claim;
+        this.mask = mask;
+    }
+
+    /**
+     * @param claim the comma-separated names of the authorities
+     * @return the shared set of these authorities
+     */
+    public static AuthoritySet fromClaim(String claim) {
+        AuthoritySet set = SETS.get(claim);
+        if (set != null) {
+            return set;
+        }
+        set = create(claim);
+        if (SETS.size() >= MAX_INTERNED_SETS) {
+            return set;
+        }
+        AuthoritySet previous = SETS.putIfAbsent(claim, set);
+        return previous != null ? previous : set;
+    }
+
+    /**
+     * @param names the names of the authorities
+     * @return the shared set of these authorities
+     */
+    public static AuthoritySet of(Collection<String> names) {
+        return fromClaim(String.join(",", names));
+    }
+
+    /**
+     * @param authorities any collection of authorities
+     * @param name the name of an authority
+     * @return true if the collection contains the authority, with a bitmask test if it is an AuthoritySet
+     */
+    public static boolean hasAuthority(Collection<? extends GrantedAuthority> authorities, String name) {
+        if (authorities instanceof AuthoritySet) {
+            return ((AuthoritySet) authorities).hasAuthority(name);
+        }
+        return authorities.stream().anyMatch(authority -> name.equals(authority.getAuthority()));
+    }
+
+    /**
+     * @param name the name of an authority
+     * @return true if this set contains the authority
+     */
+    public boolean hasAuthority(String name) {
+        Integer bit = BITS.get(name);
+        if (bit != null) {
+            return (mask & (1L << bit)) != 0;
+        }
+        return authorities.stream().anyMatch(authority -> name.equals(authority.getAuthority()));
+    }
+
+    /**
+     * @return the comma-separated names of the authorities
+     */
+    public String getClaim() {
+        return claim;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof GrantedAuthority && ((GrantedAuthority) o).getAuthority() != null &&
+            hasAuthority(((GrantedAuthority) o).getAuthority());
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return authorities.iterator();
+    }
+
+    @Override
+    public int size() {
+        return authorities.size();
+    }
+
+    private static AuthoritySet create(String claim) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        long mask = 0;
+        for (String name : claim.split(",")) {
+            if (name.isEmpty() || mask != 0 && hasBit(mask, name)) {
+                continue;
+            }
+            authorities.add(AUTHORITIES.computeIfAbsent(name, SimpleGrantedAuthority::new));
+            Integer bit = bit(name);
+            if (bit != null) {
+                mask |= 1L << bit;
+            }
+        }
+        return new AuthoritySet(Collections.unmodifiableList(authorities), claim, mask);
+    }
+
+    private static boolean hasBit(long mask, String name) {
+        Integer bit = BITS.get(name);
+        return bit != null && (mask & (1L << bit)) != 0;
+    }
+
+    /**
+     * @return the bit of the authority, or null if all the bits are taken
+     */
+    private static Integer bit(String name) {
+        Integer bit = BITS.get(name);
+        if (bit != null || BITS.size() >= Long.SIZE) {
+            return bit;
+        }
+        synchronized (BITS) {
+            bit = BITS.get(name);
+            if (bit == null && BITS.size() < Long.SIZE) {
+                bit = BITS.size();
+                BITS.put(name, bit);
+            }
+            return bit;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.acoss.webae.security;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A password encoder running the hashes of its delegate, such as BCrypt, on a dedicated pool of threads.
+ * <p>
+ * The pool is sized for the CPU and has a bounded queue: when it is full, the hash is rejected at once with a
+ * {@link TaskRejectedException}, answered with a 503, so that a login storm cannot hold every server thread. The
+ * calling thread waits for the hash, for a bounded time after which the hash is abandoned with the same exception.
+ * The queue size, active threads, time waited in the queue, hash latencies, rejections and timeouts are published
+ * as "password-hashing.*" metrics.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueWait;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Meter rejected;
+
+    private final Meter timeouts;
+
+    private final long timeoutMillis;
+
+    /**
+     * @param delegate the encoder computing the hashes
+     * @param poolSize the number of hashing threads, or 0 for the number of processors
+     * @param queueCapacity the number of hashes waiting for a thread, over which the hashes are rejected
+     * @param timeoutMillis the time a caller waits for its hash, queue included, in milliseconds
+     * @param metricRegistry the registry of the "password-hashing.*" metrics
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long timeoutMillis,
+            MetricRegistry metricRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("cfe-backonly-password-hashing-"));
+        this.queueWait = metricRegistry.timer("password-hashing.queue-wait");
+        this.encodeTimer = metricRegistry.timer("password-hashing.encode");
+        this.matchesTimer = metricRegistry.timer("password-hashing.matches");
+        this.rejected = metricRegistry.meter("password-hashing.rejected");
+        this.timeouts = metricRegistry.meter("password-hashing.timeouts");
+        metricRegistry.register("password-hashing.queue-size", (Gauge<Integer>) () -> executor.getQueue().size());
+        metricRegistry.register("password-hashing.active-threads", (Gauge<Integer>) executor::getActiveCount);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Timer timer, Callable<T> hash) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.update(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                try (Timer.Context ignored = timer.time()) {
+                    return hash.call();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.mark();
+            throw new TaskRejectedException("Too many passwords are being hashed", e);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.mark();
+            throw new TaskRejectedException("A password was not hashed within " + timeoutMillis + " ms", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.acoss.webae.security;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * A count-min sketch of decaying counters, in a fixed amount of memory, split into stripes with their own lock.
+ * <p>
+ * A key is hashed to a stripe, then to one counter in each of the {@link #DEPTH} rows of the stripe; its estimate is
+ * the smallest of these counters, so it is never under the real count, and only over it when other keys share all
+ * its counters. The increments are conservative: only the counters at the minimum are incremented. The counters of a
+ * stripe are halved after each half-life, lazily when the stripe is next used. The hashes are seeded at random, so
+ * that the keys sharing counters cannot be chosen in advance.
+ */
+final class CountMinSketch {
+
+    static final int DEPTH = 4;
+
+    private final Stripe[] stripes;
+
+    private final int width;
+
+    private final long halfLifeMillis;
+
+    private final LongSupplier clock;
+
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * @param stripeCount the number of stripes, a power of two
+     * @param width the number of counters of each row of a stripe
+     * @param halfLifeMillis the delay after which the counters are halved
+     * @param clock the current time, in milliseconds
+     */
+    CountMinSketch(int stripeCount, int width, long halfLifeMillis, LongSupplier clock) {
+        if (Integer.bitCount(stripeCount) != 1 || width < 1 || halfLifeMillis < 1) {
+            throw new IllegalArgumentException("Invalid sketch: " + stripeCount + " stripes, width " + width +
+                ", half-life " + halfLifeMillis + " ms");
+        }
+        this.width = width;
+        this.halfLifeMillis = halfLifeMillis;
+        this.clock = clock;
+        this.stripes = new Stripe[stripeCount];
+        long now = clock.getAsLong();
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(width, now);
+        }
+    }
+
+    /**
+     * @param key a key
+     * @return the decayed count of the key, never under its real count
+     */
+    int estimate(String key) {
+        long hash = hash(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            decay(stripe);
+            return min(stripe, hash);
+        }
+    }
+
+    /**
+     * Count the key once more.
+     *
+     * @param key a key
+     * @return the new estimate of the key
+     */
+    int increment(String key) {
+        long hash = hash(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            decay(stripe);
+            int estimate = min(stripe, hash) + 1;
+            for (int row = 0; row < DEPTH; row++) {
+                int column = column(hash, row);
+                if (stripe.counters[row][column] < estimate) {
+                    stripe.counters[row][column] = estimate;
+                }
+            }
+            return estimate;
+        }
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> 32) & (stripes.length - 1)];
+    }
+
+    private int min(Stripe stripe, long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, stripe.counters[row][column(hash, row)]);
+        }
+        return min;
+    }
+
+    private int column(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return ((h1 + row * h2) & Integer.MAX_VALUE) % width;
+    }
+
+    private void decay(Stripe stripe) {
+        long periods = (clock.getAsLong() - stripe.lastDecay) / halfLifeMillis;
+        if (periods <= 0) {
+            return;
+        }
+        int shift = (int) Math.min(periods, Integer.SIZE - 1);
+        for (int[] row : stripe.counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= shift;
+            }
+        }
+        stripe.lastDecay += periods * halfLifeMillis;
+    }
+
+    /**
+     * Seeded FNV-1a 64-bit hash of the characters, with the final mix of MurmurHash3.
+     */
+    private long hash(String key) {
+        long hash = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Stripe {
+
+        private final int[][] counters;
+
+        private long lastDecay;
+
+        private Stripe(int width, long now) {
+            this.counters = new int[DEPTH][width];
+            this.lastDecay = now;
+        }
+    }
+}
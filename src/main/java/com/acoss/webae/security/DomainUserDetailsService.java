@@ -1,11 +1,10 @@
 package com.acoss.webae.security;
 
+import com.acoss.webae.domain.Authority;
 import com.acoss.webae.domain.User;
 import com.acoss.webae.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -25,8 +24,11 @@ public class DomainUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final UserDetailsCache userDetailsCache;
+
+    public DomainUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
@@ -34,22 +36,31 @@ public class DomainUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(final String login) {
         log.debug("Authenticating {}", login);
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        Optional<User> userByEmailFromDatabase = userRepository.findOneWithAuthoritiesByEmail(lowercaseLogin);
-        return userByEmailFromDatabase.map(user -> createSpringSecurityUser(lowercaseLogin, user)).orElseGet(() -> {
-            Optional<User> userByLoginFromDatabase = userRepository.findOneWithAuthoritiesByLogin(lowercaseLogin);
-            return userByLoginFromDatabase.map(user -> createSpringSecurityUser(lowercaseLogin, user))
+        UserDetails cachedUser = userDetailsCache.get(lowercaseLogin);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+        List<User> users = userRepository.findAllWithAuthoritiesByEmailOrLogin(lowercaseLogin);
+        // A user whose email matches comes first, as a login may look like an email
+        User user = users.stream()
+            .filter(candidate -> lowercaseLogin.equals(candidate.getEmail()))
+            .findFirst()
+            .orElseGet(() -> users.stream().findFirst()
                 .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the " +
-                    "database"));
-        });
+                    "database")));
+        UserDetails userDetails = createSpringSecurityUser(lowercaseLogin, user);
+        userDetailsCache.put(lowercaseLogin, userDetails);
+        return userDetails;
     }
 
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
         if (!user.getActivated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
         }
-        List<GrantedAuthority> grantedAuthorities = user.getAuthorities().stream()
-            .map(authority -> new SimpleGrantedAuthority(authority.getName()))
-            .collect(Collectors.toList());
+        AuthoritySet grantedAuthorities = AuthoritySet.of(user.getAuthorities().stream()
+            .map(Authority::getName)
+            .sorted()
+            .collect(Collectors.toList()));
         return new org.springframework.security.core.userdetails.User(user.getLogin(),
             user.getPassword(),
             grantedAuthorities);
@@ -0,0 +1,135 @@
+package com.acoss.webae.security;
+
+import com.acoss.webae.config.ApplicationProperties;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttle of the logins, by login and by client IP address, consulted before the password is checked.
+ * <p>
+ * The failed logins are counted in two {@link CountMinSketch}es, in a fixed amount of memory whatever the number of
+ * logins and addresses tried. Once a login or an address has failed "application.login-throttling.max-login-failures"
+ * or "max-ip-failures" times, its attempts are rejected without reading the database nor hashing the password, until
+ * its count decays under the limit: the counts are halved every "half-life-seconds". The size of the sketches is
+ * set by "stripes" and "width". The rejected attempts are counted by the "login-throttle.rejected" meter.
+ * <p>
+ * The address of a client is read from the X-Forwarded-For header only when the request comes from one of the
+ * "trusted-proxies": it is the last address of the header which is not a trusted proxy.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final Logger log = LoggerFactory.getLogger(LoginThrottle.class);
+
+    private final ApplicationProperties.LoginThrottling properties;
+
+    private final Set<String> trustedProxies;
+
+    private final CountMinSketch loginFailures;
+
+    private final CountMinSketch ipFailures;
+
+    private final Meter rejected;
+
+    @Autowired
+    public LoginThrottle(ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
+        this(applicationProperties, metricRegistry, System::currentTimeMillis);
+    }
+
+    LoginThrottle(ApplicationProperties applicationProperties, MetricRegistry metricRegistry, LongSupplier clock) {
+        this.properties = applicationProperties.getLoginThrottling();
+        this.trustedProxies = new HashSet<>(properties.getTrustedProxies());
+        long halfLifeMillis = 1000 * properties.getHalfLifeSeconds();
+        this.loginFailures = new CountMinSketch(properties.getStripes(), properties.getWidth(), halfLifeMillis, clock);
+        this.ipFailures = new CountMinSketch(properties.getStripes(), properties.getWidth(), halfLifeMillis, clock);
+        this.rejected = metricRegistry.meter("login-throttle.rejected");
+    }
+
+    /**
+     * @param login the login, or email, of the attempt
+     * @param ip the address of the client, may be null
+     * @return true if the attempt must be rejected
+     */
+    public boolean isThrottled(String login, String ip) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        if (loginFailures.estimate(key(login)) >= properties.getMaxLoginFailures() ||
+            (ip != null && ipFailures.estimate(ip) >= properties.getMaxIpFailures())) {
+            log.debug("Login attempt for {} from {} throttled", login, ip);
+            rejected.mark();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Count a failed attempt.
+     *
+     * @param login the login, or email, of the attempt
+     * @param ip the address of the client, may be null
+     */
+    public void recordFailure(String login, String ip) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        loginFailures.increment(key(login));
+        if (ip != null) {
+            ipFailures.increment(ip);
+        }
+    }
+
+    /**
+     * @param request a request
+     * @return the address of the client of the request, behind the trusted proxies
+     */
+    public String getClientIp(HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+        if (!trustedProxies.contains(ip)) {
+            return ip;
+        }
+        List<String> forwardedFor = new ArrayList<>();
+        for (Enumeration<String> headers = request.getHeaders(X_FORWARDED_FOR); headers.hasMoreElements(); ) {
+            for (String address : StringUtils.commaDelimitedListToStringArray(headers.nextElement())) {
+                if (!address.trim().isEmpty()) {
+                    forwardedFor.add(address.trim());
+                }
+            }
+        }
+        for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+            ip = forwardedFor.get(i);
+            if (!trustedProxies.contains(ip)) {
+                break;
+            }
+        }
+        return ip;
+    }
+
+    /**
+     * @return the delay after which a throttled client should try again, in seconds
+     */
+    public long getRetryAfterSeconds() {
+        return properties.getHalfLifeSeconds();
+    }
+
+    private static String key(String login) {
+        return login == null ? "" : login.toLowerCase(Locale.ENGLISH);
+    }
+}
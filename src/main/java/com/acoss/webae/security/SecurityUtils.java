@@ -53,15 +53,15 @@ public final class SecurityUtils {
     public static boolean isAuthenticated() {
         SecurityContext securityContext = SecurityContextHolder.getContext();
         return Optional.ofNullable(securityContext.getAuthentication())
-            .map(authentication -> authentication.getAuthorities().stream()
-                .noneMatch(grantedAuthority -> grantedAuthority.getAuthority().equals(AuthoritiesConstants.ANONYMOUS)))
+            .map(authentication -> !AuthoritySet.hasAuthority(authentication.getAuthorities(), AuthoritiesConstants.ANONYMOUS))
             .orElse(false);
     }
 
     /**
      * If the current user has a specific authority (security role).
      * <p>
-     * The name of this method comes from the isUserInRole() method in the Servlet API
+     * The name of this method comes from the isUserInRole() method in the Servlet API. The authorities of a JWT are
+     * an {@link AuthoritySet}, checked with a bitmask.
      *
      * @param authority the authority to check
      * @return true if the current user has the authority, false otherwise
@@ -69,8 +69,7 @@ public final class SecurityUtils {
     public static boolean isCurrentUserInRole(String authority) {
         SecurityContext securityContext = SecurityContextHolder.getContext();
         return Optional.ofNullable(securityContext.getAuthentication())
-            .map(authentication -> authentication.getAuthorities().stream()
-                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals(authority)))
+            .map(authentication -> AuthoritySet.hasAuthority(authentication.getAuthorities(), authority))
             .orElse(false);
     }
 }
@@ -0,0 +1,127 @@
+package com.acoss.webae.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the users loaded by the {@link DomainUserDetailsService}, by lowercase login or email, in the
+ * {@link #CACHE_NAME} cache which bounds their number and their time to live.
+ * <p>
+ * The cache holds an immutable copy of each user, and returns a new {@link UserDetails} each time, since the
+ * authentication manager erases the password of the user it authenticated. The UserService evicts a user when it
+ * is modified; the eviction is done again once the transaction is committed, so that a concurrent login cannot put
+ * back the user read before the commit. The other nodes evict the user when they load the revocation of its tokens,
+ * which the UserService makes whenever the password, login, activation or authorities of the user change, see
+ * {@link com.acoss.webae.service.TokenRevocationService}.
+ */
+@Component
+public class UserDetailsCache {
+
+    public static final String CACHE_NAME = UserDetailsCache.class.getName() + ".users";
+
+    private final Cache<String, CachedUser> users;
+
+    public UserDetailsCache(CacheManager cacheManager) {
+        this.users = cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * @param key the login or email of the user, in lowercase
+     * @return a new copy of the cached user, or null if it is not cached
+     */
+    public UserDetails get(String key) {
+        CachedUser cachedUser = users.get(key);
+        return cachedUser == null ? null : cachedUser.toUserDetails();
+    }
+
+    /**
+     * Cache an activated user.
+     *
+     * @param key the login or email of the user, in lowercase
+     * @param userDetails the user
+     */
+    public void put(String key, UserDetails userDetails) {
+        String authorities = userDetails.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .sorted()
+            .collect(Collectors.joining(","));
+        users.put(key, new CachedUser(userDetails.getUsername(), userDetails.getPassword(), authorities));
+    }
+
+    /**
+     * Evict a user, now and after the commit of the current transaction.
+     *
+     * @param login the login of the user
+     * @param email the email of the user, may be null
+     */
+    public void evict(String login, String email) {
+        Runnable eviction = () -> {
+            if (login != null) {
+                users.remove(login.toLowerCase(Locale.ENGLISH));
+            }
+            if (email != null) {
+                users.remove(email.toLowerCase(Locale.ENGLISH));
+            }
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Evict a user under all its keys, when only its login is known, such as when the tokens of the user were
+     * revoked by another node.
+     *
+     * @param login the login of the user
+     */
+    public void evictLogin(String login) {
+        List<String> keys = new ArrayList<>();
+        for (Cache.Entry<String, CachedUser> entry : users) {
+            if (entry.getValue().login.equalsIgnoreCase(login)) {
+                keys.add(entry.getKey());
+            }
+        }
+        keys.add(login.toLowerCase(Locale.ENGLISH));
+        users.removeAll(new HashSet<>(keys));
+    }
+
+    private static final class CachedUser implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String login;
+
+        private final String password;
+
+        private final String authorities;
+
+        private CachedUser(String login, String password, String authorities) {
+            this.login = login;
+            this.password = password;
+            this.authorities = authorities;
+        }
+
+        private UserDetails toUserDetails() {
+            return new User(login, password, AuthoritySet.fromClaim(authorities));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.acoss.webae.security.jwt;
+
+/**
+ * An immutable-once-built Bloom filter of strings: {@link #mightContain(String)} never misses a string which was
+ * put, and wrongly finds about 1% of the other strings.
+ * <p>
+ * Each string is hashed once to 64 bits, whose halves give the {@link #PROBES} positions by double hashing.
+ */
+class BloomFilter {
+
+    private static final int PROBES = 7;
+
+    private static final int BITS_PER_ENTRY = 10;
+
+    private final long[] words;
+
+    private final int bits;
+
+    /**
+     * @param expectedEntries the number of strings which will be put in the filter
+     */
+    BloomFilter(int expectedEntries) {
+        int words = Math.max(1, (int) Math.min(Integer.MAX_VALUE / Long.SIZE,
+            ((long) expectedEntries * BITS_PER_ENTRY + Long.SIZE - 1) / Long.SIZE));
+        this.words = new long[words];
+        this.bits = words * Long.SIZE;
+    }
+
+    void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < PROBES; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < PROBES; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a over the characters, followed by the finalizer of MurmurHash3 to spread the bits.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
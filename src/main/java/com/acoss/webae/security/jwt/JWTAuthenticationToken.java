@@ -0,0 +1,57 @@
+package com.acoss.webae.security.jwt;
+
+import com.acoss.webae.security.AuthoritySet;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * The authentication of a JWT, which returns the shared {@link AuthoritySet} of its "auth" claim instead of a copy,
+ * and keeps the claims needed to revoke it.
+ */
+public class JWTAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AuthoritySet authorities;
+
+    private final String tokenId;
+
+    private final long issuedAt;
+
+    private final long expiration;
+
+    JWTAuthenticationToken(Object principal, String token, AuthoritySet authorities, String tokenId, long issuedAt,
+            long expiration) {
+        super(principal, token, authorities);
+        this.authorities = authorities;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    @Override
+    public AuthoritySet getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * @return the "jti" claim, or null for the tokens created before it was added
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * @return the "iat" claim in milliseconds, or 0 for the tokens created before it was added
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * @return the "exp" claim in milliseconds, or 0 if the token does not expire
+     */
+    public long getExpiration() {
+        return expiration;
+    }
+}
@@ -11,13 +11,16 @@ public class JWTConfigurer extends SecurityConfigurerAdapter<DefaultSecurityFilt
 
     private TokenProvider tokenProvider;
 
-    public JWTConfigurer(TokenProvider tokenProvider) {
+    private TokenRevocationList tokenRevocationList;
+
+    public JWTConfigurer(TokenProvider tokenProvider, TokenRevocationList tokenRevocationList) {
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
     public void configure(HttpSecurity http) throws Exception {
-        JWTFilter customFilter = new JWTFilter(tokenProvider);
+        JWTFilter customFilter = new JWTFilter(tokenProvider, tokenRevocationList);
         http.addFilterBefore(customFilter, UsernamePasswordAuthenticationFilter.class);
     }
 }
@@ -1,6 +1,5 @@
 package com.acoss.webae.security.jwt;
 
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.GenericFilterBean;
@@ -14,14 +13,17 @@ import java.io.IOException;
 
 /**
  * Filters incoming requests and installs a Spring Security principal if a header corresponding to a valid user is
- * found.
+ * found, and its token is not revoked.
  */
 public class JWTFilter extends GenericFilterBean {
 
     private TokenProvider tokenProvider;
 
-    public JWTFilter(TokenProvider tokenProvider) {
+    private TokenRevocationList tokenRevocationList;
+
+    public JWTFilter(TokenProvider tokenProvider, TokenRevocationList tokenRevocationList) {
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
@@ -29,9 +31,10 @@ public class JWTFilter extends GenericFilterBean {
         throws IOException, ServletException {
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
         String jwt = resolveToken(httpServletRequest);
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (StringUtils.hasText(jwt)) {
+            this.tokenProvider.resolveAuthentication(jwt)
+                .filter(authentication -> !this.tokenRevocationList.isRevoked(authentication))
+                .ifPresent(authentication -> SecurityContextHolder.getContext().setAuthentication(authentication));
         }
         filterChain.doFilter(servletRequest, servletResponse);
     }
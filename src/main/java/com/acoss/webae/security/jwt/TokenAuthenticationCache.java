@@ -0,0 +1,117 @@
+package com.acoss.webae.security.jwt;
+
+import org.springframework.security.core.Authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the authentications built from verified tokens, so that a token sent again is neither parsed nor
+ * verified again.
+ * <p>
+ * The entries are keyed by the SHA-256 hash of the token, so that the tokens themselves are not kept, and expire
+ * with their token. When the cache is full, the oldest entries are removed first, in insertion order; the tokens
+ * having about the same lifetime, these are the first to expire. The expired entries are also removed on their next
+ * lookup, and swept once every "max entries" insertions, so that an insertion takes an amortized constant time.
+ */
+class TokenAuthenticationCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The entries in insertion order, including the entries already removed or replaced until they are dropped.
+     */
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong insertions = new AtomicLong();
+
+    private final int maxEntries;
+
+    TokenAuthenticationCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param token the token
+     * @param now the current time, in milliseconds
+     * @return the authentication of the token, or null if it is not cached or has expired
+     */
+    Authentication get(String token, long now) {
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.authentication;
+    }
+
+    /**
+     * @param token the verified token
+     * @param authentication the authentication built from the token
+     * @param expiresAt the expiration time of the token, in milliseconds
+     * @param now the current time, in milliseconds
+     */
+    void put(String token, Authentication authentication, long expiresAt, long now) {
+        if (expiresAt <= now) {
+            return;
+        }
+        Entry entry = new Entry(hash(token), authentication, expiresAt);
+        entries.put(entry.key, entry);
+        insertionOrder.add(entry);
+        if (insertions.incrementAndGet() % maxEntries == 0) {
+            sweep(now);
+        }
+        while (entries.size() > maxEntries) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            entries.remove(oldest.key, oldest);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove the expired entries, and drop the entries removed or replaced from the insertion order.
+     */
+    private void sweep(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        insertionOrder.removeIf(entry -> entries.get(entry.key) != entry);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+
+        private final Authentication authentication;
+
+        private final long expiresAt;
+
+        private Entry(String key, Authentication authentication, long expiresAt) {
+            this.key = key;
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
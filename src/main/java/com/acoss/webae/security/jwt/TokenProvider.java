@@ -1,5 +1,7 @@
 package com.acoss.webae.security.jwt;
 
+import com.acoss.webae.security.AuthoritySet;
+
 import io.github.jhipster.config.JHipsterProperties;
 
 import java.util.*;
@@ -8,10 +10,8 @@ import javax.annotation.PostConstruct;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 
@@ -24,6 +24,10 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final int MAX_CACHED_AUTHENTICATIONS = 10000;
+
+    private final TokenAuthenticationCache authenticationCache = new TokenAuthenticationCache(MAX_CACHED_AUTHENTICATIONS);
+
     private String secretKey;
 
     private long tokenValidityInMilliseconds;
@@ -48,20 +52,32 @@ public class TokenProvider {
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
+        if (rememberMe) {
+            return createToken(authentication, this.tokenValidityInMillisecondsForRememberMe);
+        } else {
+            return createToken(authentication, this.tokenValidityInMilliseconds);
+        }
+    }
+
+    /**
+     * Create a token valid for a given duration, such as a short-lived access token renewed with a refresh token.
+     *
+     * @param authentication the authentication of the user
+     * @param validityInMilliseconds the validity of the token
+     * @return the token
+     */
+    public String createToken(Authentication authentication, long validityInMilliseconds) {
         String authorities = authentication.getAuthorities().stream()
             .map(GrantedAuthority::getAuthority)
             .collect(Collectors.joining(","));
 
         long now = (new Date()).getTime();
-        Date validity;
-        if (rememberMe) {
-            validity = new Date(now + this.tokenValidityInMillisecondsForRememberMe);
-        } else {
-            validity = new Date(now + this.tokenValidityInMilliseconds);
-        }
+        Date validity = new Date(now + validityInMilliseconds);
 
         return Jwts.builder()
+            .setId(UUID.randomUUID().toString())
             .setSubject(authentication.getName())
+            .setIssuedAt(new Date(now))
             .claim(AUTHORITIES_KEY, authorities)
             .signWith(SignatureAlgorithm.HS512, secretKey)
             .setExpiration(validity)
@@ -73,21 +89,54 @@ public class TokenProvider {
             .setSigningKey(secretKey)
             .parseClaimsJws(token)
             .getBody();
+        return buildAuthentication(claims, token);
+    }
+
+    /**
+     * Parse and verify a token once, and build its authentication.
+     * <p>
+     * The authentications are cached until their token expires, so that a token sent again is not parsed again.
+     *
+     * @param token the token
+     * @return the authentication, or empty if the token is not valid
+     */
+    public Optional<Authentication> resolveAuthentication(String token) {
+        long now = System.currentTimeMillis();
+        Authentication authentication = authenticationCache.get(token, now);
+        if (authentication != null) {
+            return Optional.of(authentication);
+        }
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            return Optional.empty();
+        }
+        authentication = buildAuthentication(claims, token);
+        if (claims.getExpiration() != null) {
+            authenticationCache.put(token, authentication, claims.getExpiration().getTime(), now);
+        }
+        return Optional.of(authentication);
+    }
 
-        Collection<? extends GrantedAuthority> authorities =
-            Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+    public boolean validateToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    private Authentication buildAuthentication(Claims claims, String token) {
+        AuthoritySet authorities = AuthoritySet.fromClaim(claims.get(AUTHORITIES_KEY).toString());
 
         User principal = new User(claims.getSubject(), "", authorities);
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        return new JWTAuthenticationToken(principal, token, authorities, claims.getId(),
+            claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime(),
+            claims.getExpiration() == null ? 0 : claims.getExpiration().getTime());
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * @return the claims of the token, or null if the token is not valid
+     */
+    private Claims parseClaims(String authToken) {
         try {
-            Jwts.parser().setSigningKey(secretKey).parseClaimsJws(authToken);
-            return true;
+            return Jwts.parser().setSigningKey(secretKey).parseClaimsJws(authToken).getBody();
         } catch (SignatureException e) {
             log.info("Invalid JWT signature.");
             log.trace("Invalid JWT signature trace: {}", e);
@@ -104,6 +153,6 @@ public class TokenProvider {
             log.info("JWT token compact of handler are invalid.");
             log.trace("JWT token compact of handler are invalid trace: {}", e);
         }
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,145 @@
+package com.acoss.webae.security.jwt;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory list of the revoked JWTs, checked by the {@link JWTFilter} for each request.
+ * <p>
+ * A token is revoked either by its id, or with all the tokens of its subject issued until the revocation. The
+ * revocations are kept in an immutable snapshot, replaced at each change: the exact maps of the revoked ids and
+ * subjects, and a Bloom filter of each, so that a token which is not revoked, the common case, only costs a few
+ * hash probes. The revocations are stored in the database and loaded by the
+ * {@link com.acoss.webae.service.TokenRevocationService}; they are removed once the revoked tokens have expired.
+ */
+@Component
+public class TokenRevocationList {
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
+
+    /**
+     * @param authentication the authentication built from a valid token
+     * @return true if the token is revoked
+     */
+    public boolean isRevoked(Authentication authentication) {
+        if (!(authentication instanceof JWTAuthenticationToken)) {
+            return false;
+        }
+        JWTAuthenticationToken token = (JWTAuthenticationToken) authentication;
+        return isRevoked(token.getTokenId(), token.getName(), token.getIssuedAt());
+    }
+
+    /**
+     * @param tokenId the "jti" claim of the token, or null
+     * @param subject the "sub" claim of the token
+     * @param issuedAt the "iat" claim of the token, in milliseconds, or 0 if the token has none
+     * @return true if the token is revoked
+     */
+    public boolean isRevoked(String tokenId, String subject, long issuedAt) {
+        Snapshot current = snapshot;
+        if (current.isEmpty()) {
+            return false;
+        }
+        if (tokenId != null && current.tokenFilter.mightContain(tokenId) && current.tokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (current.subjectFilter.mightContain(subject)) {
+            SubjectRevocation revocation = current.subjects.get(subject);
+            // The claim is in seconds: a token issued in the second of the revocation is revoked too
+            return revocation != null && issuedAt / 1000 <= revocation.revokedAt / 1000;
+        }
+        return false;
+    }
+
+    /**
+     * Revoke a single token.
+     *
+     * @param tokenId the "jti" claim of the token
+     * @param expiresAt the expiration time of the token, in milliseconds
+     */
+    public synchronized void revokeToken(String tokenId, long expiresAt) {
+        Map<String, Long> tokens = new HashMap<>(snapshot.tokens);
+        tokens.merge(tokenId, expiresAt, Math::max);
+        snapshot = new Snapshot(tokens, snapshot.subjects);
+    }
+
+    /**
+     * Revoke all the tokens of a subject issued until the given time.
+     *
+     * @param subject the "sub" claim of the tokens
+     * @param revokedAt the time of the revocation, in milliseconds
+     * @param expiresAt the time after which all the revoked tokens have expired, in milliseconds
+     */
+    public synchronized void revokeSubject(String subject, long revokedAt, long expiresAt) {
+        Map<String, SubjectRevocation> subjects = new HashMap<>(snapshot.subjects);
+        subjects.merge(subject, new SubjectRevocation(revokedAt, expiresAt), SubjectRevocation::merge);
+        snapshot = new Snapshot(snapshot.tokens, subjects);
+    }
+
+    /**
+     * Remove the revocations of the tokens which have expired.
+     *
+     * @param now the current time, in milliseconds
+     */
+    public synchronized void removeExpired(long now) {
+        Map<String, Long> tokens = new HashMap<>(snapshot.tokens);
+        Map<String, SubjectRevocation> subjects = new HashMap<>(snapshot.subjects);
+        boolean removed = tokens.values().removeIf(expiresAt -> expiresAt <= now);
+        removed |= subjects.values().removeIf(revocation -> revocation.expiresAt <= now);
+        if (removed) {
+            snapshot = new Snapshot(tokens, subjects);
+        }
+    }
+
+    /**
+     * @return the number of revoked token ids and subjects
+     */
+    public int size() {
+        Snapshot current = snapshot;
+        return current.tokens.size() + current.subjects.size();
+    }
+
+    private static final class SubjectRevocation {
+
+        private final long revokedAt;
+
+        private final long expiresAt;
+
+        private SubjectRevocation(long revokedAt, long expiresAt) {
+            this.revokedAt = revokedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        private static SubjectRevocation merge(SubjectRevocation a, SubjectRevocation b) {
+            return new SubjectRevocation(Math.max(a.revokedAt, b.revokedAt), Math.max(a.expiresAt, b.expiresAt));
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, Long> tokens;
+
+        private final Map<String, SubjectRevocation> subjects;
+
+        private final BloomFilter tokenFilter;
+
+        private final BloomFilter subjectFilter;
+
+        private Snapshot(Map<String, Long> tokens, Map<String, SubjectRevocation> subjects) {
+            this.tokens = tokens;
+            this.subjects = subjects;
+            this.tokenFilter = new BloomFilter(tokens.size());
+            tokens.keySet().forEach(tokenFilter::put);
+            this.subjectFilter = new BloomFilter(subjects.size());
+            subjects.keySet().forEach(subjectFilter::put);
+        }
+
+        private boolean isEmpty() {
+            return tokens.isEmpty() && subjects.isEmpty();
+        }
+    }
+}
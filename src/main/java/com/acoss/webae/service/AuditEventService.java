@@ -1,14 +1,22 @@
 package com.acoss.webae.service;
 
 import com.acoss.webae.config.audit.AuditEventConverter;
+import com.acoss.webae.domain.PersistentAuditEvent;
+import com.acoss.webae.repository.CursorRepository;
 import com.acoss.webae.repository.PersistenceAuditEventRepository;
+import com.acoss.webae.repository.ProjectionRepository;
+import com.acoss.webae.service.util.FieldProjection;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -20,16 +28,33 @@ import java.util.Optional;
 @Transactional
 public class AuditEventService {
 
+    /**
+     * The fields of an audit event which can be selected by a client, named as in {@link AuditEvent}.
+     */
+    public static final FieldProjection AUDIT_EVENT_FIELDS = FieldProjection.builder()
+        .field("timestamp", "auditEventDate")
+        .field("principal", "principal")
+        .field("type", "auditEventType")
+        .build();
+
     private final PersistenceAuditEventRepository persistenceAuditEventRepository;
 
     private final AuditEventConverter auditEventConverter;
 
+    private final ProjectionRepository projectionRepository;
+
+    private final CursorRepository cursorRepository;
+
     public AuditEventService(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
-        AuditEventConverter auditEventConverter) {
+        AuditEventConverter auditEventConverter,
+        ProjectionRepository projectionRepository,
+        CursorRepository cursorRepository) {
 
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
         this.auditEventConverter = auditEventConverter;
+        this.projectionRepository = projectionRepository;
+        this.cursorRepository = cursorRepository;
     }
 
     public Page<AuditEvent> findAll(Pageable pageable) {
@@ -42,6 +67,52 @@ public class AuditEventService {
             .map(auditEventConverter::convertToAuditEvent);
     }
 
+    /**
+     * Get a page of audit events, with only the given fields: the event data is not read from the database.
+     *
+     * @param fields the fields to select, among {@link #AUDIT_EVENT_FIELDS}
+     * @param fromDate the start of the time period, or null for no time restriction
+     * @param toDate the end of the time period, or null for no time restriction
+     * @param pageable the pagination information
+     * @return the page of audit events, each as a map from field name to value
+     */
+    public Page<Map<String, Object>> findAll(List<String> fields, Instant fromDate, Instant toDate, Pageable pageable) {
+        return projectionRepository.findAll(PersistentAuditEvent.class, AUDIT_EVENT_FIELDS.select(fields),
+            between(fromDate, toDate), pageable);
+    }
+
+    /**
+     * @param fromDate the start of the time period, or null for no time restriction
+     * @param toDate the end of the time period, or null for no time restriction
+     * @return the number of audit events in the time period
+     */
+    public long count(Instant fromDate, Instant toDate) {
+        return cursorRepository.count(PersistentAuditEvent.class, between(fromDate, toDate));
+    }
+
+    /**
+     * Read a page of audit events one at a time, without loading the whole page in memory.
+     *
+     * @param fromDate the start of the time period, or null for no time restriction
+     * @param toDate the end of the time period, or null for no time restriction
+     * @param pageable the pagination information
+     * @param callback the callback receiving each audit event
+     * @return the number of audit events read
+     * @throws IOException if the callback fails to process an audit event
+     */
+    public long forEach(Instant fromDate, Instant toDate, Pageable pageable,
+            CursorRepository.RowCallback<? super AuditEvent> callback) throws IOException {
+        return cursorRepository.forEach(PersistentAuditEvent.class, between(fromDate, toDate), pageable,
+            persistentAuditEvent -> callback.accept(auditEventConverter.convertToAuditEvent(persistentAuditEvent)));
+    }
+
+    private static Specification<PersistentAuditEvent> between(Instant fromDate, Instant toDate) {
+        if (fromDate == null || toDate == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.between(root.get("auditEventDate"), fromDate, toDate);
+    }
+
     public Optional<AuditEvent> find(Long id) {
         return Optional.ofNullable(persistenceAuditEventRepository.findOne(id)).map
             (auditEventConverter::convertToAuditEvent);
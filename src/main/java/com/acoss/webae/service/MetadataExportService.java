@@ -0,0 +1,204 @@
+package com.acoss.webae.service;
+
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.domain.Metadata;
+import com.acoss.webae.service.dto.MetadataDTO;
+import com.acoss.webae.service.mapper.MetadataMapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Service exporting all the metadata, as NDJSON or CSV.
+ * <p>
+ * Rows are read with a forward-only cursor and written one at a time, and the persistence context is cleared
+ * after each fetch, so that the heap used does not depend on the size of the table.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MetadataExportService {
+
+    /**
+     * The supported export formats.
+     */
+    public enum Format {
+
+        NDJSON("ndjson", new MediaType("application", "x-ndjson", StandardCharsets.UTF_8)),
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+        private final String extension;
+
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * @param name the name of the format, for instance "csv"
+         * @return the format, or an empty Optional if it is not supported
+         */
+        public static Optional<Format> fromName(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return Optional.of(format);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private final Logger log = LoggerFactory.getLogger(MetadataExportService.class);
+
+    private final MetadataMapper metadataMapper;
+
+    private final ObjectWriter metadataWriter;
+
+    private final int fetchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public MetadataExportService(MetadataMapper metadataMapper, ObjectMapper objectMapper,
+            ApplicationProperties applicationProperties) {
+        this.metadataMapper = metadataMapper;
+        this.metadataWriter = objectMapper.writerFor(MetadataDTO.class)
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = applicationProperties.getExport().getFetchSize();
+    }
+
+    /**
+     * Write all the metadata, in id order, to the given stream.
+     * <p>
+     * The stream is flushed but not closed.
+     *
+     * @param format the export format
+     * @param out the stream to write to
+     * @return the number of exported metadata
+     * @throws IOException if the stream cannot be written to
+     */
+    public long export(Format format, OutputStream out) throws IOException {
+        log.debug("Exporting all Metadata as {}", format);
+        Session session = entityManager.unwrap(Session.class);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long count = 0;
+        try (ScrollableResults results = session
+                .createQuery("select metadata from Metadata metadata order by metadata.id", Metadata.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                rowWriter.write(metadataMapper.toDto((Metadata) results.get(0)));
+                if (++count % fetchSize == 0) {
+                    session.clear();
+                }
+            }
+        }
+        rowWriter.finish();
+        log.debug("Exported {} Metadata as {}", count, format);
+        return count;
+    }
+
+    private interface RowWriter {
+
+        void write(MetadataDTO metadataDTO) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Writes one JSON document per line, through a single generator.
+     */
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = metadataWriter.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(MetadataDTO metadataDTO) throws IOException {
+            metadataWriter.writeValue(generator, metadataDTO);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * Writes RFC 4180 CSV, with a header line.
+     */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write("id,title\r\n");
+        }
+
+        @Override
+        public void write(MetadataDTO metadataDTO) throws IOException {
+            writer.write(String.valueOf(metadataDTO.getId()));
+            writer.write(',');
+            writeField(metadataDTO.getTitle());
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+            } else {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+    }
+}
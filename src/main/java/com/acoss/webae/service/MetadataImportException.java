@@ -0,0 +1,23 @@
+package com.acoss.webae.service;
+
+/**
+ * Thrown when a bulk import of metadata is rejected; nothing of the import is then saved.
+ */
+public class MetadataImportException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+
+    public MetadataImportException(String message, int line) {
+        super(message + " (line " + line + ")");
+        this.line = line;
+    }
+
+    /**
+     * @return the line of the rejected row
+     */
+    public int getLine() {
+        return line;
+    }
+}
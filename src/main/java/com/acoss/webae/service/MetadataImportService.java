@@ -0,0 +1,107 @@
+package com.acoss.webae.service;
+
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.service.dto.MetadataDTO;
+import com.acoss.webae.service.mapper.MetadataMapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Service importing metadata in bulk, from NDJSON.
+ * <p>
+ * The rows are inserted in JDBC batches, and the persistence context is flushed and cleared after each batch,
+ * so that the heap used does not depend on the size of the import. Ids come from the pooled
+ * "sequenceGenerator", which reserves a block of ids per sequence call.
+ */
+@Service
+@Transactional
+public class MetadataImportService {
+
+    private final Logger log = LoggerFactory.getLogger(MetadataImportService.class);
+
+    private final MetadataMapper metadataMapper;
+
+    private final MetadataManifestService metadataManifestService;
+
+    private final ObjectReader metadataReader;
+
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public MetadataImportService(MetadataMapper metadataMapper, MetadataManifestService metadataManifestService,
+            ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.metadataMapper = metadataMapper;
+        this.metadataManifestService = metadataManifestService;
+        this.metadataReader = objectMapper.readerFor(MetadataDTO.class);
+        this.batchSize = applicationProperties.getBulkImport().getBatchSize();
+    }
+
+    /**
+     * Create a metadata for each JSON document of the stream, in a single transaction.
+     *
+     * @param in the NDJSON stream, with one metadata without an id per line
+     * @return the number of imported metadata
+     * @throws MetadataImportException if a row is not a valid new metadata, in which case nothing is imported
+     * @throws IOException if the stream cannot be read
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public long importNdjson(InputStream in) throws IOException {
+        log.debug("Request to import Metadata");
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+        long count = 0;
+        try (MappingIterator<MetadataDTO> rows = metadataReader.readValues(in)) {
+            while (nextRow(rows)) {
+                int line = rows.getCurrentLocation().getLineNr();
+                MetadataDTO metadataDTO = readRow(rows, line);
+                if (metadataDTO.getId() != null) {
+                    throw new MetadataImportException("A new metadata cannot already have an ID", line);
+                }
+                session.persist(metadataMapper.toEntity(metadataDTO));
+                if (++count % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.flush();
+            session.clear();
+        }
+        if (count > 0) {
+            metadataManifestService.invalidate();
+        }
+        log.debug("Imported {} Metadata", count);
+        return count;
+    }
+
+    private static boolean nextRow(MappingIterator<MetadataDTO> rows) throws IOException {
+        try {
+            return rows.hasNextValue();
+        } catch (JsonProcessingException e) {
+            throw new MetadataImportException("Invalid JSON: " + e.getOriginalMessage(),
+                rows.getCurrentLocation().getLineNr());
+        }
+    }
+
+    private static MetadataDTO readRow(MappingIterator<MetadataDTO> rows, int line) throws IOException {
+        try {
+            return rows.nextValue();
+        } catch (JsonProcessingException e) {
+            throw new MetadataImportException("Invalid metadata: " + e.getOriginalMessage(), line);
+        }
+    }
+}
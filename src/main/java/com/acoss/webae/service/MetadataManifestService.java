@@ -0,0 +1,159 @@
+package com.acoss.webae.service;
+
+import com.acoss.webae.domain.Metadata;
+import com.acoss.webae.repository.CursorRepository;
+import com.acoss.webae.service.dto.MetadataManifestDTO;
+import com.acoss.webae.service.schema.MetadataSchema;
+import com.acoss.webae.service.schema.MetadataSchemaRegistry;
+import com.acoss.webae.service.schema.MetadataSchemasReloadedEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service building the metadata manifest, which lists every schema and reference table with its current version.
+ * <p>
+ * The manifest is computed once and kept until something changes: a reload of the schemas, or a write to a
+ * reference table.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MetadataManifestService {
+
+    public static final String METADATA_TABLE = "metadata";
+
+    private final Logger log = LoggerFactory.getLogger(MetadataManifestService.class);
+
+    private final MetadataSchemaRegistry metadataSchemaRegistry;
+
+    private final CursorRepository cursorRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile CachedManifest cachedManifest;
+
+    public MetadataManifestService(MetadataSchemaRegistry metadataSchemaRegistry, CursorRepository cursorRepository) {
+        this.metadataSchemaRegistry = metadataSchemaRegistry;
+        this.cursorRepository = cursorRepository;
+    }
+
+    /**
+     * @return the current manifest
+     */
+    public MetadataManifestDTO getManifest() {
+        long currentGeneration = generation.get();
+        CachedManifest cached = this.cachedManifest;
+        if (cached != null && cached.generation == currentGeneration) {
+            return cached.manifest;
+        }
+        MetadataManifestDTO manifest = buildManifest();
+        // If the manifest was invalidated while it was being built, the next call will build it again
+        this.cachedManifest = new CachedManifest(currentGeneration, manifest);
+        return manifest;
+    }
+
+    /**
+     * Discard the current manifest.
+     * <p>
+     * When called inside a transaction, the manifest is discarded again once the transaction completes, so that
+     * a manifest built from uncommitted data is never kept.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    @EventListener
+    public void onSchemasReloaded(MetadataSchemasReloadedEvent event) {
+        log.debug("Metadata schemas reloaded, invalidating the manifest");
+        invalidate();
+    }
+
+    private MetadataManifestDTO buildManifest() {
+        log.debug("Building the metadata manifest");
+        List<MetadataManifestDTO.Entry> entries = new ArrayList<>();
+        for (MetadataSchema schema : metadataSchemaRegistry.getSchemas().values()) {
+            entries.add(new MetadataManifestDTO.Entry(schema.getName(), MetadataManifestDTO.Entry.TYPE_SCHEMA,
+                "/api/metadata/schemas/" + schema.getName(), schema.getHash()));
+        }
+        entries.add(new MetadataManifestDTO.Entry(METADATA_TABLE, MetadataManifestDTO.Entry.TYPE_TABLE,
+            "/api/metadata", hashMetadataTable()));
+
+        MessageDigest digest = newDigest();
+        for (MetadataManifestDTO.Entry entry : entries) {
+            update(digest, entry.getName() + '=' + entry.getVersion() + '\n');
+        }
+        return new MetadataManifestDTO(toHex(digest.digest()), entries);
+    }
+
+    /**
+     * Hash the rows of the metadata table, read through a cursor so that the heap used does not depend on the size of
+     * the table.
+     */
+    private String hashMetadataTable() {
+        MessageDigest digest = newDigest();
+        try {
+            cursorRepository.forEach(Metadata.class, null, new PageRequest(0, Integer.MAX_VALUE, Sort.Direction.ASC, "id"),
+                metadata -> update(digest, metadata.getId() + ":" + metadata.getTitle() + '\n'));
+        } catch (IOException e) {
+            // The callback does no I/O
+            throw new UncheckedIOException(e);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported by this JVM", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final class CachedManifest {
+
+        private final long generation;
+
+        private final MetadataManifestDTO manifest;
+
+        private CachedManifest(long generation, MetadataManifestDTO manifest) {
+            this.generation = generation;
+            this.manifest = manifest;
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.acoss.webae.service;
 
+import com.acoss.webae.repository.CursorRepository;
 import com.acoss.webae.service.dto.MetadataDTO;
+import com.acoss.webae.service.util.FieldProjection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service Interface for managing Metadata.
  */
 public interface MetadataService {
 
+    /**
+     * The fields of a metadata which can be selected by a client.
+     */
+    FieldProjection METADATA_FIELDS = FieldProjection.of("id", "title");
+
     /**
      * Save a metadata.
      *
@@ -19,9 +32,43 @@ public interface MetadataService {
     /**
      * Get all the metadata.
      *
+     * @param pageable the pagination information
      * @return the list of entities
      */
-    List<MetadataDTO> findAll();
+    Page<MetadataDTO> findAll(Pageable pageable);
+
+    /**
+     * Get all the metadata, with only the given fields.
+     *
+     * @param fields the fields to select, among {@link #METADATA_FIELDS}
+     * @param pageable the pagination information
+     * @return the list of entities, each as a map from field name to value
+     */
+    Page<Map<String, Object>> findAll(List<String> fields, Pageable pageable);
+
+    /**
+     * @return the number of metadata
+     */
+    long count();
+
+    /**
+     * Read a page of metadata one at a time, without loading the whole page in memory.
+     *
+     * @param pageable the pagination information
+     * @param callback the callback receiving each entity
+     * @return the number of entities read
+     * @throws IOException if the callback fails to process an entity
+     */
+    long forEach(Pageable pageable, CursorRepository.RowCallback<? super MetadataDTO> callback) throws IOException;
+
+    /**
+     * Get the metadata following the "after" id, in id order.
+     *
+     * @param after the id of the last metadata of the previous slice
+     * @param limit the maximum number of entities to return
+     * @return the slice of entities
+     */
+    Slice<MetadataDTO> findAllAfter(Long after, int limit);
 
     /**
      * Get the "id" metadata.
@@ -31,6 +78,14 @@ public interface MetadataService {
      */
     MetadataDTO findOne(Long id);
 
+    /**
+     * Get the metadata with the given ids.
+     *
+     * @param ids the ids of the entities
+     * @return the entities, in the order of the ids, without the ids which do not exist
+     */
+    List<MetadataDTO> findAll(List<Long> ids);
+
     /**
      * Delete the "id" metadata.
      *
@@ -0,0 +1,174 @@
+package com.acoss.webae.service;
+
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.domain.RefreshToken;
+import com.acoss.webae.domain.User;
+import com.acoss.webae.repository.RefreshTokenRepository;
+import com.acoss.webae.repository.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Service issuing the refresh tokens, so that the clients get new short-lived access tokens without sending the
+ * password again.
+ * <p>
+ * A refresh token is a random value, of which only the SHA-256 hash is stored. It can only be used once: it is
+ * replaced by a new token with the same expiration, so that a session ends at the latest when its first token
+ * expires. The tokens of a user are deleted when the password of the user changes or the user is deleted.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final ApplicationProperties.RefreshToken properties;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+            ApplicationProperties applicationProperties) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.properties = applicationProperties.getRefreshToken();
+    }
+
+    /**
+     * Issue a refresh token to a user who has just authenticated.
+     *
+     * @param login the login of the user
+     * @param rememberMe true if the token is valid for "application.refresh-token.validity-in-seconds-for-remember-me"
+     * @return the token, or empty if the user does not exist
+     */
+    public Optional<String> createToken(String login, boolean rememberMe) {
+        long validityInSeconds = rememberMe ?
+            properties.getValidityInSecondsForRememberMe() : properties.getValidityInSeconds();
+        return userRepository.findOneByLogin(login)
+            .map(user -> save(user, rememberMe, Instant.now().plusSeconds(validityInSeconds)));
+    }
+
+    /**
+     * Use a refresh token: it is deleted, and replaced by a new token with the same expiration.
+     *
+     * @param token the refresh token sent by the client
+     * @return the new token and its user, with the authorities of the user, or empty if the token is not valid,
+     * has expired or has already been used
+     */
+    public Optional<Rotation> rotateToken(String token) {
+        String tokenHash = hash(token);
+        Optional<RefreshToken> refreshToken = refreshTokenRepository.findOneWithUserByTokenHash(tokenHash);
+        if (!refreshToken.isPresent()) {
+            log.debug("Unknown or already used refresh token");
+            return Optional.empty();
+        }
+        // Only the first of the concurrent requests with the same token gets a new token
+        if (refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            return Optional.empty();
+        }
+        RefreshToken used = refreshToken.get();
+        User user = used.getUser();
+        if (used.getExpiresAt().isBefore(Instant.now()) || !user.getActivated()) {
+            log.debug("Refresh token of user {} has expired or the user is not activated", user.getLogin());
+            return Optional.empty();
+        }
+        return Optional.of(new Rotation(save(user, used.isRememberMe(), used.getExpiresAt()), user));
+    }
+
+    /**
+     * Delete a refresh token, on logout.
+     *
+     * @param token the refresh token sent by the client
+     */
+    public void deleteToken(String token) {
+        refreshTokenRepository.deleteByTokenHash(hash(token));
+    }
+
+    /**
+     * Delete all the refresh tokens of a user.
+     *
+     * @param user the user
+     */
+    public void deleteAllTokens(User user) {
+        int deleted = refreshTokenRepository.deleteAllByUserId(user.getId());
+        log.debug("Deleted {} refresh tokens of user {}", deleted, user.getLogin());
+    }
+
+    /**
+     * Expired refresh tokens should be deleted.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void removeExpiredTokens() {
+        int removed = refreshTokenRepository.deleteAllByExpiresAtBefore(Instant.now());
+        log.debug("Deleted {} expired refresh tokens", removed);
+    }
+
+    private String save(User user, boolean rememberMe, Instant expiresAt) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUser(user);
+        refreshToken.setRememberMe(rememberMe);
+        refreshToken.setCreatedAt(Instant.now());
+        refreshToken.setExpiresAt(expiresAt);
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A new refresh token, and the user it was issued to.
+     */
+    public static final class Rotation {
+
+        private final String token;
+
+        private final User user;
+
+        private Rotation(String token, User user) {
+            this.token = token;
+            this.user = user;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public User getUser() {
+            return user;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.acoss.webae.service;
+
+import com.acoss.webae.domain.RevokedToken;
+import com.acoss.webae.repository.RevokedTokenRepository;
+import com.acoss.webae.security.UserDetailsCache;
+import com.acoss.webae.security.jwt.TokenRevocationList;
+
+import io.github.jhipster.config.JHipsterProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Service revoking JWTs, so that a logout, a password change or the deletion of a user invalidates the outstanding
+ * tokens.
+ * <p>
+ * The revocations are stored in the database, with the next value of a version counter, and applied to the
+ * {@link TokenRevocationList} of this node once committed. The other nodes read the counter every
+ * "application.token-revocation.poll-interval-ms", and only load the revocations they have not seen yet when it
+ * has changed. A revocation is deleted once all the tokens it revokes have expired.
+ * <p>
+ * Loading the revocation of all the tokens of a user also evicts the user from the {@link UserDetailsCache} of the
+ * node, so that the nodes which did not make the change stop authenticating with the old password or authorities.
+ */
+@Service
+@Transactional
+public class TokenRevocationService {
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final UserDetailsCache userDetailsCache;
+
+    private final long maxTokenValidityInMilliseconds;
+
+    private volatile long loadedVersion = -1;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, TokenRevocationList tokenRevocationList,
+            UserDetailsCache userDetailsCache, JHipsterProperties jHipsterProperties) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.tokenRevocationList = tokenRevocationList;
+        this.userDetailsCache = userDetailsCache;
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        this.maxTokenValidityInMilliseconds =
+            1000 * Math.max(jwt.getTokenValidityInSeconds(), jwt.getTokenValidityInSecondsForRememberMe());
+    }
+
+    /**
+     * Revoke a single token, on logout.
+     *
+     * @param tokenId the "jti" claim of the token
+     * @param expiresAt the "exp" claim of the token
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        log.debug("Revoking token {}", tokenId);
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        save(revokedToken, expiresAt);
+        afterCommit(() -> tokenRevocationList.revokeToken(tokenId, expiresAt.toEpochMilli()));
+    }
+
+    /**
+     * Revoke all the tokens of a user issued until now, when the password of the user changes or the user is deleted.
+     *
+     * @param login the login of the user, the "sub" claim of its tokens
+     */
+    public void revokeAllTokens(String login) {
+        log.debug("Revoking all the tokens of user {}", login);
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setSubject(login);
+        RevokedToken saved = save(revokedToken, Instant.now().plusMillis(maxTokenValidityInMilliseconds));
+        afterCommit(() -> tokenRevocationList.revokeSubject(login, saved.getRevokedAt().toEpochMilli(),
+            saved.getExpiresAt().toEpochMilli()));
+    }
+
+    /**
+     * Load the revocations made since the last call, by any node, and forget the expired ones.
+     * <p>
+     * This is not transactional, so that a failure, such as a missing table while Liquibase runs, is only logged.
+     */
+    @Scheduled(fixedDelayString = "${application.token-revocation.poll-interval-ms:5000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void loadRevocations() {
+        Instant now = Instant.now();
+        try {
+            Long version = revokedTokenRepository.findVersion();
+            if (version != null && version != loadedVersion) {
+                List<RevokedToken> revokedTokens =
+                    revokedTokenRepository.findAllByVersionGreaterThanAndExpiresAtAfter(loadedVersion, now);
+                log.debug("Loading {} token revocations, up to version {}", revokedTokens.size(), version);
+                revokedTokens.forEach(this::apply);
+                loadedVersion = version;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Token revocations could not be loaded: {}", e.getMessage());
+        }
+        tokenRevocationList.removeExpired(now.toEpochMilli());
+    }
+
+    /**
+     * Expired revocations should be deleted from the database.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void removeExpiredRevocations() {
+        int removed = revokedTokenRepository.deleteAllByExpiresAtBefore(Instant.now());
+        log.debug("Deleted {} expired token revocations", removed);
+    }
+
+    private RevokedToken save(RevokedToken revokedToken, Instant expiresAt) {
+        revokedTokenRepository.incrementVersion();
+        revokedToken.setVersion(revokedTokenRepository.findVersion());
+        revokedToken.setRevokedAt(Instant.now());
+        revokedToken.setExpiresAt(expiresAt);
+        return revokedTokenRepository.save(revokedToken);
+    }
+
+    private void apply(RevokedToken revokedToken) {
+        if (revokedToken.getTokenId() != null) {
+            tokenRevocationList.revokeToken(revokedToken.getTokenId(), revokedToken.getExpiresAt().toEpochMilli());
+        }
+        if (revokedToken.getSubject() != null) {
+            tokenRevocationList.revokeSubject(revokedToken.getSubject(), revokedToken.getRevokedAt().toEpochMilli(),
+                revokedToken.getExpiresAt().toEpochMilli());
+            userDetailsCache.evictLogin(revokedToken.getSubject());
+        }
+    }
+
+    private static void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+}
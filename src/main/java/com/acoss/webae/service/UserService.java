@@ -4,9 +4,13 @@ import com.acoss.webae.domain.Authority;
 import com.acoss.webae.domain.User;
 import com.acoss.webae.repository.AuthorityRepository;
 import com.acoss.webae.config.Constants;
+import com.acoss.webae.repository.CursorRepository;
+import com.acoss.webae.repository.ProjectionRepository;
 import com.acoss.webae.repository.UserRepository;
 import com.acoss.webae.security.AuthoritiesConstants;
 import com.acoss.webae.security.SecurityUtils;
+import com.acoss.webae.security.UserDetailsCache;
+import com.acoss.webae.service.util.FieldProjection;
 import com.acoss.webae.service.util.RandomUtil;
 import com.acoss.webae.service.dto.UserDTO;
 
@@ -14,11 +18,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -31,6 +37,17 @@ import java.util.stream.Collectors;
 @Transactional
 public class UserService {
 
+    /**
+     * The fields of a user which can be selected by a client.
+     */
+    public static final FieldProjection USER_FIELDS = FieldProjection.of("id", "login", "firstName", "lastName",
+        "email", "imageUrl", "activated", "langKey", "createdBy", "createdDate", "lastModifiedBy", "lastModifiedDate");
+
+    /**
+     * The number of users read from the cursor whose authorities are looked up together.
+     */
+    private static final int AUTHORITY_LOOKUP_SIZE = 100;
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
@@ -39,10 +56,28 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final ProjectionRepository projectionRepository;
+
+    private final CursorRepository cursorRepository;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final UserDetailsCache userDetailsCache;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository,
+            ProjectionRepository projectionRepository, CursorRepository cursorRepository,
+            TokenRevocationService tokenRevocationService, RefreshTokenService refreshTokenService,
+            UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
+        this.projectionRepository = projectionRepository;
+        this.cursorRepository = cursorRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.userDetailsCache = userDetailsCache;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -63,9 +98,11 @@ public class UserService {
        return userRepository.findOneByResetKey(key)
            .filter(user -> user.getResetDate().isAfter(Instant.now().minusSeconds(86400)))
            .map(user -> {
+                userDetailsCache.evict(user.getLogin(), user.getEmail());
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
+                revokeAllTokens(user);
                 return user;
            });
     }
@@ -146,11 +183,13 @@ public class UserService {
         SecurityUtils.getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
             .ifPresent(user -> {
+                userDetailsCache.evict(user.getLogin(), user.getEmail());
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
                 user.setEmail(email);
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
+                userDetailsCache.evict(user.getLogin(), user.getEmail());
                 log.debug("Changed Information for User: {}", user);
             });
     }
@@ -165,6 +204,15 @@ public class UserService {
         return Optional.of(userRepository
             .findOne(userDTO.getId()))
             .map(user -> {
+                userDetailsCache.evict(user.getLogin(), user.getEmail());
+                Set<String> authorities = user.getAuthorities().stream()
+                    .map(Authority::getName)
+                    .collect(Collectors.toSet());
+                if (!user.getLogin().equalsIgnoreCase(userDTO.getLogin()) || user.getActivated() != userDTO.isActivated() ||
+                        !authorities.equals(userDTO.getAuthorities())) {
+                    // The tokens carry the login and authorities, and the other nodes evict the user on revocation
+                    revokeAllTokens(user);
+                }
                 user.setLogin(userDTO.getLogin());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -177,6 +225,7 @@ public class UserService {
                 userDTO.getAuthorities().stream()
                     .map(authorityRepository::findOne)
                     .forEach(managedAuthorities::add);
+                userDetailsCache.evict(user.getLogin(), user.getEmail());
                 log.debug("Changed Information for User: {}", user);
                 return user;
             })
@@ -185,6 +234,8 @@ public class UserService {
 
     public void deleteUser(String login) {
         userRepository.findOneByLogin(login).ifPresent(user -> {
+            userDetailsCache.evict(user.getLogin(), user.getEmail());
+            revokeAllTokens(user);
             userRepository.delete(user);
             log.debug("Deleted User: {}", user);
         });
@@ -194,8 +245,10 @@ public class UserService {
         SecurityUtils.getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
             .ifPresent(user -> {
+                userDetailsCache.evict(user.getLogin(), user.getEmail());
                 String encryptedPassword = passwordEncoder.encode(password);
                 user.setPassword(encryptedPassword);
+                revokeAllTokens(user);
                 log.debug("Changed password for User: {}", user);
             });
     }
@@ -205,6 +258,70 @@ public class UserService {
         return userRepository.findAllByLoginNot(pageable, Constants.ANONYMOUS_USER).map(UserDTO::new);
     }
 
+    /**
+     * Get a page of users, with only the given fields: the other columns are not read from the database.
+     *
+     * @param fields the fields to select, among {@link #USER_FIELDS}
+     * @param pageable the pagination information
+     * @return the page of users, each as a map from field name to value
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllManagedUsers(List<String> fields, Pageable pageable) {
+        return projectionRepository.findAll(User.class, USER_FIELDS.select(fields), managedUsers(), pageable);
+    }
+
+    /**
+     * @return the number of users, without the anonymous user
+     */
+    @Transactional(readOnly = true)
+    public long countManagedUsers() {
+        return cursorRepository.count(User.class, managedUsers());
+    }
+
+    /**
+     * Read a page of users one at a time, without loading the whole page in memory.
+     * <p>
+     * The authorities of the users are looked up once for every {@value #AUTHORITY_LOOKUP_SIZE} users, as the
+     * users read from the cursor are detached one by one and cannot have their authorities batch fetched.
+     *
+     * @param pageable the pagination information
+     * @param callback the callback receiving each user
+     * @return the number of users read
+     * @throws IOException if the callback fails to process a user
+     */
+    @Transactional(readOnly = true)
+    public long forEachManagedUser(Pageable pageable, CursorRepository.RowCallback<? super UserDTO> callback) throws IOException {
+        List<User> users = new ArrayList<>(AUTHORITY_LOOKUP_SIZE);
+        long count = cursorRepository.forEach(User.class, managedUsers(), pageable, user -> {
+            users.add(user);
+            if (users.size() == AUTHORITY_LOOKUP_SIZE) {
+                acceptWithAuthorities(users, callback);
+            }
+        });
+        acceptWithAuthorities(users, callback);
+        return count;
+    }
+
+    private void acceptWithAuthorities(List<User> users, CursorRepository.RowCallback<? super UserDTO> callback)
+            throws IOException {
+        if (users.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<String>> authorities = new HashMap<>();
+        for (Object[] row : userRepository.findAllAuthorityNamesByIdIn(
+                users.stream().map(User::getId).collect(Collectors.toList()))) {
+            authorities.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+        for (User user : users) {
+            callback.accept(new UserDTO(user, authorities.getOrDefault(user.getId(), new HashSet<>())));
+        }
+        users.clear();
+    }
+
+    private static Specification<User> managedUsers() {
+        return (root, query, cb) -> cb.notEqual(root.get("login"), Constants.ANONYMOUS_USER);
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneWithAuthoritiesByLogin(login);
@@ -241,4 +358,11 @@ public class UserService {
         return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
     }
 
+    /**
+     * Revoke the issued access tokens of a user, and delete its refresh tokens.
+     */
+    private void revokeAllTokens(User user) {
+        tokenRevocationService.revokeAllTokens(user.getLogin());
+        refreshTokenService.deleteAllTokens(user);
+    }
 }
@@ -0,0 +1,120 @@
+package com.acoss.webae.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO listing every metadata resource a client can synchronise, with its current version.
+ */
+public class MetadataManifestDTO implements Serializable {
+
+    private String version;
+
+    private List<Entry> entries;
+
+    public MetadataManifestDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public MetadataManifestDTO(String version, List<Entry> entries) {
+        this.version = version;
+        this.entries = entries;
+    }
+
+    /**
+     * @return the version of the whole manifest, which changes whenever one of its entries changes
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataManifestDTO{" +
+            "version='" + version + "'" +
+            ", entries=" + entries +
+            "}";
+    }
+
+    /**
+     * A resource of the manifest: a schema or a reference table.
+     */
+    public static class Entry implements Serializable {
+
+        public static final String TYPE_SCHEMA = "schema";
+
+        public static final String TYPE_TABLE = "table";
+
+        private String name;
+
+        private String type;
+
+        private String href;
+
+        private String version;
+
+        public Entry() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public Entry(String name, String type, String href, String version) {
+            this.name = name;
+            this.type = type;
+            this.href = href;
+            this.version = version;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getHref() {
+            return href;
+        }
+
+        public void setHref(String href) {
+            this.href = href;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public void setVersion(String version) {
+            this.version = version;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                "name='" + name + "'" +
+                ", type='" + type + "'" +
+                ", version='" + version + "'" +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.acoss.webae.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing a schema field matching a metadata search.
+ */
+public class MetadataSearchResultDTO implements Serializable {
+
+    private String schema;
+
+    private String field;
+
+    private String title;
+
+    public MetadataSearchResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public MetadataSearchResultDTO(String schema, String field, String title) {
+        this.schema = schema;
+        this.field = field;
+        this.title = title;
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public void setSchema(String schema) {
+        this.schema = schema;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataSearchResultDTO{" +
+            "schema='" + schema + "'" +
+            ", field='" + field + "'" +
+            ", title='" + title + "'" +
+            "}";
+    }
+}
@@ -58,6 +58,16 @@ public class UserDTO {
     }
 
     public UserDTO(User user) {
+        this(user, user.getAuthorities().stream()
+            .map(Authority::getName)
+            .collect(Collectors.toSet()));
+    }
+
+    /**
+     * @param user the user
+     * @param authorities the names of the authorities of the user, which are not read from the user
+     */
+    public UserDTO(User user, Set<String> authorities) {
         this.id = user.getId();
         this.login = user.getLogin();
         this.firstName = user.getFirstName();
@@ -70,9 +80,7 @@ public class UserDTO {
         this.createdDate = user.getCreatedDate();
         this.lastModifiedBy = user.getLastModifiedBy();
         this.lastModifiedDate = user.getLastModifiedDate();
-        this.authorities = user.getAuthorities().stream()
-            .map(Authority::getName)
-            .collect(Collectors.toSet());
+        this.authorities = authorities;
     }
 
     public Long getId() {
@@ -1,17 +1,39 @@
 package com.acoss.webae.service.impl;
 
+import com.acoss.webae.aop.coalescing.Coalesced;
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.service.MetadataManifestService;
 import com.acoss.webae.service.MetadataService;
 import com.acoss.webae.domain.Metadata;
+import com.acoss.webae.repository.CursorRepository;
 import com.acoss.webae.repository.MetadataRepository;
+import com.acoss.webae.repository.ProjectionRepository;
 import com.acoss.webae.service.dto.MetadataDTO;
 import com.acoss.webae.service.mapper.MetadataMapper;
+import com.acoss.webae.service.util.BatchLoader;
+import com.codahale.metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.LinkedList;
-import java.util.List;
+import javax.annotation.PreDestroy;
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -27,9 +49,43 @@ public class MetadataServiceImpl implements MetadataService {
 
     private final MetadataMapper metadataMapper;
 
-    public MetadataServiceImpl(MetadataRepository metadataRepository, MetadataMapper metadataMapper) {
+    private final MetadataManifestService metadataManifestService;
+
+    private final ProjectionRepository projectionRepository;
+
+    private final CursorRepository cursorRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final BatchLoader<Long, MetadataDTO> metadataLoader;
+
+    private final long loadTimeoutMillis;
+
+    private final Cache secondLevelCache;
+
+    public MetadataServiceImpl(MetadataRepository metadataRepository, MetadataMapper metadataMapper,
+            MetadataManifestService metadataManifestService, ProjectionRepository projectionRepository,
+            CursorRepository cursorRepository, PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory, ApplicationProperties applicationProperties,
+            MetricRegistry metricRegistry) {
         this.metadataRepository = metadataRepository;
         this.metadataMapper = metadataMapper;
+        this.metadataManifestService = metadataManifestService;
+        this.projectionRepository = projectionRepository;
+        this.cursorRepository = cursorRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        ApplicationProperties.BatchLoading batchLoading = applicationProperties.getBatchLoading();
+        this.metadataLoader = new BatchLoader<>(this::loadMetadata, batchLoading.getWindowMicros(),
+            batchLoading.getMaxBatchSize(), batchLoading.getThreads(), batchLoading.getQueueCapacity(),
+            metricRegistry, "metadata-loader");
+        this.loadTimeoutMillis = batchLoading.getTimeoutMillis();
+        this.secondLevelCache = entityManagerFactory.getCache();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        metadataLoader.shutdown();
     }
 
     /**
@@ -43,35 +99,158 @@ public class MetadataServiceImpl implements MetadataService {
         log.debug("Request to save Metadata : {}", metadataDTO);
         Metadata metadata = metadataMapper.toEntity(metadataDTO);
         metadata = metadataRepository.save(metadata);
+        metadataManifestService.invalidate();
         return metadataMapper.toDto(metadata);
     }
 
     /**
      * Get all the metadata.
      *
+     * @param pageable the pagination information
      * @return the list of entities
      */
     @Override
     @Transactional(readOnly = true)
-    public List<MetadataDTO> findAll() {
+    public Page<MetadataDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Metadata");
-        return metadataRepository.findAll().stream()
-            .map(metadataMapper::toDto)
-            .collect(Collectors.toCollection(LinkedList::new));
+        return metadataRepository.findAll(pageable)
+            .map(metadataMapper::toDto);
+    }
+
+    /**
+     * Get all the metadata, with only the given fields.
+     *
+     * @param fields the fields to select, among {@link #METADATA_FIELDS}
+     * @param pageable the pagination information
+     * @return the list of entities, each as a map from field name to value
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findAll(List<String> fields, Pageable pageable) {
+        log.debug("Request to get all Metadata with fields : {}", fields);
+        return projectionRepository.findAll(Metadata.class, METADATA_FIELDS.select(fields), null, pageable);
+    }
+
+    /**
+     * @return the number of metadata
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long count() {
+        return metadataRepository.count();
+    }
+
+    /**
+     * Read a page of metadata one at a time, without loading the whole page in memory.
+     *
+     * @param pageable the pagination information
+     * @param callback the callback receiving each entity
+     * @return the number of entities read
+     * @throws IOException if the callback fails to process an entity
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long forEach(Pageable pageable, CursorRepository.RowCallback<? super MetadataDTO> callback) throws IOException {
+        log.debug("Request to read a page of Metadata");
+        return cursorRepository.forEach(Metadata.class, null, pageable,
+            metadata -> callback.accept(metadataMapper.toDto(metadata)));
+    }
+
+    /**
+     * Get the metadata following the "after" id, in id order.
+     *
+     * @param after the id of the last metadata of the previous slice
+     * @param limit the maximum number of entities to return
+     * @return the slice of entities
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MetadataDTO> findAllAfter(Long after, int limit) {
+        log.debug("Request to get {} Metadata after : {}", limit, after);
+        return metadataRepository.findAllByIdGreaterThanOrderByIdAsc(after, new PageRequest(0, limit))
+            .map(metadataMapper::toDto);
     }
 
     /**
      * Get one metadata by id.
+     * <p>
+     * A metadata held by the second-level cache is read from it. Otherwise, outside of a transaction, the lookups made
+     * at the same time are grouped by the metadata loader into a single query. If the loader is saturated or does
+     * not answer in time, the metadata is read directly.
      *
      * @param id the id of the entity
      * @return the entity
      */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Coalesced
     public MetadataDTO findOne(Long id) {
         log.debug("Request to get Metadata : {}", id);
-        Metadata metadata = metadataRepository.findOne(id);
-        return metadataMapper.toDto(metadata);
+        if (TransactionSynchronizationManager.isActualTransactionActive() || secondLevelCache.contains(Metadata.class, id)) {
+            // The current transaction may hold changes that the loader would not see, and a cached metadata is read
+            // without a query
+            return metadataMapper.toDto(metadataRepository.findOne(id));
+        }
+        try {
+            return metadataLoader.load(id).get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Metadata loader did not answer in {} ms, reading Metadata {} directly", loadTimeoutMillis, id);
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof RejectedExecutionException)) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+            log.warn("Metadata loader is saturated, reading Metadata {} directly", id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading Metadata " + id, e);
+        }
+        return metadataMapper.toDto(metadataRepository.findOne(id));
+    }
+
+    /**
+     * Get the metadata with the given ids.
+     * <p>
+     * The metadata held by the second-level cache are read from it, and the others in a single query.
+     *
+     * @param ids the ids of the entities
+     * @return the entities, in the order of the ids, without the ids which do not exist
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<MetadataDTO> findAll(List<Long> ids) {
+        log.debug("Request to get Metadata : {}", ids);
+        Map<Long, MetadataDTO> metadataById = findAllById(new LinkedHashSet<>(ids));
+        return ids.stream()
+            .distinct()
+            .map(metadataById::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    private Map<Long, MetadataDTO> loadMetadata(Set<Long> ids) {
+        return readOnlyTransactionTemplate.execute(status -> findAllById(ids));
+    }
+
+    private Map<Long, MetadataDTO> findAllById(Set<Long> ids) {
+        Map<Long, MetadataDTO> metadataById = new HashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        for (Long id : ids) {
+            Metadata metadata = secondLevelCache.contains(Metadata.class, id) ? metadataRepository.findOne(id) : null;
+            if (metadata == null) {
+                uncachedIds.add(id);
+            } else {
+                metadataById.put(id, metadataMapper.toDto(metadata));
+            }
+        }
+        if (!uncachedIds.isEmpty()) {
+            for (Metadata metadata : metadataRepository.findAll(uncachedIds)) {
+                metadataById.put(metadata.getId(), metadataMapper.toDto(metadata));
+            }
+        }
+        return metadataById;
     }
 
     /**
@@ -83,5 +262,6 @@ public class MetadataServiceImpl implements MetadataService {
     public void delete(Long id) {
         log.debug("Request to delete Metadata : {}", id);
         metadataRepository.delete(id);
+        metadataManifestService.invalidate();
     }
 }
@@ -0,0 +1,75 @@
+package com.acoss.webae.service.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.MediaType;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A metadata JSON schema, as loaded by the {@link MetadataSchemaRegistry}.
+ * <p>
+ * Instances are immutable: a reload of the registry creates new instances.
+ */
+public final class MetadataSchema {
+
+    private final String name;
+
+    private final String content;
+
+    private final JsonNode tree;
+
+    private final String hash;
+
+    private final Map<MediaType, byte[]> encodedContents;
+
+    public MetadataSchema(String name, String content, JsonNode tree, String hash, Map<MediaType, byte[]> encodedContents) {
+        this.name = name;
+        this.content = content;
+        this.tree = tree;
+        this.hash = hash;
+        this.encodedContents = Collections.unmodifiableMap(new LinkedHashMap<>(encodedContents));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the raw JSON content, as served to the clients
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * @return the parsed JSON content, which must not be modified
+     */
+    public JsonNode getTree() {
+        return tree;
+    }
+
+    /**
+     * @return the content encoded in each supported format, by media type, in order of preference; the arrays must
+     * not be modified
+     */
+    public Map<MediaType, byte[]> getEncodedContents() {
+        return encodedContents;
+    }
+
+    /**
+     * @return the version hash of the content
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataSchema{" +
+            "name='" + name + "'" +
+            ", hash='" + hash + "'" +
+            "}";
+    }
+}
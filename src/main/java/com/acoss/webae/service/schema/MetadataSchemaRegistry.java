@@ -0,0 +1,125 @@
+package com.acoss.webae.service.schema;
+
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.config.BinaryMediaTypes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Registry of the metadata JSON schemas.
+ * <p>
+ * Schemas are read from the "application.schemas.location" directory at startup, and can be reloaded at
+ * runtime. Each schema carries a version hash of its content, so that clients can tell when it has changed, and is
+ * encoded once in each supported format, JSON, Smile and CBOR, so that serving it is only a copy of bytes.
+ */
+@Service
+public class MetadataSchemaRegistry {
+
+    private static final String SCHEMA_EXTENSION = ".json";
+
+    private final Logger log = LoggerFactory.getLogger(MetadataSchemaRegistry.class);
+
+    private final ResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Map<String, MetadataSchema> schemas = Collections.emptyMap();
+
+    public MetadataSchemaRegistry(ApplicationProperties applicationProperties, ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher) {
+        this.applicationProperties = applicationProperties;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        this.schemas = loadSchemas();
+    }
+
+    /**
+     * Reload all the schemas, and publish a {@link MetadataSchemasReloadedEvent}.
+     * <p>
+     * If a schema cannot be read, the current schemas are kept.
+     *
+     * @throws IOException if a schema cannot be read or is not valid JSON
+     */
+    public synchronized void reload() throws IOException {
+        Map<String, MetadataSchema> previousSchemas = this.schemas;
+        this.schemas = loadSchemas();
+        eventPublisher.publishEvent(new MetadataSchemasReloadedEvent(this, previousSchemas, this.schemas));
+    }
+
+    /**
+     * @param name the name of the schema, for instance "adf"
+     * @return the schema, or an empty Optional if there is no such schema
+     */
+    public Optional<MetadataSchema> getSchema(String name) {
+        return Optional.ofNullable(schemas.get(name.toLowerCase(Locale.ENGLISH)));
+    }
+
+    /**
+     * @return all the schemas, by name
+     */
+    public Map<String, MetadataSchema> getSchemas() {
+        return schemas;
+    }
+
+    private Map<String, MetadataSchema> loadSchemas() throws IOException {
+        String location = applicationProperties.getSchemas().getLocation();
+        if (!location.endsWith("/")) {
+            location += "/";
+        }
+        log.debug("Loading metadata schemas from {}", location);
+        Map<String, MetadataSchema> loadedSchemas = new TreeMap<>();
+        for (Resource resource : resourcePatternResolver.getResources(location + "*" + SCHEMA_EXTENSION)) {
+            MetadataSchema schema = loadSchema(resource);
+            loadedSchemas.put(schema.getName(), schema);
+        }
+        log.info("Loaded {} metadata schemas: {}", loadedSchemas.size(), loadedSchemas.keySet());
+        return Collections.unmodifiableMap(loadedSchemas);
+    }
+
+    private MetadataSchema loadSchema(Resource resource) throws IOException {
+        String filename = resource.getFilename();
+        String name = filename.substring(0, filename.length() - SCHEMA_EXTENSION.length()).toLowerCase(Locale.ENGLISH);
+        byte[] bytes;
+        try (InputStream in = resource.getInputStream()) {
+            bytes = StreamUtils.copyToByteArray(in);
+        }
+        JsonNode tree = objectMapper.readTree(bytes);
+        Map<MediaType, byte[]> encodedContents = new LinkedHashMap<>();
+        encodedContents.put(MediaType.APPLICATION_JSON_UTF8, bytes);
+        encodedContents.put(BinaryMediaTypes.APPLICATION_SMILE, smileMapper.writeValueAsBytes(tree));
+        encodedContents.put(BinaryMediaTypes.APPLICATION_CBOR, cborMapper.writeValueAsBytes(tree));
+        return new MetadataSchema(name, new String(bytes, StandardCharsets.UTF_8), tree,
+            DigestUtils.md5DigestAsHex(bytes), encodedContents);
+    }
+}
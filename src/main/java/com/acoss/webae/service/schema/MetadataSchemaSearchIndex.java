@@ -0,0 +1,189 @@
+package com.acoss.webae.service.schema;
+
+import com.acoss.webae.service.dto.MetadataSearchResultDTO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the fields of the metadata schemas: their ids, titles and enum descriptions.
+ * <p>
+ * Matching is accent and case insensitive, and every word of the query matches the words it is a prefix of, so
+ * that "num tel" finds "Numéro de téléphone". The index holds one immutable segment per schema: when the schemas
+ * are reloaded, only the segments of the schemas whose content has changed are rebuilt.
+ */
+@Service
+public class MetadataSchemaSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Logger log = LoggerFactory.getLogger(MetadataSchemaSearchIndex.class);
+
+    private final MetadataSchemaRegistry metadataSchemaRegistry;
+
+    private volatile Map<String, Segment> segments = Collections.emptyMap();
+
+    public MetadataSchemaSearchIndex(MetadataSchemaRegistry metadataSchemaRegistry) {
+        this.metadataSchemaRegistry = metadataSchemaRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.segments = index(metadataSchemaRegistry.getSchemas(), Collections.emptyMap());
+    }
+
+    @EventListener
+    public synchronized void onSchemasReloaded(MetadataSchemasReloadedEvent event) {
+        this.segments = index(event.getSchemas(), this.segments);
+    }
+
+    /**
+     * Search the schema fields matching all the words of a query.
+     *
+     * @param query the words to search, each one matching the words it is a prefix of
+     * @param limit the maximum number of results
+     * @return the matching fields, ordered by schema then by position in the schema
+     */
+    public List<MetadataSearchResultDTO> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        List<MetadataSearchResultDTO> results = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return results;
+        }
+        for (Segment segment : segments.values()) {
+            BitSet matches = segment.search(terms);
+            for (int doc = matches.nextSetBit(0); doc >= 0 && results.size() < limit; doc = matches.nextSetBit(doc + 1)) {
+                results.add(segment.results[doc]);
+            }
+            if (results.size() >= limit) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private Map<String, Segment> index(Map<String, MetadataSchema> schemas, Map<String, Segment> previousSegments) {
+        Map<String, Segment> indexedSegments = new TreeMap<>();
+        int rebuilt = 0;
+        for (MetadataSchema schema : schemas.values()) {
+            Segment segment = previousSegments.get(schema.getName());
+            if (segment == null || !segment.hash.equals(schema.getHash())) {
+                segment = Segment.build(schema);
+                rebuilt++;
+            }
+            indexedSegments.put(schema.getName(), segment);
+        }
+        log.debug("Indexed {} metadata schemas, {} of them rebuilt", indexedSegments.size(), rebuilt);
+        return Collections.unmodifiableMap(indexedSegments);
+    }
+
+    /**
+     * @param text the text to split
+     * @return the lower-case, accent-free words of the text
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        for (String token : WORD_SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * The index of a single schema: its fields, and for each of its words, sorted, the fields containing it.
+     */
+    private static final class Segment {
+
+        private final String hash;
+
+        private final MetadataSearchResultDTO[] results;
+
+        private final String[] terms;
+
+        private final int[][] postings;
+
+        private Segment(String hash, MetadataSearchResultDTO[] results, String[] terms, int[][] postings) {
+            this.hash = hash;
+            this.results = results;
+            this.terms = terms;
+            this.postings = postings;
+        }
+
+        static Segment build(MetadataSchema schema) {
+            List<MetadataSearchResultDTO> results = new ArrayList<>();
+            SortedMap<String, SortedSet<Integer>> index = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = schema.getTree().path("properties").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                int doc = results.size();
+                String title = field.getValue().path("title").asText(null);
+                results.add(new MetadataSearchResultDTO(schema.getName(), field.getKey(), title));
+                addTerms(index, doc, field.getKey());
+                addTerms(index, doc, title);
+                for (JsonNode option : field.getValue().path("oneOf")) {
+                    addTerms(index, doc, option.path("description").asText(null));
+                }
+            }
+            String[] terms = index.keySet().toArray(new String[index.size()]);
+            int[][] postings = new int[terms.length][];
+            for (int i = 0; i < terms.length; i++) {
+                postings[i] = index.get(terms[i]).stream().mapToInt(Integer::intValue).toArray();
+            }
+            return new Segment(schema.getHash(), results.toArray(new MetadataSearchResultDTO[results.size()]),
+                terms, postings);
+        }
+
+        private static void addTerms(SortedMap<String, SortedSet<Integer>> index, int doc, String text) {
+            for (String term : tokenize(text)) {
+                index.computeIfAbsent(term, t -> new TreeSet<>()).add(doc);
+            }
+        }
+
+        /**
+         * @return the fields containing, for every term of the query, a word starting with that term
+         */
+        BitSet search(List<String> queryTerms) {
+            BitSet matches = null;
+            for (String queryTerm : queryTerms) {
+                BitSet termMatches = new BitSet(results.length);
+                // The terms starting with the query term are contiguous in the sorted array
+                for (int i = lowerBound(queryTerm); i < terms.length && terms[i].startsWith(queryTerm); i++) {
+                    for (int doc : postings[i]) {
+                        termMatches.set(doc);
+                    }
+                }
+                if (matches == null) {
+                    matches = termMatches;
+                } else {
+                    matches.and(termMatches);
+                }
+                if (matches.isEmpty()) {
+                    break;
+                }
+            }
+            return matches;
+        }
+
+        private int lowerBound(String term) {
+            int index = Arrays.binarySearch(terms, term);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.acoss.webae.service.schema;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Map;
+
+/**
+ * Published by the {@link MetadataSchemaRegistry} once its schemas have been reloaded.
+ */
+public class MetadataSchemasReloadedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<String, MetadataSchema> previousSchemas;
+
+    private final transient Map<String, MetadataSchema> schemas;
+
+    public MetadataSchemasReloadedEvent(Object source, Map<String, MetadataSchema> previousSchemas,
+            Map<String, MetadataSchema> schemas) {
+        super(source);
+        this.previousSchemas = previousSchemas;
+        this.schemas = schemas;
+    }
+
+    /**
+     * @return the schemas before the reload, by name
+     */
+    public Map<String, MetadataSchema> getPreviousSchemas() {
+        return previousSchemas;
+    }
+
+    /**
+     * @return the schemas after the reload, by name
+     */
+    public Map<String, MetadataSchema> getSchemas() {
+        return schemas;
+    }
+}
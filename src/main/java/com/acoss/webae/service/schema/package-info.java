@@ -0,0 +1,4 @@
+/**
+ * Metadata JSON schemas served to the front-end.
+ */
+package com.acoss.webae.service.schema;
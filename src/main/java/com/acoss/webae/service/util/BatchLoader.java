@@ -0,0 +1,142 @@
+package com.acoss.webae.service.util;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Groups the lookups by key made within a short window into a single batch lookup.
+ * <p>
+ * The first lookup of a batch opens a window; the batch is executed when the window closes, or as soon as it holds
+ * the maximum number of keys, in which case it is executed by the thread of the last lookup. The scheduler only
+ * closes the windows: the batches it closes run on a bounded pool of threads, so that a slow batch does not delay the
+ * next ones. When this pool is full, the lookups of the batch fail with a {@link RejectedExecutionException}. Lookups
+ * of a key already in the pending batch share its future. The size of the batches is published as the
+ * "&lt;name&gt;.batch-size" histogram.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+
+    private final long windowMicros;
+
+    private final int maxBatchSize;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Histogram batchSizes;
+
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+
+    /**
+     * @param batchFunction the function returning the values of a set of keys; missing keys have a null value
+     * @param windowMicros the time during which the lookups are grouped, in microseconds
+     * @param maxBatchSize the maximum number of keys of a batch
+     * @param threads the number of threads running the batches closed by the window
+     * @param queueCapacity the number of closed batches waiting for a thread, over which they are rejected
+     * @param metricRegistry the registry of the batch size histogram
+     * @param name the name of the loader, used for its metrics and threads
+     */
+    public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction, long windowMicros, int maxBatchSize, int threads,
+            int queueCapacity, MetricRegistry metricRegistry, String name) {
+        this.batchFunction = batchFunction;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        CustomizableThreadFactory schedulerThreadFactory = new CustomizableThreadFactory(name + "-scheduler-");
+        schedulerThreadFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, schedulerThreadFactory);
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+        this.scheduler = scheduledExecutor;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(name + "-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        this.batchSizes = metricRegistry.histogram(MetricRegistry.name(name, "batch-size"));
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the future value of the key, completed with null if there is no such key
+     */
+    public CompletableFuture<V> load(K key) {
+        Map<K, CompletableFuture<V>> fullBatch = null;
+        CompletableFuture<V> future;
+        synchronized (this) {
+            future = pending.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(key, future);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = pending;
+                pending = new LinkedHashMap<>();
+            } else if (pending.size() == 1) {
+                Map<K, CompletableFuture<V>> batch = pending;
+                scheduler.schedule(() -> dispatch(batch), windowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            execute(fullBatch);
+        }
+        return future;
+    }
+
+    /**
+     * Stop the loader; the pending lookups fail.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        IllegalStateException exception = new IllegalStateException("The loader is stopped");
+        batch.values().forEach(future -> future.completeExceptionally(exception));
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                // The batch was full, and has already been executed
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        try {
+            executor.execute(() -> execute(batch));
+        } catch (RejectedExecutionException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void execute(Map<K, CompletableFuture<V>> batch) {
+        batchSizes.update(batch.size());
+        try {
+            Map<K, V> values = batchFunction.apply(Collections.unmodifiableSet(batch.keySet()));
+            batch.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Throwable t) {
+            batch.values().forEach(future -> future.completeExceptionally(t));
+        }
+    }
+}
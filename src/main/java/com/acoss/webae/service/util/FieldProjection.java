@@ -0,0 +1,87 @@
+package com.acoss.webae.service.util;
+
+import java.util.*;
+
+/**
+ * The fields of an entity which a client can select with the "fields" request parameter, each mapped to the
+ * entity attribute it is read from.
+ * <p>
+ * Only simple attributes can be projected: collections are not part of a projection.
+ */
+public final class FieldProjection {
+
+    private final Map<String, String> attributes;
+
+    private FieldProjection(Map<String, String> attributes) {
+        this.attributes = Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * @param fields the names of the fields, which are also the names of the entity attributes
+     * @return the projection
+     */
+    public static FieldProjection of(String... fields) {
+        Builder builder = builder();
+        for (String field : fields) {
+            builder.field(field, field);
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the names of the fields which can be selected, in declaration order
+     */
+    public Set<String> getFieldNames() {
+        return attributes.keySet();
+    }
+
+    /**
+     * @param fields the requested fields
+     * @return true if at least one field is requested, and all the requested fields can be selected
+     */
+    public boolean supports(Collection<String> fields) {
+        return !fields.isEmpty() && attributes.keySet().containsAll(fields);
+    }
+
+    /**
+     * @param fields the requested fields
+     * @return the entity attribute of each requested field, by field name, in request order and without duplicates
+     * @throws IllegalArgumentException if a field cannot be selected
+     */
+    public Map<String, String> select(Collection<String> fields) {
+        if (!supports(fields)) {
+            throw new IllegalArgumentException("Unsupported fields " + fields + ", expected some of " + getFieldNames());
+        }
+        Map<String, String> selection = new LinkedHashMap<>();
+        for (String field : fields) {
+            selection.put(field, attributes.get(field));
+        }
+        return selection;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, String> attributes = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param field the name of the field, as sent by the client and returned in the response
+         * @param attribute the name of the entity attribute
+         * @return this builder
+         */
+        public Builder field(String field, String attribute) {
+            attributes.put(field, attribute);
+            return this;
+        }
+
+        public FieldProjection build() {
+            return new FieldProjection(new LinkedHashMap<>(attributes));
+        }
+    }
+}
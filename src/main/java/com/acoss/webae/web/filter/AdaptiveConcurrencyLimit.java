@@ -0,0 +1,122 @@
+package com.acoss.webae.web.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit which adapts to the latency of the requests, with the gradient algorithm.
+ * <p>
+ * The latency measured without load is the minimum latency observed, re-estimated every {@link #PROBE_INTERVAL}
+ * samples so that it can follow a slower baseline. While the latency stays under this latency times the tolerance,
+ * the limit grows by about the square root of the limit; above it, the limit shrinks in proportion of the latency
+ * increase, down to half of the limit per sample. The change is smoothed, and the limit is only adapted when the
+ * requests use at least half of it. With the same minimum and maximum, the limit is fixed.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    /**
+     * Number of samples after which the latency without load is measured again.
+     */
+    static final int PROBE_INTERVAL = 1000;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double rttTolerance;
+
+    private final double smoothing;
+
+    private volatile double limit;
+
+    private long rttNoLoad;
+
+    private int samples;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+            double smoothing) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits: initial " + initialLimit + ", min " + minLimit +
+                ", max " + maxLimit);
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Create a limit which does not adapt.
+     *
+     * @param limit the maximum number of requests in flight
+     * @return the limit
+     */
+    public static AdaptiveConcurrencyLimit fixed(int limit) {
+        return new AdaptiveConcurrencyLimit(limit, limit, limit, 1, 0);
+    }
+
+    /**
+     * Count a request in flight, if the limit is not reached.
+     * <p>
+     * Each successful acquisition must be followed by a call to {@link #release(long)}.
+     *
+     * @return true if the request can be processed, false if it must be rejected
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a request in flight, and adapt the limit to its latency.
+     *
+     * @param rttNanos the processing time of the request, in nanoseconds
+     */
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (minLimit < maxLimit) {
+            update(Math.max(rttNanos, 1), inFlightBefore);
+        }
+    }
+
+    /**
+     * @return the current maximum number of requests in flight
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return the number of requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rtt, int inFlightBefore) {
+        if (++samples >= PROBE_INTERVAL || rttNoLoad == 0) {
+            samples = 0;
+            rttNoLoad = rtt;
+        } else if (rtt < rttNoLoad) {
+            rttNoLoad = rtt;
+        }
+        double currentLimit = limit;
+        // With little load, the latency tells nothing about the limit
+        if (inFlightBefore < currentLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * rttNoLoad / rtt));
+        double newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+        newLimit = currentLimit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
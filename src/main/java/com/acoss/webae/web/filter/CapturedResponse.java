@@ -0,0 +1,58 @@
+package com.acoss.webae.web.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A copy of a complete response, its status, headers and body, which can be written to other responses.
+ */
+final class CapturedResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    private final String contentType;
+
+    private final LinkedHashMap<String, List<String>> headers = new LinkedHashMap<>();
+
+    private final byte[] body;
+
+    CapturedResponse(ContentCachingResponseWrapper wrapper) {
+        this.status = wrapper.getStatusCode();
+        this.contentType = wrapper.getContentType();
+        for (String name : wrapper.getHeaderNames()) {
+            if (!HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                headers.put(name, new ArrayList<>(wrapper.getHeaders(name)));
+            }
+        }
+        this.body = wrapper.getContentAsByteArray();
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    void writeTo(HttpServletResponse response) throws IOException {
+        response.setStatus(status);
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                response.addHeader(header.getKey(), value);
+            }
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.flushBuffer();
+    }
+}
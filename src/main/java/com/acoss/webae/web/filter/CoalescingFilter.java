@@ -0,0 +1,150 @@
+package com.acoss.webae.web.filter;
+
+import com.acoss.webae.aop.coalescing.SingleFlight;
+import com.acoss.webae.security.SecurityUtils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filter coalescing identical concurrent GET requests: the first one is processed, and the identical requests
+ * received while it is running get a copy of its response.
+ * <p>
+ * Requests are identical when they have the same path, query string and Accept header, and are made by the same
+ * user, so this filter must run after the Spring Security filters. Responses which are not complete when the
+ * filter chain returns (asynchronous requests), and failures, are not shared: the waiting requests are then
+ * processed normally. The responses are held in memory until complete, so the streamed responses must be excluded:
+ * the requests on the excluded paths are never coalesced. A request waiting longer than the timeout for the identical request running is rejected with
+ * status 503 (Service Unavailable) and a Retry-After header. The body of an asynchronous response is written once its async dispatch is complete, so this
+ * filter also runs on the async dispatches.
+ */
+public class CoalescingFilter extends OncePerRequestFilter {
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final List<String> excludedPaths;
+
+    private final SingleFlight<String, CapturedResponse> singleFlight;
+
+    /**
+     * @param metricRegistry the registry of the metrics of the filter
+     * @param excludedPaths the Ant patterns of the paths which are never coalesced
+     * @param timeoutMillis the time a request waits for the identical request running, in milliseconds
+     */
+    public CoalescingFilter(MetricRegistry metricRegistry, List<String> excludedPaths, long timeoutMillis) {
+        this.excludedPaths = new ArrayList<>(excludedPaths);
+        this.singleFlight = new SingleFlight<>(metricRegistry, "coalescing.requests", timeoutMillis);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            filterChain.doFilter(request, response);
+            CoalescingResponseWrapper wrapper = WebUtils.getNativeResponse(response, CoalescingResponseWrapper.class);
+            if (wrapper != null && !request.isAsyncStarted()) {
+                wrapper.copyBodyToResponse();
+            }
+            return;
+        }
+        if (!"GET".equals(request.getMethod()) || isExcluded(urlPathHelper.getPathWithinApplication(request))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AtomicBoolean leader = new AtomicBoolean();
+        CapturedResponse captured;
+        try {
+            captured = singleFlight.execute(key(request), () -> {
+                leader.set(true);
+                return capture(request, response, filterChain);
+            });
+        } catch (TaskRejectedException e) {
+            if (leader.get()) {
+                throw e;
+            }
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "The identical request was not processed in time");
+            return;
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            if (leader.get()) {
+                throw e;
+            }
+            captured = null;
+        } catch (Throwable t) {
+            throw new ServletException(t);
+        }
+        if (leader.get()) {
+            return;
+        }
+        if (captured == null) {
+            filterChain.doFilter(request, response);
+        } else {
+            captured.writeTo(response);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private boolean isExcluded(String path) {
+        return excludedPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private static String key(HttpServletRequest request) {
+        return request.getRequestURI() + '?' + request.getQueryString() +
+            '|' + request.getHeader(HttpHeaders.ACCEPT) +
+            '|' + SecurityUtils.getCurrentUserLogin().orElse("");
+    }
+
+    /**
+     * Process the request, and capture its response so that it can be copied.
+     *
+     * @return the response, or null if it cannot be shared: the body of an asynchronous response is written by
+     * its async dispatch
+     */
+    private static CapturedResponse capture(HttpServletRequest request, HttpServletResponse response,
+        FilterChain filterChain) throws IOException, ServletException {
+
+        ContentCachingResponseWrapper wrapper = new CoalescingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (request.isAsyncStarted()) {
+            return null;
+        }
+        CapturedResponse captured = new CapturedResponse(wrapper);
+        wrapper.copyBodyToResponse();
+        return captured;
+    }
+
+    /**
+     * The wrapper of the responses captured by this filter, told apart from the wrappers of the other filters.
+     */
+    private static final class CoalescingResponseWrapper extends ContentCachingResponseWrapper {
+
+        private CoalescingResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+    }
+}
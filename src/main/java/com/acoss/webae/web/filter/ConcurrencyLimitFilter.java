@@ -0,0 +1,187 @@
+package com.acoss.webae.web.filter;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Filter limiting the number of requests processed at the same time, by group of endpoints.
+ * <p>
+ * Each group has an {@link AdaptiveConcurrencyLimit}, which shrinks when the latency of its requests increases.
+ * The requests over the limit are rejected at once with a 503 and a Retry-After header, instead of waiting in the
+ * queue of the server. The management endpoints have their own fixed limit, so that they still answer when the
+ * other groups are overloaded. A request matching no group belongs to the {@link #DEFAULT_GROUP}.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final String MANAGEMENT_GROUP = "management";
+
+    public static final String DEFAULT_GROUP = "default";
+
+    private static final String MANAGEMENT_PATTERN = "/management/**";
+
+    private static final byte[] REJECTED_BODY = ("{\"title\":\"Service Unavailable\",\"status\":503," +
+        "\"detail\":\"Too many concurrent requests, retry later\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final Map<String, List<String>> groupPatterns = new LinkedHashMap<>();
+
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+
+    private final String retryAfter;
+
+    /**
+     * @param metricRegistry the registry of the limit, in-flight and rejected metrics of each group
+     * @param groupPatterns the URL patterns of each group, the first matching group is used
+     * @param limitFactory creates the limit of each group, except the management group
+     * @param managementLimit the fixed limit of the management group
+     * @param retryAfterSeconds the delay sent in the Retry-After header of the rejected requests
+     */
+    public ConcurrencyLimitFilter(MetricRegistry metricRegistry, Map<String, List<String>> groupPatterns,
+            Supplier<AdaptiveConcurrencyLimit> limitFactory, int managementLimit, int retryAfterSeconds) {
+        this.groupPatterns.put(MANAGEMENT_GROUP, Collections.singletonList(MANAGEMENT_PATTERN));
+        groupPatterns.forEach((name, patterns) -> this.groupPatterns.put(name, new ArrayList<>(patterns)));
+        for (String name : this.groupPatterns.keySet()) {
+            AdaptiveConcurrencyLimit limit = MANAGEMENT_GROUP.equals(name) ?
+                AdaptiveConcurrencyLimit.fixed(managementLimit) : limitFactory.get();
+            groups.put(name, new Group(metricRegistry, name, limit));
+        }
+        groups.put(DEFAULT_GROUP, new Group(metricRegistry, DEFAULT_GROUP, limitFactory.get()));
+        this.retryAfter = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        Group group = groups.get(groupName(urlPathHelper.getPathWithinApplication(request)));
+        if (!group.limit.tryAcquire()) {
+            group.rejected.mark();
+            reject(response);
+            return;
+        }
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(group.limit, start, released));
+            } else if (released.compareAndSet(false, true)) {
+                group.limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * @param name the name of a group
+     * @return the limit of the group
+     */
+    public AdaptiveConcurrencyLimit getLimit(String name) {
+        return groups.get(name).limit;
+    }
+
+    private String groupName(String path) {
+        for (Map.Entry<String, List<String>> group : groupPatterns.entrySet()) {
+            for (String pattern : group.getValue()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group.getKey();
+                }
+            }
+        }
+        return DEFAULT_GROUP;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType("application/problem+json");
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    private static final class Group {
+
+        private final AdaptiveConcurrencyLimit limit;
+
+        private final Meter rejected;
+
+        private Group(MetricRegistry metricRegistry, String name, AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+            String prefix = MetricRegistry.name("concurrency-limit", name);
+            metricRegistry.register(MetricRegistry.name(prefix, "limit"), (Gauge<Integer>) limit::getLimit);
+            metricRegistry.register(MetricRegistry.name(prefix, "in-flight"), (Gauge<Integer>) limit::getInFlight);
+            this.rejected = metricRegistry.meter(MetricRegistry.name(prefix, "rejected"));
+        }
+    }
+
+    /**
+     * Releases the limit once an asynchronous request completes, whatever the outcome.
+     */
+    private static final class ReleasingAsyncListener implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+
+        private final long start;
+
+        private final AtomicBoolean released;
+
+        private ReleasingAsyncListener(AdaptiveConcurrencyLimit limit, long start, AtomicBoolean released) {
+            this.limit = limit;
+            this.start = start;
+            this.released = released;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // The listener is kept for the next completion
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+}
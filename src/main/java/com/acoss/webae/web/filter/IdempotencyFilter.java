@@ -0,0 +1,458 @@
+package com.acoss.webae.web.filter;
+
+import com.acoss.webae.security.SecurityUtils;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Filter making the POST requests which have an Idempotency-Key header idempotent: the response of the first
+ * request with a key is stored, and the following requests with the same key get a copy of it, with an
+ * Idempotent-Replayed header, without being processed. A request received while the first one is running waits for
+ * its response, for a bounded time after which it is rejected with status 409 (Conflict). If the first request ends
+ * without a stored response, one of the waiting requests is processed as a retry, and the others wait for it.
+ * <p>
+ * Keys are scoped by user, method and path, so this filter must run after the Spring Security filters. A hash of the
+ * method, path and body of the first request is stored with its response: a request reusing the key with another
+ * body is rejected with status 422 (Unprocessable Entity). Anonymous requests cannot be told apart, so they are only
+ * made idempotent on the anonymous paths, and the responses on the excluded paths, such as the tokens of the
+ * authentication endpoints, are never stored. The responses are stored in the {@link #CACHE_NAME} cache, which
+ * bounds their number and their time to live. Server errors are not stored, so that the request can be retried.
+ * <p>
+ * The response of an asynchronous request is stored once its async dispatch has written it, so this filter also
+ * runs on the async dispatches; the duplicates of the request wait until then.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    public static final String CACHE_NAME = IdempotencyFilter.class.getName() + ".responses";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final String PENDING_REQUEST_ATTRIBUTE = IdempotencyFilter.class.getName() + ".pending";
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final List<String> excludedPaths;
+
+    private final List<String> anonymousPaths;
+
+    private final Cache<String, StoredResponse> responses;
+
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> runningRequests = new ConcurrentHashMap<>();
+
+    private final Meter executed;
+
+    private final Meter coalesced;
+
+    private final Meter replayed;
+
+    private final Meter timeouts;
+
+    private final long timeoutMillis;
+
+    /**
+     * @param metricRegistry the registry of the metrics of the filter
+     * @param cacheManager the cache manager holding the {@link #CACHE_NAME} cache
+     * @param excludedPaths the Ant patterns of the paths whose responses are never stored
+     * @param anonymousPaths the Ant patterns of the paths on which anonymous requests are made idempotent
+     * @param timeoutMillis the time a request waits for the request with the same key running, in milliseconds
+     */
+    public IdempotencyFilter(MetricRegistry metricRegistry, CacheManager cacheManager, List<String> excludedPaths,
+            List<String> anonymousPaths, long timeoutMillis) {
+        this.excludedPaths = new ArrayList<>(excludedPaths);
+        this.anonymousPaths = new ArrayList<>(anonymousPaths);
+        this.responses = cacheManager.getCache(CACHE_NAME);
+        this.executed = metricRegistry.meter("idempotency.requests.executed");
+        this.coalesced = metricRegistry.meter("idempotency.requests.coalesced");
+        this.replayed = metricRegistry.meter("idempotency.requests.replayed");
+        this.timeouts = metricRegistry.meter("idempotency.requests.timeouts");
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            filterAsyncDispatch(request, response, filterChain);
+            return;
+        }
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (!"POST".equals(request.getMethod()) || idempotencyKey == null || idempotencyKey.isEmpty() ||
+                !isIdempotent(urlPathHelper.getPathWithinApplication(request))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                IDEMPOTENCY_KEY_HEADER + " must not be longer than " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        String key = key(request, idempotencyKey);
+        while (true) {
+            StoredResponse stored = responses.get(key);
+            if (stored != null) {
+                replay(stored, new HashingRequestWrapper(request), response);
+                return;
+            }
+            CompletableFuture<StoredResponse> future = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = runningRequests.putIfAbsent(key, future);
+            if (running == null) {
+                executed.mark();
+                process(new PendingRequest(key, future, request, response), response, filterChain);
+                return;
+            }
+            coalesced.mark();
+            try {
+                stored = running.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                timeouts.mark();
+                response.sendError(HttpStatus.CONFLICT.value(),
+                    "A request with the same " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for the request with the same key", e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            if (stored != null) {
+                replay(stored, new HashingRequestWrapper(request), response);
+                return;
+            }
+            // The first request failed: one of its duplicates is processed as a retry, the others wait for it
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    /**
+     * Let the async dispatch write the response of an asynchronous request, and store the response once it is
+     * complete.
+     */
+    private void filterAsyncDispatch(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws IOException, ServletException {
+
+        PendingRequest pending = (PendingRequest) request.getAttribute(PENDING_REQUEST_ATTRIBUTE);
+        if (pending == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (!request.isAsyncStarted()) {
+                request.removeAttribute(PENDING_REQUEST_ATTRIBUTE);
+                pending.complete();
+                completed = true;
+            }
+        } finally {
+            if (!completed && !request.isAsyncStarted()) {
+                pending.release(null);
+            }
+        }
+    }
+
+    private boolean isIdempotent(String path) {
+        if (excludedPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return false;
+        }
+        return SecurityUtils.isAuthenticated() || anonymousPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private static String key(HttpServletRequest request, String idempotencyKey) {
+        return request.getMethod() + ' ' + request.getRequestURI() +
+            '|' + SecurityUtils.getCurrentUserLogin().orElse("") +
+            '|' + idempotencyKey;
+    }
+
+    /**
+     * Process the request, unless its response was stored meanwhile, and store its response, now or once its
+     * async dispatch is complete.
+     */
+    private void process(PendingRequest pending, HttpServletResponse response, FilterChain filterChain)
+            throws IOException, ServletException {
+
+        HttpServletRequest request = pending.getRequest();
+        boolean async = false;
+        try {
+            StoredResponse stored = responses.get(pending.getKey());
+            if (stored != null) {
+                replay(stored, pending.getRequest(), response);
+                pending.release(stored);
+                return;
+            }
+            filterChain.doFilter(request, pending.getResponse());
+            if (request.isAsyncStarted()) {
+                request.setAttribute(PENDING_REQUEST_ATTRIBUTE, pending);
+                request.getAsyncContext().addListener(pending);
+                async = true;
+                return;
+            }
+            pending.complete();
+        } finally {
+            if (!async) {
+                pending.release(null);
+            }
+        }
+    }
+
+    private void replay(StoredResponse stored, HashingRequestWrapper request, HttpServletResponse response)
+            throws IOException {
+        if (!stored.getRequestHash().equals(request.hash())) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                IDEMPOTENCY_KEY_HEADER + " was already used with another request body");
+            return;
+        }
+        replayed.mark();
+        response.setHeader(IDEMPOTENT_REPLAYED_HEADER, "true");
+        stored.getResponse().writeTo(response);
+    }
+
+    /**
+     * A request being processed, whose response is awaited by its duplicates.
+     * <p>
+     * As an async listener, it releases the duplicates if the request ends without an async dispatch completing it.
+     */
+    private final class PendingRequest implements AsyncListener {
+
+        private final String key;
+
+        private final CompletableFuture<StoredResponse> future;
+
+        private final HashingRequestWrapper request;
+
+        private final ContentCachingResponseWrapper response;
+
+        private PendingRequest(String key, CompletableFuture<StoredResponse> future, HttpServletRequest request,
+                HttpServletResponse response) {
+            this.key = key;
+            this.future = future;
+            this.request = new HashingRequestWrapper(request);
+            this.response = new ContentCachingResponseWrapper(response);
+        }
+
+        private String getKey() {
+            return key;
+        }
+
+        private HashingRequestWrapper getRequest() {
+            return request;
+        }
+
+        private ContentCachingResponseWrapper getResponse() {
+            return response;
+        }
+
+        /**
+         * Write the complete response, store it unless it is a server error, and release the duplicates.
+         */
+        private void complete() throws IOException {
+            CapturedResponse captured = new CapturedResponse(response);
+            response.copyBodyToResponse();
+            StoredResponse stored = null;
+            if (captured.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                stored = new StoredResponse(request.hash(), captured);
+                responses.put(key, stored);
+            }
+            release(stored);
+        }
+
+        /**
+         * Release the duplicates with the given response, or with null to process them, unless already released.
+         */
+        private void release(StoredResponse stored) {
+            runningRequests.remove(key, future);
+            future.complete(stored);
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(null);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // The timeout is handled by an async dispatch, or ends with onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // An error ends with onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * A stored response, with the hash of the request it answers.
+     */
+    private static final class StoredResponse implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String requestHash;
+
+        private final CapturedResponse response;
+
+        private StoredResponse(String requestHash, CapturedResponse response) {
+            this.requestHash = requestHash;
+            this.response = response;
+        }
+
+        private String getRequestHash() {
+            return requestHash;
+        }
+
+        private CapturedResponse getResponse() {
+            return response;
+        }
+    }
+
+    /**
+     * A request hashing its method, path and body as the body is read, without holding the body in memory.
+     */
+    private static final class HashingRequestWrapper extends HttpServletRequestWrapper {
+
+        private final MessageDigest digest;
+
+        private ServletInputStream inputStream;
+
+        private BufferedReader reader;
+
+        private HashingRequestWrapper(HttpServletRequest request) {
+            super(request);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new HashingInputStream(super.getInputStream(), digest);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.ISO_8859_1.name() : encoding));
+            }
+            return reader;
+        }
+
+        /**
+         * Read the rest of the body, and hash the request.
+         *
+         * @return the hexadecimal SHA-256 hash of the method, path and body of the request
+         * @throws IOException if the body cannot be read
+         */
+        private String hash() throws IOException {
+            StreamUtils.drain(getInputStream());
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        }
+    }
+
+    private static final class HashingInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+
+        private final MessageDigest digest;
+
+        private HashingInputStream(ServletInputStream delegate, MessageDigest digest) {
+            this.delegate = delegate;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = delegate.read(b, off, len);
+            if (count > 0) {
+                digest.update(b, off, count);
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+}
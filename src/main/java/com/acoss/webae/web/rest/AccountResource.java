@@ -9,14 +9,18 @@ import com.acoss.webae.service.MailService;
 import com.acoss.webae.service.UserService;
 import com.acoss.webae.service.dto.UserDTO;
 import com.acoss.webae.web.rest.errors.*;
+import com.acoss.webae.web.rest.util.AsyncRequestExecutor;
 import com.acoss.webae.web.rest.vm.KeyAndPasswordVM;
 import com.acoss.webae.web.rest.vm.ManagedUserVM;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
@@ -37,32 +41,41 @@ public class AccountResource {
 
     private final MailService mailService;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final AsyncRequestExecutor registrationExecutor;
+
+    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService,
+            @Qualifier("registrationExecutor") AsyncRequestExecutor registrationExecutor) {
 
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.registrationExecutor = registrationExecutor;
     }
 
     /**
      * POST  /register : register the user.
      *
      * @param managedUserVM the managed user View Model
+     * @return the task creating the user, whose ResponseEntity has status 201 (Created), or status 503 (Service
+     * Unavailable) if too many users are registered at the same time
      * @throws InvalidPasswordException 400 (Bad Request) if the password is incorrect
      * @throws EmailAlreadyUsedException 400 (Bad Request) if the email is already used
      * @throws LoginAlreadyUsedException 400 (Bad Request) if the login is already used
      */
     @PostMapping("/register")
     @Timed
-    @ResponseStatus(HttpStatus.CREATED)
-    public void registerAccount(@Valid @RequestBody ManagedUserVM managedUserVM) {
+    public WebAsyncTask<ResponseEntity<Void>> registerAccount(@Valid @RequestBody ManagedUserVM managedUserVM) {
         if (!checkPasswordLength(managedUserVM.getPassword())) {
             throw new InvalidPasswordException();
         }
         userRepository.findOneByLogin(managedUserVM.getLogin().toLowerCase()).ifPresent(u -> {throw new LoginAlreadyUsedException();});
         userRepository.findOneByEmailIgnoreCase(managedUserVM.getEmail()).ifPresent(u -> {throw new EmailAlreadyUsedException();});
-        User user = userService.registerUser(managedUserVM, managedUserVM.getPassword());
-        mailService.sendActivationEmail(user);
+        // The password is hashed on the registration executor, not on a thread of the server
+        return registrationExecutor.submit(() -> {
+            User user = userService.registerUser(managedUserVM, managedUserVM.getPassword());
+            mailService.sendActivationEmail(user);
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        });
     }
 
     /**
@@ -1,6 +1,8 @@
 package com.acoss.webae.web.rest;
 
 import com.acoss.webae.service.AuditEventService;
+import com.acoss.webae.web.rest.errors.BadRequestAlertException;
+import com.acoss.webae.web.rest.util.JsonArrayStreamer;
 import com.acoss.webae.web.rest.util.PaginationUtil;
 
 import io.github.jhipster.web.util.ResponseUtil;
@@ -10,11 +12,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for getting the audit events.
@@ -25,45 +33,96 @@ public class AuditResource {
 
     private final AuditEventService auditEventService;
 
-    public AuditResource(AuditEventService auditEventService) {
+    private final JsonArrayStreamer jsonArrayStreamer;
+
+    public AuditResource(AuditEventService auditEventService, JsonArrayStreamer jsonArrayStreamer) {
         this.auditEventService = auditEventService;
+        this.jsonArrayStreamer = jsonArrayStreamer;
     }
 
     /**
      * GET /audits : get a page of AuditEvents.
+     * <p>
+     * The AuditEvents are written to the response as they are read from the database.
      *
      * @param pageable the pagination information
-     * @return the ResponseEntity with status 200 (OK) and the list of AuditEvents in body
+     * @param request the request, whose Accept header selects the format
+     * @param response the response, with status 200 (OK) and the list of AuditEvents in body
+     * @throws IOException if the response cannot be written to
+     * @throws HttpMediaTypeNotAcceptableException if no supported format is accepted
      */
     @GetMapping
-    public ResponseEntity<List<AuditEvent>> getAll(Pageable pageable) {
-        Page<AuditEvent> page = auditEventService.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/management/audits");
-        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    public void getAll(Pageable pageable, HttpServletRequest request, HttpServletResponse response)
+            throws IOException, HttpMediaTypeNotAcceptableException {
+        stream(null, null, pageable, request, response);
     }
 
     /**
      * GET  /audits : get a page of AuditEvents between the fromDate and toDate.
+     * <p>
+     * The AuditEvents are written to the response as they are read from the database.
      *
      * @param fromDate the start of the time period of AuditEvents to get
      * @param toDate the end of the time period of AuditEvents to get
      * @param pageable the pagination information
-     * @return the ResponseEntity with status 200 (OK) and the list of AuditEvents in body
+     * @param request the request, whose Accept header selects the format
+     * @param response the response, with status 200 (OK) and the list of AuditEvents in body
+     * @throws IOException if the response cannot be written to
+     * @throws HttpMediaTypeNotAcceptableException if no supported format is accepted
      */
-    @GetMapping(params = {"fromDate", "toDate"})
-    public ResponseEntity<List<AuditEvent>> getByDates(
+    @GetMapping(params = {"fromDate", "toDate", "!fields"})
+    public void getByDates(
         @RequestParam(value = "fromDate") LocalDate fromDate,
         @RequestParam(value = "toDate") LocalDate toDate,
-        Pageable pageable) {
+        Pageable pageable,
+        HttpServletRequest request,
+        HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
 
-        Page<AuditEvent> page = auditEventService.findByDates(
-            fromDate.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+        stream(fromDate.atStartOfDay(ZoneId.systemDefault()).toInstant(),
             toDate.atStartOfDay(ZoneId.systemDefault()).plusDays(1).toInstant(),
-            pageable);
+            pageable, request, response);
+    }
+
+    /**
+     * GET  /audits?fields=:fields : get a page of AuditEvents, optionally between the fromDate and toDate,
+     * with only the given fields.
+     * <p>
+     * Only the selected columns are read from the database and serialized: the event data cannot be selected.
+     *
+     * @param fields the fields to return, among {@link AuditEventService#AUDIT_EVENT_FIELDS}
+     * @param fromDate the start of the time period of AuditEvents to get
+     * @param toDate the end of the time period of AuditEvents to get
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of AuditEvents in body,
+     * or with status 400 (Bad Request) if a field is not supported
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAll(
+        @RequestParam(value = "fields") List<String> fields,
+        @RequestParam(value = "fromDate", required = false) LocalDate fromDate,
+        @RequestParam(value = "toDate", required = false) LocalDate toDate,
+        Pageable pageable) {
+
+        if (!AuditEventService.AUDIT_EVENT_FIELDS.supports(fields)) {
+            throw new BadRequestAlertException("The fields must be some of " + AuditEventService.AUDIT_EVENT_FIELDS.getFieldNames(),
+                "audit", "invalidfields");
+        }
+        Instant from = fromDate == null ? null : fromDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
+        Instant to = toDate == null ? null : toDate.atStartOfDay(ZoneId.systemDefault()).plusDays(1).toInstant();
+        Page<Map<String, Object>> page = auditEventService.findAll(fields, from, to, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/management/audits");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    private void stream(Instant fromDate, Instant toDate, Pageable pageable, HttpServletRequest request,
+            HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(pageable,
+            auditEventService.count(fromDate, toDate), "/management/audits");
+        JsonArrayStreamer.ArrayWriter<AuditEvent> writer = jsonArrayStreamer.open(request, response, headers, AuditEvent.class);
+        auditEventService.forEach(fromDate, toDate, pageable, writer::write);
+        writer.finish();
+    }
+
     /**
      * GET  /audits/:id : get an AuditEvent by id.
      *
@@ -1,24 +1,53 @@
 package com.acoss.webae.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
+import com.acoss.webae.security.AuthoritiesConstants;
+import com.acoss.webae.service.MetadataExportService;
+import com.acoss.webae.service.MetadataImportException;
+import com.acoss.webae.service.MetadataImportService;
+import com.acoss.webae.service.MetadataManifestService;
 import com.acoss.webae.service.MetadataService;
+import com.acoss.webae.service.dto.MetadataManifestDTO;
+import com.acoss.webae.service.dto.MetadataSearchResultDTO;
+import com.acoss.webae.service.schema.MetadataSchema;
+import com.acoss.webae.service.schema.MetadataSchemaRegistry;
+import com.acoss.webae.service.schema.MetadataSchemaSearchIndex;
 import com.acoss.webae.web.rest.errors.BadRequestAlertException;
+import com.acoss.webae.web.rest.errors.InternalServerErrorException;
+import com.acoss.webae.web.rest.util.AsyncRequestExecutor;
 import com.acoss.webae.web.rest.util.HeaderUtil;
+import com.acoss.webae.web.rest.util.JsonArrayStreamer;
+import com.acoss.webae.web.rest.util.PaginationUtil;
 import com.acoss.webae.service.dto.MetadataDTO;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-import org.json.*;
-
 /**
  * REST controller for managing Metadata.
  */
@@ -30,10 +59,44 @@ public class MetadataResource {
 
     private static final String ENTITY_NAME = "metadata";
 
+    private static final int DEFAULT_KEYSET_LIMIT = 20;
+
+    private static final int MAX_KEYSET_LIMIT = 2000;
+
+    private static final int MAX_IDS = 1000;
+
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    private static final int MAX_SEARCH_LIMIT = 200;
+
     private final MetadataService metadataService;
 
-    public MetadataResource(MetadataService metadataService) {
+    private final MetadataManifestService metadataManifestService;
+
+    private final MetadataSchemaRegistry metadataSchemaRegistry;
+
+    private final MetadataExportService metadataExportService;
+
+    private final MetadataImportService metadataImportService;
+
+    private final MetadataSchemaSearchIndex metadataSchemaSearchIndex;
+
+    private final JsonArrayStreamer jsonArrayStreamer;
+
+    private final AsyncRequestExecutor validationExecutor;
+
+    public MetadataResource(MetadataService metadataService, MetadataManifestService metadataManifestService,
+            MetadataSchemaRegistry metadataSchemaRegistry, MetadataExportService metadataExportService,
+            MetadataImportService metadataImportService, MetadataSchemaSearchIndex metadataSchemaSearchIndex,
+            JsonArrayStreamer jsonArrayStreamer, @Qualifier("validationExecutor") AsyncRequestExecutor validationExecutor) {
         this.metadataService = metadataService;
+        this.metadataManifestService = metadataManifestService;
+        this.metadataSchemaRegistry = metadataSchemaRegistry;
+        this.metadataExportService = metadataExportService;
+        this.metadataImportService = metadataImportService;
+        this.metadataSchemaSearchIndex = metadataSchemaSearchIndex;
+        this.jsonArrayStreamer = jsonArrayStreamer;
+        this.validationExecutor = validationExecutor;
     }
 
     /**
@@ -80,15 +143,146 @@ public class MetadataResource {
 
     /**
      * GET  /metadata : get all the metadata.
+     * <p>
+     * The metadata are written to the response as they are read from the database, so that a large page is never
+     * held in memory.
      *
-     * @return the ResponseEntity with status 200 (OK) and the list of metadata in body
+     * @param pageable the pagination information
+     * @param request the request, whose Accept header selects the format
+     * @param response the response, with status 200 (OK) and the list of metadata in body
+     * @throws IOException if the response cannot be written to
+     * @throws HttpMediaTypeNotAcceptableException if no supported format is accepted
      */
     @GetMapping("/metadata")
     @Timed
-    public List<MetadataDTO> getAllMetadata() {
-        log.debug("REST request to get all Metadata");
-        return metadataService.findAll();
+    public void getAllMetadata(Pageable pageable, HttpServletRequest request, HttpServletResponse response)
+            throws IOException, HttpMediaTypeNotAcceptableException {
+        log.debug("REST request to get a page of Metadata");
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(pageable, metadataService.count(), "/api/metadata");
+        JsonArrayStreamer.ArrayWriter<MetadataDTO> writer = jsonArrayStreamer.open(request, response, headers, MetadataDTO.class);
+        metadataService.forEach(pageable, writer::write);
+        writer.finish();
+    }
+
+    /**
+     * GET  /metadata?fields=:fields : get all the metadata, with only the given fields.
+     * <p>
+     * Only the selected columns are read from the database and serialized.
+     *
+     * @param fields the fields to return, among {@link MetadataService#METADATA_FIELDS}
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of metadata in body,
+     * or with status 400 (Bad Request) if a field is not supported
+     */
+    @GetMapping(value = "/metadata", params = {"fields", "!after", "!ids"})
+    @Timed
+    public ResponseEntity<List<Map<String, Object>>> getAllMetadata(@RequestParam("fields") List<String> fields,
+            Pageable pageable) {
+        log.debug("REST request to get a page of Metadata with fields : {}", fields);
+        if (!MetadataService.METADATA_FIELDS.supports(fields)) {
+            throw new BadRequestAlertException("The fields must be some of " + MetadataService.METADATA_FIELDS.getFieldNames(),
+                ENTITY_NAME, "invalidfields");
+        }
+        Page<Map<String, Object>> page = metadataService.findAll(fields, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/metadata");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /metadata?after=:after : get the metadata following the "after" id, in id order.
+     * <p>
+     * Use "after=0" to get the first slice, then follow the "next" link of the Link header. Unlike page-based
+     * pagination, this uses the primary key index without an offset nor a count query.
+     *
+     * @param after the id of the last metadata of the previous slice
+     * @param limit the maximum number of metadata to return
+     * @return the ResponseEntity with status 200 (OK) and the list of metadata in body
+     */
+    @GetMapping(value = "/metadata", params = {"after", "!ids"})
+    @Timed
+    public ResponseEntity<List<MetadataDTO>> getAllMetadataAfter(@RequestParam("after") Long after,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_KEYSET_LIMIT) int limit) {
+        log.debug("REST request to get {} Metadata after : {}", limit, after);
+        if (limit < 1 || limit > MAX_KEYSET_LIMIT) {
+            throw new BadRequestAlertException("The limit must be between 1 and " + MAX_KEYSET_LIMIT, ENTITY_NAME, "invalidlimit");
+        }
+        Slice<MetadataDTO> slice = metadataService.findAllAfter(after, limit);
+        Long lastId = slice.hasContent() ? slice.getContent().get(slice.getNumberOfElements() - 1).getId() : after;
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(slice, lastId, "/api/metadata");
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /metadata/export : export all the metadata.
+     * <p>
+     * The rows are streamed to the client as they are read from the database, so that the whole table is never
+     * loaded in memory. The body is written by the export executor, see
+     * {@link com.acoss.webae.config.AsyncRequestConfiguration}.
+     *
+     * @param format the export format, "ndjson" (the default) or "csv"
+     * @return the ResponseEntity with status 200 (OK) and the metadata in body, or with status 400 (Bad Request) if
+     * the format is not supported
+     */
+    @GetMapping("/metadata/export")
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<StreamingResponseBody> exportMetadata(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export all Metadata as {}", format);
+        MetadataExportService.Format exportFormat = MetadataExportService.Format.fromName(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported export format " + format, ENTITY_NAME, "invalidformat"));
+        StreamingResponseBody body = out -> metadataExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"metadata." + exportFormat.getExtension() + "\"")
+            .body(body);
+    }
+
+    /**
+     * POST  /metadata/import : create metadata in bulk.
+     * <p>
+     * The body is read as a stream of JSON documents, one new metadata per line, and saved in a single
+     * transaction: if one row is rejected, nothing is imported. The rows are read and validated by the validation
+     * executor, not by a thread of the server.
+     *
+     * @param body the NDJSON body
+     * @return the task importing the metadata, whose ResponseEntity has status 200 (OK), or status 400 (Bad Request)
+     * if a row is not valid, or status 503 (Service Unavailable) if too many imports are running
+     */
+    @PostMapping(value = "/metadata/import", consumes = "application/x-ndjson")
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public WebAsyncTask<ResponseEntity<Void>> importMetadata(InputStream body) {
+        log.debug("REST request to import Metadata");
+        return validationExecutor.submit(() -> {
+            long count;
+            try {
+                count = metadataImportService.importNdjson(body);
+            } catch (MetadataImportException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "invalidimport");
+            }
+            return ResponseEntity.ok()
+                .headers(HeaderUtil.createAlert(count + " metadata are imported", String.valueOf(count)))
+                .<Void>build();
+        });
+    }
+
+    /**
+     * GET  /metadata?ids=:ids : get the metadata with the given ids, in a single query.
+     *
+     * @param ids the comma-separated ids of the metadata to retrieve
+     * @return the ResponseEntity with status 200 (OK) and the list of metadata in body, in the order of the ids and
+     * without the ids which do not exist
+     */
+    @GetMapping(value = "/metadata", params = "ids")
+    @Timed
+    public ResponseEntity<List<MetadataDTO>> getMetadataByIds(@RequestParam("ids") List<Long> ids) {
+        log.debug("REST request to get Metadata : {}", ids);
+        if (ids.size() > MAX_IDS) {
+            throw new BadRequestAlertException("At most " + MAX_IDS + " ids can be requested", ENTITY_NAME, "toomanyids");
         }
+        return ResponseEntity.ok(metadataService.findAll(ids));
+    }
 
     /**
      * GET  /metadata/:id : get the "id" metadata.
@@ -118,457 +312,111 @@ public class MetadataResource {
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
     }
 
+    /**
+     * GET  /metadata/manifest : get the manifest of all the schemas and reference tables, with their versions.
+     * <p>
+     * The response carries the manifest version as its ETag, so that a client can send it back in an
+     * If-None-Match header and get a 304 (Not Modified) if nothing has changed since its last synchronisation.
+     *
+     * @return the ResponseEntity with status 200 (OK) and the manifest in body, or with status 304 (Not Modified)
+     */
+    @GetMapping("/metadata/manifest")
+    @Timed
+    public ResponseEntity<MetadataManifestDTO> getManifest() {
+        log.debug("REST request to get the Metadata manifest");
+        MetadataManifestDTO manifest = metadataManifestService.getManifest();
+        return ResponseEntity.ok()
+            .eTag("\"" + manifest.getVersion() + "\"")
+            .body(manifest);
+    }
+
+    /**
+     * GET  /metadata/schemas/:name : get the "name" schema.
+     * <p>
+     * The schema is served as JSON, unless the Accept header prefers Smile or CBOR; each format is encoded once,
+     * when the schema is loaded.
+     *
+     * @param name the name of the schema to retrieve
+     * @param accept the Accept header of the request
+     * @return the ResponseEntity with status 200 (OK) and with body the schema, or with status 404 (Not Found),
+     * or with status 406 (Not Acceptable) if no supported format is accepted
+     */
+    @GetMapping("/metadata/schemas/{name}")
+    @Timed
+    public ResponseEntity<byte[]> getSchema(@PathVariable String name,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.debug("REST request to get Metadata schema : {}", name);
+        Optional<MetadataSchema> schema = metadataSchemaRegistry.getSchema(name);
+        if (!schema.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        List<MediaType> acceptedTypes = accept == null ? Collections.singletonList(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        for (MediaType acceptedType : acceptedTypes) {
+            for (Map.Entry<MediaType, byte[]> encodedContent : schema.get().getEncodedContents().entrySet()) {
+                if (acceptedType.isCompatibleWith(encodedContent.getKey())) {
+                    return ResponseEntity.ok()
+                        .contentType(encodedContent.getKey())
+                        .body(encodedContent.getValue());
+                }
+            }
+        }
+        return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    /**
+     * GET  /metadata/search?q=:query : search the schema fields by id, title or enum description.
+     * <p>
+     * The search ignores case and accents, and each word of the query matches the words it is a prefix of.
+     *
+     * @param query the words to search
+     * @param limit the maximum number of fields to return
+     * @return the ResponseEntity with status 200 (OK) and the list of matching fields in body
+     */
+    @GetMapping("/metadata/search")
+    @Timed
+    public ResponseEntity<List<MetadataSearchResultDTO>> searchSchemaFields(@RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit) {
+        log.debug("REST request to search the Metadata schema fields : {}", query);
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new BadRequestAlertException("The limit must be between 1 and " + MAX_SEARCH_LIMIT, ENTITY_NAME, "invalidlimit");
+        }
+        return ResponseEntity.ok(metadataSchemaSearchIndex.search(query, limit));
+    }
+
+    /**
+     * POST  /metadata/schemas/reload : reload all the schemas.
+     *
+     * @return the ResponseEntity with status 200 (OK)
+     * @throws IOException if a schema cannot be read, in which case the current schemas are kept
+     */
+    @PostMapping("/metadata/schemas/reload")
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<Void> reloadSchemas() throws IOException {
+        log.debug("REST request to reload the Metadata schemas");
+        metadataSchemaRegistry.reload();
+        return ResponseEntity.ok().headers(HeaderUtil.createAlert("The metadata schemas are reloaded", "")).build();
+    }
+
     @GetMapping("/metadata/ace")
     @Timed
-    public String getMetadataACE() throws JSONException {
-        String s = "{\n" +
-            "  \"title\" : \"ACE\",\n" +
-            "  \"type\" : \"object\",\n" +
-            "  \"descripion\" : \"ACE\",\n" +
-            "  \"properties\" : {\n" +
-            "    \"E76.1\" : {\n" +
-            "      \"title\" : \"Code APRM\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 140,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E76.1\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E76\" : {\n" +
-            "      \"title\" : \"Activité principale artisanale\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 0,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"\",\n" +
-            "      \"xpath\" : \"E76\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E79\" : {\n" +
-            "      \"title\" : \"Origine de la modification d'activité\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 0,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"\",\n" +
-            "      \"xpath\" : \"E79\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E78\" : {\n" +
-            "      \"title\" : \"L'activité principale de cet établissement devient celle de l'entreprise\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 1,\n" +
-            "      \"minLength\" : 1,\n" +
-            "      \"pattern\" : \"\",\n" +
-            "      \"xpath\" : \"E78\",\n" +
-            "      \"business_type\" : \"OUI_NON\",\n" +
-            "    \"oneOf\": [\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"O\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Oui\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"N\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Non\"\n" +
-            "    }\n" +
-            "    ],\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 3,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E79.1\" : {\n" +
-            "      \"title\" : \"Code modification activité\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : -1,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E79.1\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E80\" : {\n" +
-            "      \"title\" : \"Libellé de l'activité spécifique pour le RSI\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 300,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E80\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 5,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E79.2\" : {\n" +
-            "      \"title\" : \"Autre modification activité\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 20,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E79.2\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 1,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E71\" : {\n" +
-            "      \"title\" : \"Activité la plus importante \",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 140,\n" +
-            "      \"minLength\" : 1,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E71\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 1,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E76.2\" : {\n" +
-            "      \"title\" : \"Code aprm activité principale artisanale\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 6,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E76.2\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 1,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E70\" : {\n" +
-            "      \"title\" : \"Activité(s) exercée(s)\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 840,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E70\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    }\n" +
-            "  },\n" +
-            "  \"required\" : [ \"E71\", \"E76.1\", \"E79\" ],\n" +
-            "  \"defaults\" : null\n" +
-            "}";
-
-        JSONObject obj = new JSONObject(s);
-        return s;
+    public String getMetadataACE() {
+        return getSchemaContent("ace");
     }
 
     @GetMapping("/metadata/cae")
     @Timed
-    public String getMetadataCAE() throws JSONException {
-        String s = "{\n" +
-            "  \"title\" : \"CAE\",\n" +
-            "  \"type\" : \"object\",\n" +
-            "  \"descripion\" : \"CAE\",\n" +
-            "  \"properties\" : {\n" +
-            "    \"E73\" : {\n" +
-            "      \"title\" : \"Condition de l'activité générale\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 0,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"\",\n" +
-            "      \"xpath\" : \"E73\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E73.11\" : {\n" +
-            "      \"title\" : \"Périodes activité\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 2,\n" +
-            "      \"maxLength\" : 0,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"\",\n" +
-            "      \"xpath\" : \"E73.11\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \" \",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E75.1\" : {\n" +
-            "      \"title\" : \"Code nature des activités\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : -1,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"[\\\\d]*\",\n" +
-            "      \"xpath\" : \"E75.1\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E75.2\" : {\n" +
-            "      \"title\" : \"Autre nature d activités\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 50,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E75.2\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 1,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E73.1\" : {\n" +
-            "      \"title\" : \"Permanence activité\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : -1,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E73.1\",\n" +
-            "      \"business_type\" : \"PERMANENCE_ACTIVITE\",\n" +
-            "    \"oneOf\": [\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"P\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Permanente\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"S\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Saisonnière\"\n" +
-            "    }\n" +
-            "    ],\n" +
-            "      \"condition\" : \" \",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E75\" : {\n" +
-            "      \"title\" : \"Nature des activités\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 0,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"\",\n" +
-            "      \"xpath\" : \"E75\", \n" +
-            "      \"business_type\" : \"NATURE_ACTIVITE\",\n" +
-            "    \"oneOf\": [\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"4\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Fabrication, production\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"9\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Commerce de gros\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"10\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Commerce de détail en magasin\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"14\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Bâtiment, travaux publics\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"16\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Commerce de détail sur marché\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"17\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Commerce de détail sur internet\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"21\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Location de terrains et autres biens immobiliers\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"22\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Promotion immobilière de bureaux\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"23\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Promotion immobilière de logements\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"24\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Promotion immobilière d'autre batiments\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"25\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Réalisation de programme de construction\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"26\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Support patrimoine familial immo sans act de loc\"\n" +
-            "    },\n" +
-            "    {\n" +
-            "      \"enum\": [\n" +
-            "      \"99\"\n" +
-            "      ],\n" +
-            "      \"description\": \"Autre\"\n" +
-            "    }\n" +
-            "    ],\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E73.2\" : {\n" +
-            "      \"title\" : \"Non sédentarité\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 1,\n" +
-            "      \"minLength\" : 1,\n" +
-            "      \"pattern\" : \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}€@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\n" +
-            "      \"xpath\" : \"E73.2\",\n" +
-            "      \"business_type\" : \"NON_SEDENTARITE\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 2,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E73.111\" : {\n" +
-            "      \"title\" : \"Date début période activité\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : \"date-time\",\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : -1,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"....-..-..\",\n" +
-            "      \"xpath\" : \"E73.111\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"Si E73.1 = S\",\n" +
-            "      \"order\" : 0,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E73.112\" : {\n" +
-            "      \"title\" : \"Date fin période activité\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : \"date-time\",\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : -1,\n" +
-            "      \"minLength\" : 0,\n" +
-            "      \"pattern\" : \"....-..-..\",\n" +
-            "      \"xpath\" : \"E73.112\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"Si E73.1 = S\",\n" +
-            "      \"order\" : 1,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    },\n" +
-            "    \"E75.3\" : {\n" +
-            "      \"title\" : \"Libellé de pays\",\n" +
-            "      \"type\" : \"string\",\n" +
-            "      \"format\" : null,\n" +
-            "      \"maxItems\" : 1,\n" +
-            "      \"maxLength\" : 5,\n" +
-            "      \"minLength\" : 5,\n" +
-            "      \"pattern\" : \"[\\\\d]*\",\n" +
-            "      \"xpath\" : \"E75.3\",\n" +
-            "      \"business_type\" : \"\",\n" +
-            "      \"condition\" : \"\",\n" +
-            "      \"order\" : 2,\n" +
-            "      \"read_only\" : false,\n" +
-            "      \"show\" : true\n" +
-            "    }\n" +
-            "  },\n" +
-            "  \"required\" : [ \"E73\", \"E73.1\", \"E75\", \"E75.1\", \"E75.2\" ],\n" +
-            "  \"defaults\" : null\n" +
-            "}";
-
-        JSONObject obj = new JSONObject(s);
-        return s;
+    public String getMetadataCAE() {
+        return getSchemaContent("cae");
     }
 
     @GetMapping("/metadata/adf")
     @Timed
-    public String getMetadataADF() throws JSONException {
-        String s = "{\r\n  \"title\": \"ADF\",\r\n  \"type\": \"object\",\r\n  \"descripion\": \"ADF\",\r\n  \"properties\": {\r\n    \"C37_3\": {\r\n      \"title\": \"Code officiel g\u00E9ographique D\u00E9partement commune Ou code pays si \u00E0  l'\u00E9tranger\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": -1,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"((2A|2B|[0-2]{1}[1-9]{1}|10|[3-8]{1}\\\\d{1}|[9]{1}[0-5]{1})\\\\d{3})|(97[1-8]{1}\\\\d{2})|(98[4-9]\\\\d{2})|(99[1-5]\\\\d{2})|99998\",\r\n      \"xpath\": \"C37_3\",\r\n      \"business_type\": \"CODE_GEO\",\r\n      \"condition\": \"\",\r\n      \"order\": 0,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C39_1\": {\r\n      \"title\": \"Num\u00E9ro de t\u00E9l\u00E9phone pour rel. Admin.\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 2,\r\n      \"maxLength\": 14,\r\n      \"minLength\": 1,\r\n      \"pattern\": \"[\\\\d]*\",\r\n      \"xpath\": \"C39_1\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = DP\",\r\n      \"order\": 0,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_4\": {\r\n      \"title\": \"Code Rivoli de la voie ou lieu-dit\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": -1,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"((\\\\p{L}{1})|(\\\\d{1}))(\\\\d{3})\",\r\n      \"xpath\": \"C37_4\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"\",\r\n      \"order\": 1,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C39_2\": {\r\n      \"title\": \"Num\u00E9ro de t\u00E9l\u00E9copie pour rel. Admin.\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 14,\r\n      \"minLength\": 1,\r\n      \"pattern\": \"[\\\\d]*\",\r\n      \"xpath\": \"C39_2\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = DP\",\r\n      \"order\": 1,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37\": {\r\n      \"title\": \"Adresse de correspondance \",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 0,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"\",\r\n      \"xpath\": \"C37\",\r\n      \"business_type\": \"\",\r\n      \"oneOf\": [\r\n        {\r\n          \"enum\": [\r\n            \"DP\"\r\n          ],\r\n          \"description\": \"Domicile personnel\"\r\n        },\r\n        {\r\n          \"enum\": [\r\n            \"AP\"\r\n          ],\r\n          \"description\": \"Adresse Professionnelle\"\r\n        },\r\n        {\r\n          \"enum\": [\r\n            \"AU\"\r\n          ],\r\n          \"description\": \"Autre\"\r\n        }\r\n      ],\r\n      \"condition\": \"\",\r\n      \"order\": 0,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_5\": {\r\n      \"title\": \"Num\u00E9ro dans la voie\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 9,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\d\\\\sAa\u00E0\\\\-]*\",\r\n      \"xpath\": \"C37_5\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 2,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C39_3\": {\r\n      \"title\": \"Adresse mel pour rel. Admin\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 80,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\p{L}\\\\p{N}_\\\\-]+(\\\\.[\\\\p{L}\\\\p{N}_\\\\-]+)*@[\\\\p{L}\\\\p{N}_\\\\-]+(\\\\.[\\\\p{L}\\\\p{N}_\\\\-]+)+\",\r\n      \"xpath\": \"C39_3\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = DP\",\r\n      \"order\": 2,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C36\": {\r\n      \"title\": \"Destinataire\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 100,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}\u20AC@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\r\n      \"xpath\": \"C36\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 0,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_6\": {\r\n      \"title\": \"Indice de r\u00E9p\u00E9tition\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 1,\r\n      \"minLength\": 1,\r\n      \"pattern\": \"\\\\p{L}\",\r\n      \"xpath\": \"C37_6\",\r\n      \"oneOf\": [\r\n        {\r\n          \"enum\": [\r\n            \"B\"\r\n          ],\r\n          \"description\": \"bis\"\r\n        },\r\n        {\r\n          \"enum\": [\r\n            \"T\"\r\n          ],\r\n          \"description\": \"ter\"\r\n        },\r\n        {\r\n          \"enum\": [\r\n            \"Q\"\r\n          ],\r\n          \"description\": \"quater\"\r\n        },\r\n        {\r\n          \"enum\": [\r\n            \"C\"\r\n          ],\r\n          \"description\": \"quinquies\"\r\n        }\r\n      ],\r\n      \"business_type\": \"INDICE_REPETITION\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 3,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C39\": {\r\n      \"title\": \"Num\u00E9ro de t\u00E9l\u00E9phone pour les relations administratives\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 0,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"\",\r\n      \"xpath\": \"C39\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"\",\r\n      \"order\": 0,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_13\": {\r\n      \"title\": \"Libell\u00E9 de commune\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 32,\r\n      \"minLength\": 1,\r\n      \"pattern\": \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}\u20AC@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\r\n      \"xpath\": \"C37_13\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 10,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_12\": {\r\n      \"title\": \"Libell\u00E9 de voie ou de lieu-dit\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 32,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}\u20AC@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\r\n      \"xpath\": \"C37_12\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 9,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_14\": {\r\n      \"title\": \"Libell\u00E9 de pays\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 38,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}\u20AC@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\r\n      \"xpath\": \"C37_14\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"\",\r\n      \"order\": 11,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_7\": {\r\n      \"title\": \"Distribution sp\u00E9ciale\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 8,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}\u20AC@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\r\n      \"xpath\": \"C37_7\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 4,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_8\": {\r\n      \"title\": \"Code postal\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 9,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}\u20AC@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\r\n      \"xpath\": \"C37_8\",\r\n      \"business_type\": \"CODE_POSTAL\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 5,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_11\": {\r\n      \"title\": \"Type de voie\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 4,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}\u20AC@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\r\n      \"xpath\": \"C37_11\",\r\n      \"oneOf\": [\r\n        {\r\n          \"enum\": [\r\n            \"R\"\r\n          ],\r\n          \"description\": \"Rue\"\r\n        },\r\n        {\r\n          \"enum\": [\r\n            \"A\"\r\n          ],\r\n          \"description\": \"Avenue\"\r\n        },\r\n        {\r\n          \"enum\": [\r\n            \"B\"\r\n          ],\r\n          \"description\": \"Boulvard\"\r\n        }\r\n      ],\r\n      \"business_type\": \"ABREVIATION_ADMISE\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 8,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_9\": {\r\n      \"title\": \"Libell\u00E9 de localit\u00E9 ou de bureau distributeur\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 32,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}\u20AC@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\r\n      \"xpath\": \"C37_9\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 6,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_10\": {\r\n      \"title\": \"Compl\u00E9ment de localisation\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": 1,\r\n      \"maxLength\": 38,\r\n      \"minLength\": 0,\r\n      \"pattern\": \"[\\\\p{L}\\\\d\\\\s\\\\.,\\\\[\\\\]\\\\{\\\\}\u20AC@#\\\\-\\\\(\\\\)/='\\\\+:\\\\?!\\\"%&\\\\*;<>]*\",\r\n      \"xpath\": \"C37_10\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"Si C37 = AU\",\r\n      \"order\": 7,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    },\r\n    \"C37_AUT\": {\r\n      \"title\": \"Autre adresse\",\r\n      \"type\": \"string\",\r\n      \"format\": null,\r\n      \"maxItems\": null,\r\n      \"maxLength\": null,\r\n      \"minLength\": null,\r\n      \"pattern\": \"\",\r\n      \"xpath\": \"C37_AUT\",\r\n      \"business_type\": \"\",\r\n      \"condition\": \"\",\r\n      \"order\": null,\r\n      \"read_only\": false,\r\n      \"show\": true\r\n    }\r\n  },\r\n  \"required\": [],\r\n  \"defaults\": null\r\n}";
-
-        JSONObject obj = new JSONObject(s);
-        return s;
+    public String getMetadataADF() {
+        return getSchemaContent("adf");
     }
-	
+
 	/**
      * POST  /metadata : Create a new metadata.
      */
@@ -580,4 +428,10 @@ public class MetadataResource {
         return ResponseEntity.ok()
             .body(metadataDTO);
     }
+
+    private String getSchemaContent(String name) {
+        return metadataSchemaRegistry.getSchema(name)
+            .map(MetadataSchema::getContent)
+            .orElseThrow(() -> new InternalServerErrorException("Metadata schema " + name + " could not be found"));
+    }
 }
@@ -1,8 +1,18 @@
 package com.acoss.webae.web.rest;
 
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.domain.Authority;
+import com.acoss.webae.domain.User;
+import com.acoss.webae.security.AuthoritySet;
+import com.acoss.webae.security.LoginThrottle;
+import com.acoss.webae.security.jwt.JWTAuthenticationToken;
 import com.acoss.webae.security.jwt.JWTConfigurer;
 import com.acoss.webae.security.jwt.TokenProvider;
+import com.acoss.webae.service.RefreshTokenService;
+import com.acoss.webae.service.TokenRevocationService;
+import com.acoss.webae.web.rest.errors.TooManyLoginAttemptsException;
 import com.acoss.webae.web.rest.vm.LoginVM;
+import com.acoss.webae.web.rest.vm.RefreshTokenVM;
 
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -11,12 +21,17 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.time.Instant;
+import java.util.stream.Collectors;
 
 /**
  * Controller to authenticate users.
@@ -29,25 +44,102 @@ public class UserJWTController {
 
     private final AuthenticationManager authenticationManager;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManager authenticationManager) {
+    private final TokenRevocationService tokenRevocationService;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final LoginThrottle loginThrottle;
+
+    private final long accessTokenValidityInMilliseconds;
+
+    public UserJWTController(TokenProvider tokenProvider, AuthenticationManager authenticationManager,
+            TokenRevocationService tokenRevocationService, RefreshTokenService refreshTokenService,
+            LoginThrottle loginThrottle, ApplicationProperties applicationProperties) {
         this.tokenProvider = tokenProvider;
         this.authenticationManager = authenticationManager;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.loginThrottle = loginThrottle;
+        this.accessTokenValidityInMilliseconds =
+            1000 * applicationProperties.getRefreshToken().getAccessTokenValidityInSeconds();
     }
 
     @PostMapping("/authenticate")
     @Timed
-    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM) {
+    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM, HttpServletRequest request) {
+        String ip = loginThrottle.getClientIp(request);
+        if (loginThrottle.isThrottled(loginVM.getUsername(), ip)) {
+            throw new TooManyLoginAttemptsException(loginThrottle.getRetryAfterSeconds());
+        }
 
         UsernamePasswordAuthenticationToken authenticationToken =
             new UsernamePasswordAuthenticationToken(loginVM.getUsername(), loginVM.getPassword());
 
-        Authentication authentication = this.authenticationManager.authenticate(authenticationToken);
+        Authentication authentication;
+        try {
+            authentication = this.authenticationManager.authenticate(authenticationToken);
+        } catch (AuthenticationException e) {
+            loginThrottle.recordFailure(loginVM.getUsername(), ip);
+            throw e;
+        }
         SecurityContextHolder.getContext().setAuthentication(authentication);
         boolean rememberMe = (loginVM.isRememberMe() == null) ? false : loginVM.isRememberMe();
-        String jwt = tokenProvider.createToken(authentication, rememberMe);
+        String refreshToken = refreshTokenService.createToken(authentication.getName(), rememberMe).orElse(null);
+        return tokenResponse(tokenProvider.createToken(authentication, accessTokenValidityInMilliseconds), refreshToken);
+    }
+
+    /**
+     * POST  /authenticate/refresh : exchange a refresh token for a new access token and a new refresh token, without
+     * checking the password again.
+     *
+     * @param refreshTokenVM the refresh token, which can only be used once
+     * @return the ResponseEntity with status 200 (OK) and the tokens in body, or with status 401 (Unauthorized) if
+     * the refresh token is not valid, has expired or has already been used
+     */
+    @PostMapping("/authenticate/refresh")
+    @Timed
+    public ResponseEntity<JWTToken> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotateToken(refreshTokenVM.getRefreshToken())
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        User user = rotation.getUser();
+        AuthoritySet authorities = AuthoritySet.of(user.getAuthorities().stream()
+            .map(Authority::getName)
+            .sorted()
+            .collect(Collectors.toList()));
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user.getLogin(), null, authorities);
+        return tokenResponse(tokenProvider.createToken(authentication, accessTokenValidityInMilliseconds),
+            rotation.getToken());
+    }
+
+    /**
+     * POST  /logout : revoke the token of the current request, and delete the refresh token if one is sent.
+     *
+     * @param refreshTokenVM the refresh token of the session, optional
+     * @return the ResponseEntity with status 200 (OK)
+     */
+    @PostMapping("/logout")
+    @Timed
+    public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshTokenVM refreshTokenVM) {
+        if (refreshTokenVM != null && refreshTokenVM.getRefreshToken() != null) {
+            refreshTokenService.deleteToken(refreshTokenVM.getRefreshToken());
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JWTAuthenticationToken) {
+            JWTAuthenticationToken token = (JWTAuthenticationToken) authentication;
+            if (token.getTokenId() != null) {
+                tokenRevocationService.revokeToken(token.getTokenId(), Instant.ofEpochMilli(token.getExpiration()));
+            } else {
+                // The tokens created before the "jti" claim can only be revoked with all the tokens of their user
+                tokenRevocationService.revokeAllTokens(token.getName());
+            }
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private static ResponseEntity<JWTToken> tokenResponse(String jwt, String refreshToken) {
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add(JWTConfigurer.AUTHORIZATION_HEADER, "Bearer " + jwt);
-        return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+        return new ResponseEntity<>(new JWTToken(jwt, refreshToken), httpHeaders, HttpStatus.OK);
     }
 
     /**
@@ -57,8 +149,11 @@ public class UserJWTController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -69,5 +164,14 @@ public class UserJWTController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
@@ -12,6 +12,7 @@ import com.acoss.webae.web.rest.errors.BadRequestAlertException;
 import com.acoss.webae.web.rest.errors.EmailAlreadyUsedException;
 import com.acoss.webae.web.rest.errors.LoginAlreadyUsedException;
 import com.acoss.webae.web.rest.util.HeaderUtil;
+import com.acoss.webae.web.rest.util.JsonArrayStreamer;
 import com.acoss.webae.web.rest.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 
@@ -23,9 +24,13 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
@@ -66,11 +71,15 @@ public class UserResource {
 
     private final MailService mailService;
 
-    public UserResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final JsonArrayStreamer jsonArrayStreamer;
+
+    public UserResource(UserRepository userRepository, UserService userService, MailService mailService,
+            JsonArrayStreamer jsonArrayStreamer) {
 
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.jsonArrayStreamer = jsonArrayStreamer;
     }
 
     /**
@@ -136,14 +145,46 @@ public class UserResource {
 
     /**
      * GET /users : get all users.
+     * <p>
+     * The users are written to the response as they are read from the database, so that a large page is never
+     * held in memory.
      *
      * @param pageable the pagination information
-     * @return the ResponseEntity with status 200 (OK) and with body all users
+     * @param request the request, whose Accept header selects the format
+     * @param response the response, with status 200 (OK) and with body all users
+     * @throws IOException if the response cannot be written to
+     * @throws HttpMediaTypeNotAcceptableException if no supported format is accepted
      */
     @GetMapping("/users")
     @Timed
-    public ResponseEntity<List<UserDTO>> getAllUsers(Pageable pageable) {
-        final Page<UserDTO> page = userService.getAllManagedUsers(pageable);
+    public void getAllUsers(Pageable pageable, HttpServletRequest request, HttpServletResponse response)
+            throws IOException, HttpMediaTypeNotAcceptableException {
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(pageable, userService.countManagedUsers(), "/api/users");
+        JsonArrayStreamer.ArrayWriter<UserDTO> writer = jsonArrayStreamer.open(request, response, headers, UserDTO.class);
+        userService.forEachManagedUser(pageable, writer::write);
+        writer.finish();
+    }
+
+    /**
+     * GET /users?fields=login,email : get all users, with only the given fields.
+     * <p>
+     * Only the selected columns are read from the database and serialized.
+     *
+     * @param fields the fields to return, among {@link UserService#USER_FIELDS}
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and with body all users,
+     * or with status 400 (Bad Request) if a field is not supported
+     */
+    @GetMapping(value = "/users", params = "fields")
+    @Timed
+    public ResponseEntity<List<Map<String, Object>>> getAllUsers(@RequestParam("fields") List<String> fields,
+            Pageable pageable) {
+        log.debug("REST request to get all Users with fields : {}", fields);
+        if (!UserService.USER_FIELDS.supports(fields)) {
+            throw new BadRequestAlertException("The fields must be some of " + UserService.USER_FIELDS.getFieldNames(),
+                "userManagement", "invalidfields");
+        }
+        final Page<Map<String, Object>> page = userService.getAllManagedUsers(fields, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/users");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
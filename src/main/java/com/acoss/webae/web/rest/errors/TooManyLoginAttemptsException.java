@@ -0,0 +1,19 @@
+package com.acoss.webae.web.rest.errors;
+
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+public class TooManyLoginAttemptsException extends AbstractThrowableProblem {
+
+    private final long retryAfterSeconds;
+
+    public TooManyLoginAttemptsException(long retryAfterSeconds) {
+        super(ErrorConstants.TOO_MANY_LOGIN_ATTEMPTS_TYPE, "Too many failed login attempts, retry later",
+            Status.TOO_MANY_REQUESTS);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,42 @@
+package com.acoss.webae.web.rest.util;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Executes the processing of requests on a bounded executor, with a timeout, so that the thread of the server is
+ * released while the request is processed.
+ * <p>
+ * When the executor is full, the request is rejected with a 503, by the
+ * {@link com.acoss.webae.web.rest.errors.ExceptionTranslator}.
+ */
+public class AsyncRequestExecutor {
+
+    private final AsyncTaskExecutor executor;
+
+    private final long timeoutMillis;
+
+    public AsyncRequestExecutor(AsyncTaskExecutor executor, long timeoutMillis) {
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @param callable the processing of the request
+     * @param <T> the type of the result
+     * @return the task to return from the controller method
+     */
+    public <T> WebAsyncTask<T> submit(Callable<T> callable) {
+        return new WebAsyncTask<>(timeoutMillis, executor, callable);
+    }
+
+    public AsyncTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,111 @@
+package com.acoss.webae.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonInputMessage;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.TypeUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JSON message converter which keeps one {@link ObjectWriter} and one {@link ObjectReader} per type.
+ * <p>
+ * A writer or reader created for a type resolves its root serializer or deserializer once, instead of looking it up
+ * on every request. Values with a serialization view or filters, and server-sent events, are handled by the default
+ * implementation.
+ */
+public class CachingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final Map<Object, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    private final Map<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public CachingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        super.setObjectMapper(objectMapper);
+        // The caches are not created yet when the super constructor sets the object mapper
+        if (writers != null) {
+            writers.clear();
+            readers.clear();
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        if (hasDeserializationView(inputMessage)) {
+            return super.read(type, contextClass, inputMessage);
+        }
+        return readJavaType(getJavaType(type, contextClass), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        if (hasDeserializationView(inputMessage)) {
+            return super.readInternal(clazz, inputMessage);
+        }
+        return readJavaType(getJavaType(clazz, null), inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        if (object == null || object instanceof MappingJacksonValue ||
+                (contentType != null && contentType.includes(MediaType.TEXT_EVENT_STREAM))) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        JavaType javaType = null;
+        if (type != null && TypeUtils.isAssignable(type, object.getClass())) {
+            javaType = getJavaType(type, null);
+        }
+        // As in the default implementation, only container types are written with their declared type
+        ObjectWriter objectWriter = javaType != null && javaType.isContainerType() ?
+            writers.computeIfAbsent(javaType, key -> objectMapper.writerFor((JavaType) key)) :
+            writers.computeIfAbsent(object.getClass(), key -> objectMapper.writerFor((Class<?>) key));
+
+        JsonEncoding encoding = getJsonEncoding(contentType);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputMessage.getBody(), encoding);
+        try {
+            writePrefix(generator, object);
+            objectWriter.writeValue(generator, object);
+            writeSuffix(generator, object);
+            generator.flush();
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getOriginalMessage(), ex);
+        }
+    }
+
+    private Object readJavaType(JavaType javaType, HttpInputMessage inputMessage) {
+        try {
+            return readers.computeIfAbsent(javaType, objectMapper::readerFor).readValue(inputMessage.getBody());
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getOriginalMessage(), ex);
+        } catch (IOException ex) {
+            throw new HttpMessageNotReadableException("I/O error while reading input message", ex);
+        }
+    }
+
+    private static boolean hasDeserializationView(HttpInputMessage inputMessage) {
+        return inputMessage instanceof MappingJacksonInputMessage &&
+            ((MappingJacksonInputMessage) inputMessage).getDeserializationView() != null;
+    }
+}
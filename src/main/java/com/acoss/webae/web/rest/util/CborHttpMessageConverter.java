@@ -0,0 +1,24 @@
+package com.acoss.webae.web.rest.util;
+
+import com.acoss.webae.config.BinaryMediaTypes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+
+/**
+ * Reads and writes the CBOR binary format (RFC 7049), for the "application/cbor" media type.
+ */
+public class CborHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    /**
+     * @param objectMapper the object mapper to use, which must be built on a {@link CBORFactory}
+     */
+    public CborHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper, BinaryMediaTypes.APPLICATION_CBOR);
+        Assert.isInstanceOf(CBORFactory.class, objectMapper.getFactory(), "A CBORFactory is required");
+        // A binary format has no charset
+        setDefaultCharset(null);
+    }
+}
@@ -0,0 +1,129 @@
+package com.acoss.webae.web.rest.util;
+
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.config.BinaryFormatConfiguration;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes a JSON array to the response one element at a time, so that a list response is never held in memory.
+ * <p>
+ * The response is flushed every "application.streaming.flush-size" elements. The format is negotiated with the
+ * Accept header of the request, as for the other responses: JSON by default, or Smile or CBOR.
+ */
+@Component
+public class JsonArrayStreamer {
+
+    private final List<AbstractJackson2HttpMessageConverter> converters = new ArrayList<>();
+
+    private final int flushSize;
+
+    public JsonArrayStreamer(MappingJackson2HttpMessageConverter jsonMessageConverter,
+            BinaryFormatConfiguration binaryFormatConfiguration, ApplicationProperties applicationProperties) {
+        this.converters.add(jsonMessageConverter);
+        this.converters.addAll(binaryFormatConfiguration.getBinaryMessageConverters());
+        this.flushSize = applicationProperties.getStreaming().getFlushSize();
+    }
+
+    /**
+     * Start a 200 (OK) response with the given headers, and open its array.
+     *
+     * @param request the request, whose Accept header selects the format
+     * @param response the response to write to
+     * @param headers the headers of the response
+     * @param elementType the type of the elements of the array
+     * @param <T> the type of the elements of the array
+     * @return the writer of the elements, which must be finished to end the array
+     * @throws HttpMediaTypeNotAcceptableException if no supported format is accepted
+     * @throws IOException if the response cannot be written to
+     */
+    public <T> ArrayWriter<T> open(HttpServletRequest request, HttpServletResponse response, HttpHeaders headers,
+            Class<T> elementType) throws HttpMediaTypeNotAcceptableException, IOException {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        List<MediaType> acceptedTypes = accept == null ? Collections.singletonList(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        for (MediaType acceptedType : acceptedTypes) {
+            for (AbstractJackson2HttpMessageConverter converter : converters) {
+                for (MediaType supportedType : converter.getSupportedMediaTypes()) {
+                    if (acceptedType.isCompatibleWith(supportedType) && !supportedType.isWildcardSubtype()) {
+                        return new ArrayWriter<>(converter, supportedType, response, headers, elementType);
+                    }
+                }
+            }
+        }
+        List<MediaType> supportedTypes = new ArrayList<>();
+        converters.forEach(converter -> supportedTypes.addAll(converter.getSupportedMediaTypes()));
+        throw new HttpMediaTypeNotAcceptableException(supportedTypes);
+    }
+
+    /**
+     * Writes the elements of an array to the response.
+     * <p>
+     * If the elements cannot all be written, the writer must not be finished, so that the client gets an incomplete
+     * document rather than a shorter array.
+     *
+     * @param <T> the type of the elements
+     */
+    public final class ArrayWriter<T> {
+
+        private final ObjectWriter writer;
+
+        private final JsonGenerator generator;
+
+        private long count;
+
+        private ArrayWriter(AbstractJackson2HttpMessageConverter converter, MediaType mediaType,
+                HttpServletResponse response, HttpHeaders headers, Class<T> elementType) throws IOException {
+            this.writer = converter.getObjectMapper().writerFor(elementType)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            response.setStatus(HttpStatus.OK.value());
+            headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            MediaType contentType = mediaType;
+            if (MediaType.APPLICATION_JSON.includes(mediaType)) {
+                contentType = MediaType.APPLICATION_JSON_UTF8;
+            }
+            response.setContentType(contentType.toString());
+            this.generator = writer.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.writeStartArray();
+        }
+
+        /**
+         * @param element the next element of the array
+         * @throws IOException if the response cannot be written to
+         */
+        public void write(T element) throws IOException {
+            writer.writeValue(generator, element);
+            if (++count % flushSize == 0) {
+                generator.flush();
+            }
+        }
+
+        /**
+         * End the array, and flush the response.
+         *
+         * @throws IOException if the response cannot be written to
+         */
+        public void finish() throws IOException {
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.acoss.webae.web.rest.util;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Collections;
+
 /**
  * Utility class for handling pagination.
  *
@@ -39,6 +44,39 @@ public final class PaginationUtil {
         return headers;
     }
 
+    /**
+     * Generate the pagination headers of a page whose content is not loaded, for instance because it is streamed.
+     *
+     * @param pageable the pagination information
+     * @param total the total number of elements
+     * @param baseUrl the URL of the resource
+     * @return the headers
+     */
+    public static HttpHeaders generatePaginationHttpHeaders(Pageable pageable, long total, String baseUrl) {
+        return generatePaginationHttpHeaders(new PageImpl<>(Collections.emptyList(), pageable, total), baseUrl);
+    }
+
+    /**
+     * Generate the Link header of a keyset-paginated slice, where the next slice is requested with the key of the
+     * last element of the current one.
+     *
+     * @param slice the current slice
+     * @param lastKey the key of the last element of the current slice
+     * @param baseUrl the URL of the resource
+     * @return the headers, with a "next" link if there is a next slice
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(Slice slice, Object lastKey, String baseUrl) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            String uri = UriComponentsBuilder.fromUriString(baseUrl)
+                .queryParam("after", lastKey)
+                .queryParam("limit", slice.getSize())
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + uri + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
     private static String generateUri(String baseUrl, int page, int size) {
         return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
     }
@@ -0,0 +1,24 @@
+package com.acoss.webae.web.rest.util;
+
+import com.acoss.webae.config.BinaryMediaTypes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+
+/**
+ * Reads and writes the Jackson Smile binary JSON format, for the "application/x-jackson-smile" media type.
+ */
+public class SmileHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    /**
+     * @param objectMapper the object mapper to use, which must be built on a {@link SmileFactory}
+     */
+    public SmileHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper, BinaryMediaTypes.APPLICATION_SMILE);
+        Assert.isInstanceOf(SmileFactory.class, objectMapper.getFactory(), "A SmileFactory is required");
+        // A binary format has no charset
+        setDefaultCharset(null);
+    }
+}
@@ -0,0 +1,148 @@
+package com.acoss.webae.aop.coalescing;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for the SingleFlight class.
+ *
+ * @see SingleFlight
+ */
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private MetricRegistry metricRegistry;
+
+    private SingleFlight<String, String> singleFlight;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        metricRegistry = new MetricRegistry();
+        singleFlight = new SingleFlight<>(metricRegistry, "test", 5000);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentCallsAreCoalesced() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> execute("key", () -> {
+                executions.incrementAndGet();
+                release.await();
+                return "value";
+            })));
+        }
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(metricRegistry.meter("test.executed").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.meter("test.coalesced").getCount()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    public void testExceptionIsShared() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> execute("key", () -> {
+            release.await();
+            throw new IllegalStateException("failure");
+        }));
+        awaitExecuted(1);
+        Future<String> second = executor.submit(() -> execute("key", () -> "value"));
+        awaitCoalesced(1);
+        release.countDown();
+
+        for (Future<String> result : new Future[]{first, second}) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail("The call should have failed");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(IllegalStateException.class).hasMessage("failure");
+            }
+        }
+    }
+
+    @Test
+    public void testWaitIsBounded() throws Throwable {
+        singleFlight = new SingleFlight<>(metricRegistry, "test", 50);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> execute("key", () -> {
+            release.await();
+            return "value";
+        }));
+        awaitExecuted(1);
+
+        try {
+            singleFlight.execute("key", () -> "other");
+            fail("The call should have been rejected");
+        } catch (TaskRejectedException e) {
+            assertThat(metricRegistry.meter("test.timeouts").getCount()).isEqualTo(1);
+        }
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+    }
+
+    @Test
+    public void testSequentialAndDifferentCallsAreExecuted() throws Throwable {
+        assertThat(singleFlight.execute("a", () -> "1")).isEqualTo("1");
+        assertThat(singleFlight.execute("a", () -> "2")).isEqualTo("2");
+        assertThat(singleFlight.execute("b", () -> "3")).isEqualTo("3");
+        assertThat(metricRegistry.meter("test.executed").getCount()).isEqualTo(3);
+        assertThat(metricRegistry.meter("test.coalesced").getCount()).isEqualTo(0);
+    }
+
+    private String execute(String key, SingleFlight.Call<String> call) throws Exception {
+        try {
+            return singleFlight.execute(key, call);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private void awaitExecuted(long count) throws InterruptedException {
+        await("test.executed", count);
+    }
+
+    private void awaitCoalesced(long count) throws InterruptedException {
+        await("test.coalesced", count);
+    }
+
+    private void await(String meter, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (metricRegistry.meter(meter).getCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(metricRegistry.meter(meter).getCount()).isEqualTo(count);
+    }
+}
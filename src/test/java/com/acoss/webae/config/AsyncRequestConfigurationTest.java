@@ -0,0 +1,87 @@
+package com.acoss.webae.config;
+
+import com.acoss.webae.web.rest.util.AsyncRequestExecutor;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for the executors created by the AsyncRequestConfiguration class.
+ *
+ * @see AsyncRequestConfiguration
+ */
+public class AsyncRequestConfigurationTest {
+
+    private MetricRegistry metricRegistry;
+
+    private AsyncRequestExecutor registrationExecutor;
+
+    @Before
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.AsyncRequests.Executor registration =
+            applicationProperties.getAsyncRequests().getRegistration();
+        registration.setCorePoolSize(1);
+        registration.setMaxPoolSize(1);
+        registration.setQueueCapacity(1);
+        registration.setTimeoutSeconds(7);
+        metricRegistry = new MetricRegistry();
+        registrationExecutor = new AsyncRequestConfiguration(applicationProperties, metricRegistry)
+            .registrationExecutor();
+    }
+
+    @Test
+    public void testTimeout() {
+        assertThat(registrationExecutor.getTimeoutMillis()).isEqualTo(7000);
+        assertThat(registrationExecutor.submit(() -> "registered").getTimeout()).isEqualTo(7000);
+    }
+
+    @Test
+    public void testFullExecutorRejectsAndMeasures() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> running = registrationExecutor.getExecutor().submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<?> queued = registrationExecutor.getExecutor().submit(() -> null);
+
+        assertThat(gauge("async-requests.registration.active-threads")).isEqualTo(1);
+        assertThat(gauge("async-requests.registration.queue-size")).isEqualTo(1);
+        try {
+            registrationExecutor.getExecutor().submit(() -> null);
+            fail("The third task should be rejected");
+        } catch (TaskRejectedException e) {
+            assertThat(metricRegistry.meter("async-requests.registration.rejected").getCount()).isEqualTo(1);
+        }
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        // The execution is measured after the future is done
+        ThreadPoolExecutor threadPoolExecutor =
+            ((ThreadPoolTaskExecutor) registrationExecutor.getExecutor()).getThreadPoolExecutor();
+        threadPoolExecutor.shutdown();
+        assertThat(threadPoolExecutor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(metricRegistry.timer("async-requests.registration.queue-wait").getCount()).isEqualTo(2);
+        assertThat(metricRegistry.timer("async-requests.registration.execution").getCount()).isEqualTo(2);
+    }
+
+    private Object gauge(String name) {
+        return ((Gauge<?>) metricRegistry.getGauges().get(name)).getValue();
+    }
+}
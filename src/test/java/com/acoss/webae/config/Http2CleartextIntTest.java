@@ -0,0 +1,200 @@
+package com.acoss.webae.config;
+
+import io.github.jhipster.config.JHipsterProperties;
+import io.undertow.client.ClientCallback;
+import io.undertow.client.ClientConnection;
+import io.undertow.client.ClientExchange;
+import io.undertow.client.ClientRequest;
+import io.undertow.client.UndertowClient;
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.server.DefaultByteBufferPool;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import io.undertow.util.Protocols;
+import io.undertow.util.StringReadChannelListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.context.embedded.EmbeddedServletContainer;
+import org.springframework.boot.context.embedded.undertow.UndertowEmbeddedServletContainerFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.xnio.ChannelListeners;
+import org.xnio.IoUtils;
+import org.xnio.OptionMap;
+import org.xnio.Options;
+import org.xnio.Xnio;
+import org.xnio.XnioWorker;
+import org.xnio.channels.StreamSinkChannel;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test of the cleartext HTTP/2 (h2c) mode of Undertow.
+ * <p>
+ * An Undertow container customized by the {@link WebConfigurer} serves a servlet which only answers once all
+ * the requests have arrived, and a local HTTP/2 client sends them with prior knowledge on a single connection: they
+ * can only all succeed if they are multiplexed.
+ *
+ * @see WebConfigurer
+ */
+public class Http2CleartextIntTest {
+
+    private static final int CONCURRENT_REQUESTS = 10;
+
+    private final CountDownLatch arrivedRequests = new CountDownLatch(CONCURRENT_REQUESTS);
+
+    private EmbeddedServletContainer container;
+
+    private int port;
+
+    private XnioWorker worker;
+
+    private ByteBufferPool bufferPool;
+
+    private ClientConnection connection;
+
+    @Before
+    public void setup() throws Exception {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getHttp2().setCleartext(true);
+        applicationProperties.getHttp2().setMaxConcurrentStreams(CONCURRENT_REQUESTS);
+        WebConfigurer webConfigurer = new WebConfigurer(new MockEnvironment(), new JHipsterProperties(),
+            applicationProperties);
+        UndertowEmbeddedServletContainerFactory factory = new UndertowEmbeddedServletContainerFactory(0);
+        webConfigurer.customize(factory);
+        container = factory.getEmbeddedServletContainer(servletContext ->
+            servletContext.addServlet("together", new TogetherServlet()).addMapping("/together"));
+        container.start();
+        port = container.getPort();
+
+        worker = Xnio.getInstance().createWorker(OptionMap.create(Options.WORKER_IO_THREADS, 2));
+        bufferPool = new DefaultByteBufferPool(false, 8192);
+        connection = UndertowClient.getInstance()
+            .connect(new URI("h2c-prior://localhost:" + port), worker, bufferPool, OptionMap.EMPTY)
+            .get();
+    }
+
+    @After
+    public void tearDown() {
+        IoUtils.safeClose(connection);
+        worker.shutdownNow();
+        bufferPool.close();
+        container.stop();
+    }
+
+    @Test
+    public void testConcurrentRequestsAreMultiplexed() throws Exception {
+        assertThat(connection.isMultiplexingSupported()).isTrue();
+        List<Integer> statusCodes = new CopyOnWriteArrayList<>();
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(CONCURRENT_REQUESTS);
+
+        // All the requests are sent before any response is read, on the same connection
+        connection.getIoThread().execute(() -> {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                ClientRequest request = new ClientRequest().setMethod(Methods.GET).setPath("/together");
+                request.getRequestHeaders().put(Headers.HOST, "localhost:" + port);
+                connection.sendRequest(request, new ResponseCallback(statusCodes, bodies, failures, latch));
+            }
+        });
+
+        assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(failures).isEmpty();
+        assertThat(statusCodes).hasSize(CONCURRENT_REQUESTS).containsOnly(200);
+        assertThat(bodies).hasSize(CONCURRENT_REQUESTS).containsOnly("together");
+        assertThat(connection.isOpen()).isTrue();
+    }
+
+    private final class TogetherServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            arrivedRequests.countDown();
+            try {
+                response.getWriter().write(arrivedRequests.await(10, TimeUnit.SECONDS) ? "together" : "alone");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+        }
+    }
+
+    private static final class ResponseCallback implements ClientCallback<ClientExchange> {
+
+        private final List<Integer> statusCodes;
+
+        private final List<String> bodies;
+
+        private final List<Throwable> failures;
+
+        private final CountDownLatch latch;
+
+        private ResponseCallback(List<Integer> statusCodes, List<String> bodies, List<Throwable> failures,
+                CountDownLatch latch) {
+            this.statusCodes = statusCodes;
+            this.bodies = bodies;
+            this.failures = failures;
+            this.latch = latch;
+        }
+
+        @Override
+        public void completed(ClientExchange exchange) {
+            exchange.setResponseListener(new ClientCallback<ClientExchange>() {
+                @Override
+                public void completed(ClientExchange result) {
+                    if (Protocols.HTTP_2_0.equals(result.getResponse().getProtocol())) {
+                        statusCodes.add(result.getResponse().getResponseCode());
+                    } else {
+                        failures.add(new IllegalStateException("Unexpected protocol " + result.getResponse().getProtocol()));
+                    }
+                    new StringReadChannelListener(result.getConnection().getBufferPool()) {
+                        @Override
+                        protected void stringDone(String string) {
+                            bodies.add(string);
+                            latch.countDown();
+                        }
+
+                        @Override
+                        protected void error(IOException e) {
+                            failed(e);
+                        }
+                    }.setup(result.getResponseChannel());
+                }
+
+                @Override
+                public void failed(IOException e) {
+                    ResponseCallback.this.failed(e);
+                }
+            });
+            try {
+                StreamSinkChannel requestChannel = exchange.getRequestChannel();
+                requestChannel.shutdownWrites();
+                if (!requestChannel.flush()) {
+                    requestChannel.getWriteSetter().set(ChannelListeners.flushingChannelListener(null, null));
+                    requestChannel.resumeWrites();
+                }
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+
+        @Override
+        public void failed(IOException e) {
+            failures.add(e);
+            latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.acoss.webae.config;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the JCacheStatisticsGaugeSet class.
+ *
+ * @see JCacheStatisticsGaugeSet
+ */
+public class JCacheStatisticsGaugeSetTest {
+
+    private CacheManager cacheManager;
+
+    private Cache<String, String> cache;
+
+    @Before
+    public void setup() {
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        cache = cacheManager.createCache(JCacheStatisticsGaugeSetTest.class.getName() + ".entries",
+            new MutableConfiguration<String, String>().setTypes(String.class, String.class));
+        cacheManager.enableStatistics(cache.getName(), true);
+    }
+
+    @After
+    public void teardown() {
+        cacheManager.destroyCache(cache.getName());
+    }
+
+    @Test
+    public void testStatisticsAreExported() {
+        Map<String, Metric> metrics = new JCacheStatisticsGaugeSet(cacheManager, cache.getName()).getMetrics();
+        assertThat(value(metrics, "hit-ratio")).isEqualTo(Double.NaN);
+
+        cache.put("key", "value");
+        cache.get("key");
+        cache.get("key");
+        cache.get("key");
+        cache.get("missing");
+
+        assertThat(value(metrics, "puts")).isEqualTo(1L);
+        assertThat(value(metrics, "hits")).isEqualTo(3L);
+        assertThat(value(metrics, "misses")).isEqualTo(1L);
+        assertThat(value(metrics, "hit-ratio")).isEqualTo(0.75);
+    }
+
+    private static Object value(Map<String, Metric> metrics, String name) {
+        return ((Gauge<?>) metrics.get(name)).getValue();
+    }
+}
@@ -0,0 +1,92 @@
+package com.acoss.webae.config;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import io.github.jhipster.config.JHipsterProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.context.embedded.EmbeddedServletContainer;
+import org.springframework.boot.context.embedded.undertow.UndertowEmbeddedServletContainerFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the UndertowGaugeSet class, installed in an Undertow container by the {@link WebConfigurer}.
+ *
+ * @see UndertowGaugeSet
+ */
+public class UndertowGaugeSetTest {
+
+    private UndertowGaugeSet undertowGaugeSet;
+
+    private Map<String, Metric> gauges;
+
+    private EmbeddedServletContainer container;
+
+    @Before
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getUndertow().setIoThreads(2);
+        applicationProperties.getUndertow().setWorkerThreads(4);
+        applicationProperties.getUndertow().setBufferSize(2048);
+        undertowGaugeSet = new UndertowGaugeSet();
+        gauges = undertowGaugeSet.getMetrics();
+        WebConfigurer webConfigurer = new WebConfigurer(new MockEnvironment(), new JHipsterProperties(),
+            applicationProperties);
+        webConfigurer.setUndertowGaugeSet(undertowGaugeSet);
+        UndertowEmbeddedServletContainerFactory factory = new UndertowEmbeddedServletContainerFactory(0);
+        webConfigurer.customize(factory);
+        container = factory.getEmbeddedServletContainer(servletContext ->
+            servletContext.addServlet("gauges", new GaugesServlet()).addMapping("/gauges"));
+    }
+
+    @After
+    public void teardown() {
+        container.stop();
+    }
+
+    @Test
+    public void testGaugesBeforeStart() {
+        assertThat(gauge("worker.active-requests")).isEqualTo(0);
+        assertThat(gauge("buffer-pool.in-use")).isEqualTo(0);
+        assertThat(gauge("buffer-pool.buffer-size")).isEqualTo(2048);
+    }
+
+    @Test
+    public void testGaugesWhileServingRequest() {
+        container.start();
+
+        String duringRequest = new RestTemplate()
+            .getForObject("http://localhost:" + container.getPort() + "/gauges", String.class);
+
+        assertThat(duringRequest).isEqualTo("io-threads=2,max-threads=4,queue-size=0,active-requests=1,buffer-size=2048");
+        assertThat(gauge("worker.active-requests")).isEqualTo(0);
+    }
+
+    private Object gauge(String name) {
+        return ((Gauge<?>) gauges.get(name)).getValue();
+    }
+
+    private final class GaugesServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.getWriter().write("io-threads=" + gauge("worker.io-threads") +
+                ",max-threads=" + gauge("worker.max-threads") +
+                ",queue-size=" + gauge("worker.queue-size") +
+                ",active-requests=" + gauge("worker.active-requests") +
+                ",buffer-size=" + gauge("buffer-pool.buffer-size"));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.acoss.webae.config;
+
+import io.github.jhipster.config.JHipsterProperties;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.embedded.EmbeddedServletContainer;
+import org.springframework.boot.context.embedded.undertow.UndertowEmbeddedServletContainerFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of the number of blocked requests an Undertow container customized by the {@link WebConfigurer} holds
+ * at the same time, with and without virtual threads.
+ * <p>
+ * A servlet blocks each request until all the requests are sent, like a request waiting for the database. With the
+ * worker pool, only as many requests as worker threads are held, the others wait in the queue; with virtual threads,
+ * all of them are. The virtual thread mode is only tested on a JDK which supports it.
+ *
+ * @see VirtualThreads
+ */
+public class VirtualThreadsIntTest {
+
+    private static final int WORKER_THREADS = 4;
+
+    private static final int CONCURRENT_REQUESTS = 64;
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadsIntTest.class);
+
+    private final AtomicInteger blockedRequests = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private EmbeddedServletContainer container;
+
+    private ExecutorService clients;
+
+    @Before
+    public void setup() {
+        clients = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+    }
+
+    @After
+    public void teardown() {
+        release.countDown();
+        clients.shutdownNow();
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Test
+    public void testWorkerPoolHoldsOneBlockedRequestPerThread() throws Exception {
+        startContainer(false);
+
+        List<Future<Integer>> responses = sendRequests();
+        awaitBlockedRequests(WORKER_THREADS);
+        // Give the queued requests the time to be dispatched, if they could be
+        Thread.sleep(500);
+        log.info("With the worker pool, {} requests are blocked at the same time", blockedRequests.get());
+        assertThat(blockedRequests.get()).isEqualTo(WORKER_THREADS);
+
+        release.countDown();
+        assertAllSucceed(responses);
+    }
+
+    @Test
+    public void testVirtualThreadsHoldAllBlockedRequests() throws Exception {
+        Assume.assumeTrue("Virtual threads are not supported by this JDK", VirtualThreads.isSupported());
+        startContainer(true);
+
+        List<Future<Integer>> responses = sendRequests();
+        awaitBlockedRequests(CONCURRENT_REQUESTS);
+        log.info("With virtual threads, {} requests are blocked at the same time", blockedRequests.get());
+        assertThat(blockedRequests.get()).isEqualTo(CONCURRENT_REQUESTS);
+
+        release.countDown();
+        assertAllSucceed(responses);
+    }
+
+    private void startContainer(boolean virtualThreads) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getUndertow().setIoThreads(1);
+        applicationProperties.getUndertow().setWorkerThreads(WORKER_THREADS);
+        applicationProperties.getVirtualThreads().setEnabled(virtualThreads);
+        UndertowEmbeddedServletContainerFactory factory = new UndertowEmbeddedServletContainerFactory(0);
+        new WebConfigurer(new MockEnvironment(), new JHipsterProperties(), applicationProperties).customize(factory);
+        container = factory.getEmbeddedServletContainer(servletContext ->
+            servletContext.addServlet("blocking", new BlockingServlet()).addMapping("/blocking"));
+        container.start();
+    }
+
+    private List<Future<Integer>> sendRequests() {
+        List<Future<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(clients.submit(() -> {
+                HttpURLConnection connection = (HttpURLConnection)
+                    new URL("http://localhost:" + container.getPort() + "/blocking").openConnection();
+                connection.setReadTimeout(30000);
+                try {
+                    return connection.getResponseCode();
+                } finally {
+                    connection.disconnect();
+                }
+            }));
+        }
+        return responses;
+    }
+
+    private void awaitBlockedRequests(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (blockedRequests.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void assertAllSucceed(List<Future<Integer>> responses) throws Exception {
+        for (Future<Integer> response : responses) {
+            assertThat(response.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+        }
+    }
+
+    private final class BlockingServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            blockedRequests.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.getWriter().write("released");
+        }
+    }
+}
@@ -8,6 +8,7 @@ import io.github.jhipster.config.JHipsterProperties;
 import io.undertow.Undertow;
 import io.undertow.Undertow.Builder;
 import io.undertow.UndertowOptions;
+import io.undertow.connector.ByteBufferPool;
 import org.apache.commons.io.FilenameUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -19,6 +20,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.xnio.OptionMap;
+import org.xnio.Options;
 
 import javax.servlet.*;
 import java.util.*;
@@ -47,6 +49,8 @@ public class WebConfigurerTest {
 
     private JHipsterProperties props;
 
+    private ApplicationProperties applicationProperties;
+
     private MetricRegistry metricRegistry;
 
     @Before
@@ -59,8 +63,9 @@ public class WebConfigurerTest {
 
         env = new MockEnvironment();
         props = new JHipsterProperties();
+        applicationProperties = new ApplicationProperties();
 
-        webConfigurer = new WebConfigurer(env, props);
+        webConfigurer = new WebConfigurer(env, props, applicationProperties);
         metricRegistry = new MetricRegistry();
         webConfigurer.setMetricRegistry(metricRegistry);
     }
@@ -113,6 +118,44 @@ public class WebConfigurerTest {
         assertThat(serverOptions.getMap().get(UndertowOptions.ENABLE_HTTP2)).isTrue();
     }
 
+    @Test
+    public void testUndertowHttp2CleartextEnabled() {
+        applicationProperties.getHttp2().setCleartext(true);
+        applicationProperties.getHttp2().setMaxConcurrentStreams(50);
+        applicationProperties.getHttp2().setInitialWindowSize(1048576);
+        applicationProperties.getHttp2().setHeaderTableSize(8192);
+        UndertowEmbeddedServletContainerFactory container = new UndertowEmbeddedServletContainerFactory();
+        webConfigurer.customize(container);
+        Builder builder = Undertow.builder();
+        container.getBuilderCustomizers().forEach(c -> c.customize(builder));
+        OptionMap.Builder serverOptions = (OptionMap.Builder) ReflectionTestUtils.getField(builder, "serverOptions");
+        OptionMap options = serverOptions.getMap();
+        assertThat(options.get(UndertowOptions.ENABLE_HTTP2)).isTrue();
+        assertThat(options.get(UndertowOptions.HTTP2_SETTINGS_MAX_CONCURRENT_STREAMS)).isEqualTo(50);
+        assertThat(options.get(UndertowOptions.HTTP2_SETTINGS_INITIAL_WINDOW_SIZE)).isEqualTo(1048576);
+        assertThat(options.get(UndertowOptions.HTTP2_SETTINGS_HEADER_TABLE_SIZE)).isEqualTo(8192);
+    }
+
+    @Test
+    public void testUndertowThreadsAndBuffers() {
+        applicationProperties.getUndertow().setIoThreads(3);
+        applicationProperties.getUndertow().setWorkerThreads(24);
+        applicationProperties.getUndertow().setBufferSize(4096);
+        applicationProperties.getUndertow().setDirectBuffers(false);
+        UndertowEmbeddedServletContainerFactory container = new UndertowEmbeddedServletContainerFactory();
+        webConfigurer.customize(container);
+        assertThat(ReflectionTestUtils.getField(container, "ioThreads")).isEqualTo(3);
+        assertThat(ReflectionTestUtils.getField(container, "workerThreads")).isEqualTo(24);
+        Builder builder = Undertow.builder();
+        container.getBuilderCustomizers().forEach(c -> c.customize(builder));
+        ByteBufferPool bufferPool = (ByteBufferPool) ReflectionTestUtils.getField(builder, "byteBufferPool");
+        assertThat(bufferPool.getBufferSize()).isEqualTo(4096);
+        assertThat(bufferPool.isDirect()).isFalse();
+        OptionMap.Builder workerOptions = (OptionMap.Builder) ReflectionTestUtils.getField(builder, "workerOptions");
+        assertThat(workerOptions.getMap().get(Options.WORKER_NAME)).isEqualTo(UndertowGaugeSet.WORKER_NAME);
+        assertThat(container.getDeploymentInfoCustomizers()).isEmpty();
+    }
+
     @Test
     public void testCorsFilterOnApiPath() throws Exception {
         props.getCors().setAllowedOrigins(Collections.singletonList("*"));
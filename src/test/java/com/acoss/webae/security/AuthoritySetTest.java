@@ -0,0 +1,64 @@
+package com.acoss.webae.security;
+
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the AuthoritySet class.
+ *
+ * @see AuthoritySet
+ */
+public class AuthoritySetTest {
+
+    @Test
+    public void testSetsAreInterned() {
+        AuthoritySet set = AuthoritySet.fromClaim(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER);
+
+        assertThat(AuthoritySet.fromClaim(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER)).isSameAs(set);
+        assertThat(AuthoritySet.of(Arrays.asList(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER))).isSameAs(set);
+        assertThat(set.getClaim()).isEqualTo(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER);
+        // The authorities are shared between the sets too
+        assertThat(AuthoritySet.fromClaim(AuthoritiesConstants.USER).iterator().next())
+            .isSameAs(set.stream().filter(a -> a.getAuthority().equals(AuthoritiesConstants.USER)).findFirst().get());
+    }
+
+    @Test
+    public void testHasAuthority() {
+        AuthoritySet set = AuthoritySet.fromClaim(AuthoritiesConstants.USER);
+
+        assertThat(set.hasAuthority(AuthoritiesConstants.USER)).isTrue();
+        assertThat(set.hasAuthority(AuthoritiesConstants.ADMIN)).isFalse();
+        assertThat(set.hasAuthority("ROLE_UNKNOWN")).isFalse();
+        assertThat(set.contains(new SimpleGrantedAuthority(AuthoritiesConstants.USER))).isTrue();
+        assertThat(set.contains(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN))).isFalse();
+        assertThat(set.contains(AuthoritiesConstants.USER)).isFalse();
+    }
+
+    @Test
+    public void testHasAuthorityOfOtherCollections() {
+        assertThat(AuthoritySet.hasAuthority(
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER)), AuthoritiesConstants.USER))
+            .isTrue();
+        assertThat(AuthoritySet.hasAuthority(Collections.<GrantedAuthority>emptyList(), AuthoritiesConstants.USER))
+            .isFalse();
+    }
+
+    @Test
+    public void testSetContent() {
+        AuthoritySet set = AuthoritySet.fromClaim(AuthoritiesConstants.USER + ",," + AuthoritiesConstants.USER +
+            "," + AuthoritiesConstants.ANONYMOUS);
+
+        assertThat(set).extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.USER, AuthoritiesConstants.ANONYMOUS);
+        assertThat(set).isEqualTo(new HashSet<>(Arrays.asList(new SimpleGrantedAuthority(AuthoritiesConstants.USER),
+            new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS))));
+        assertThat(AuthoritySet.fromClaim("")).isEmpty();
+    }
+}
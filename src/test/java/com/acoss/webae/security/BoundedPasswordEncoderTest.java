@@ -0,0 +1,134 @@
+package com.acoss.webae.security;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the BoundedPasswordEncoder class.
+ *
+ * @see BoundedPasswordEncoder
+ */
+public class BoundedPasswordEncoderTest {
+
+    private MetricRegistry metricRegistry;
+
+    private CountDownLatch release;
+
+    private CountDownLatch started;
+
+    private volatile String hashingThread;
+
+    private BoundedPasswordEncoder encoder;
+
+    private ExecutorService callers;
+
+    @Before
+    public void setup() {
+        metricRegistry = new MetricRegistry();
+        release = new CountDownLatch(0);
+        started = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashingThread = Thread.currentThread().getName();
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                if (rawPassword == null) {
+                    throw new IllegalArgumentException("No password");
+                }
+                return encodedPassword.equals("hash:" + rawPassword);
+            }
+        }, 1, 1, 1000, metricRegistry);
+        callers = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void teardown() {
+        release = new CountDownLatch(0);
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    @Test
+    public void testHashesRunOnTheHashingThreads() {
+        assertThat(encoder.encode("password")).isEqualTo("hash:password");
+        assertThat(encoder.matches("password", "hash:password")).isTrue();
+        assertThat(encoder.matches("other", "hash:password")).isFalse();
+
+        assertThat(hashingThread).startsWith("cfe-backonly-password-hashing-");
+        assertThat(metricRegistry.timer("password-hashing.encode").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer("password-hashing.matches").getCount()).isEqualTo(2);
+        assertThat(metricRegistry.timer("password-hashing.queue-wait").getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testExceptionIsRethrown() {
+        assertThatThrownBy(() -> encoder.matches(null, "hash:password"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("No password");
+    }
+
+    @Test
+    public void testHashIsRejectedWhenSaturated() throws Exception {
+        release = new CountDownLatch(1);
+        Future<String> running = callers.submit(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<String> queued = callers.submit(() -> encoder.encode("second"));
+        awaitQueueSize(1);
+
+        assertThatThrownBy(() -> encoder.encode("third")).isInstanceOf(TaskRejectedException.class);
+        assertThat(metricRegistry.meter("password-hashing.rejected").getCount()).isEqualTo(1);
+        assertThat(gauge("password-hashing.active-threads")).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:second");
+    }
+
+    @Test
+    public void testHashIsAbandonedAfterTheTimeout() throws Exception {
+        release = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> encoder.encode("slow")).isInstanceOf(TaskRejectedException.class);
+        assertThat(metricRegistry.meter("password-hashing.timeouts").getCount()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(encoder.matches("password", "hash:password")).isTrue();
+    }
+
+    private void awaitQueueSize(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Integer.valueOf(size).equals(gauge("password-hashing.queue-size")) &&
+            System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(gauge("password-hashing.queue-size")).isEqualTo(size);
+    }
+
+    private Object gauge(String name) {
+        return ((Gauge<?>) metricRegistry.getGauges().get(name)).getValue();
+    }
+}
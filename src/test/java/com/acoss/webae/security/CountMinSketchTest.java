@@ -0,0 +1,69 @@
+package com.acoss.webae.security;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the CountMinSketch class.
+ *
+ * @see CountMinSketch
+ */
+public class CountMinSketchTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private final CountMinSketch sketch = new CountMinSketch(8, 256, 1000, clock::get);
+
+    @Test
+    public void testEstimateIsNeverUnderTheCount() {
+        for (int key = 0; key < 2000; key++) {
+            for (int i = 0; i <= key % 5; i++) {
+                sketch.increment("key-" + key);
+            }
+        }
+        int exact = 0;
+        for (int key = 0; key < 2000; key++) {
+            int estimate = sketch.estimate("key-" + key);
+            assertThat(estimate).isGreaterThanOrEqualTo(key % 5 + 1);
+            if (estimate == key % 5 + 1) {
+                exact++;
+            }
+        }
+        // 2000 keys in 8 x 256 counters per row: most estimates are still exact
+        assertThat(exact).isGreaterThan(1000);
+    }
+
+    @Test
+    public void testKeysAreCountedSeparately() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(sketch.increment("attacked")).isEqualTo(i + 1);
+        }
+        assertThat(sketch.estimate("attacked")).isEqualTo(10);
+        assertThat(sketch.estimate("other")).isEqualTo(0);
+    }
+
+    @Test
+    public void testCountsDecay() {
+        for (int i = 0; i < 12; i++) {
+            sketch.increment("key");
+        }
+        clock.addAndGet(999);
+        assertThat(sketch.estimate("key")).isEqualTo(12);
+        clock.addAndGet(1);
+        assertThat(sketch.estimate("key")).isEqualTo(6);
+        clock.addAndGet(2000);
+        assertThat(sketch.estimate("key")).isEqualTo(1);
+        clock.addAndGet(100_000);
+        assertThat(sketch.estimate("key")).isEqualTo(0);
+    }
+
+    @Test
+    public void testInvalidSketch() {
+        assertThatThrownBy(() -> new CountMinSketch(6, 256, 1000, clock::get))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -5,16 +5,19 @@ import com.acoss.webae.domain.User;
 import com.acoss.webae.repository.UserRepository;
 
 import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.cache.CacheManager;
 import java.util.Locale;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -42,6 +45,12 @@ public class DomainUserDetailsServiceIntTest {
     @Autowired
     private UserDetailsService domainUserDetailsService;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private User userOne;
     private User userTwo;
     private User userThree;
@@ -79,6 +88,11 @@ public class DomainUserDetailsServiceIntTest {
         userRepository.save(userThree);
     }
 
+    @After
+    public void clearCache() {
+        cacheManager.getCache(UserDetailsCache.CACHE_NAME).clear();
+    }
+
     @Test
     @Transactional
     public void assertThatUserCanBeFoundByLogin() {
@@ -125,4 +139,45 @@ public class DomainUserDetailsServiceIntTest {
         domainUserDetailsService.loadUserByUsername(USER_THREE_LOGIN);
     }
 
+    @Test
+    @Transactional
+    public void assertThatEmailIsPrioritizedOverLoginOfAnotherUser() {
+        User userFour = new User();
+        userFour.setLogin(USER_ONE_EMAIL);
+        userFour.setPassword(RandomStringUtils.random(60));
+        userFour.setActivated(true);
+        userFour.setEmail("test-user-four@localhost");
+        userRepository.save(userFour);
+
+        UserDetails userDetails = domainUserDetailsService.loadUserByUsername(USER_ONE_EMAIL);
+        assertThat(userDetails.getUsername()).isEqualTo(USER_ONE_LOGIN);
+    }
+
+    @Test
+    @Transactional
+    public void assertThatCachedUserIsACopy() {
+        UserDetails first = domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN);
+        // The authentication manager erases the password of the authenticated user
+        ((CredentialsContainer) first).eraseCredentials();
+        userOne.setPassword(RandomStringUtils.random(60));
+        userRepository.saveAndFlush(userOne);
+
+        UserDetails second = domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPassword()).isNotNull().isNotEqualTo(userOne.getPassword());
+    }
+
+    @Test
+    @Transactional
+    public void assertThatEvictedUserIsReloaded() {
+        domainUserDetailsService.loadUserByUsername(USER_TWO_EMAIL);
+        userTwo.setPassword(RandomStringUtils.random(60));
+        userRepository.saveAndFlush(userTwo);
+
+        userDetailsCache.evict(USER_TWO_LOGIN, USER_TWO_EMAIL);
+
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_TWO_EMAIL).getPassword())
+            .isEqualTo(userTwo.getPassword());
+    }
 }
@@ -0,0 +1,121 @@
+package com.acoss.webae.security;
+
+import com.acoss.webae.config.ApplicationProperties;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the LoginThrottle class.
+ *
+ * @see LoginThrottle
+ */
+public class LoginThrottleTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private ApplicationProperties applicationProperties;
+
+    private MetricRegistry metricRegistry;
+
+    private LoginThrottle loginThrottle;
+
+    @Before
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getLoginThrottling().setMaxLoginFailures(3);
+        applicationProperties.getLoginThrottling().setMaxIpFailures(5);
+        applicationProperties.getLoginThrottling().setHalfLifeSeconds(60);
+        metricRegistry = new MetricRegistry();
+        loginThrottle = new LoginThrottle(applicationProperties, metricRegistry, clock::get);
+    }
+
+    @Test
+    public void testLoginIsThrottled() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(loginThrottle.isThrottled("user", "10.0.0." + i)).isFalse();
+            loginThrottle.recordFailure("user", "10.0.0." + i);
+        }
+
+        assertThat(loginThrottle.isThrottled("User", "10.0.0.9")).isTrue();
+        assertThat(loginThrottle.isThrottled("other", "10.0.0.9")).isFalse();
+        assertThat(metricRegistry.meter("login-throttle.rejected").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testIpIsThrottled() {
+        for (int i = 0; i < 5; i++) {
+            loginThrottle.recordFailure("user-" + i, "10.0.0.1");
+        }
+
+        assertThat(loginThrottle.isThrottled("another-user", "10.0.0.1")).isTrue();
+        assertThat(loginThrottle.isThrottled("another-user", "10.0.0.2")).isFalse();
+        assertThat(loginThrottle.isThrottled("another-user", null)).isFalse();
+    }
+
+    @Test
+    public void testThrottleDecays() {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.recordFailure("user", null);
+        }
+        assertThat(loginThrottle.isThrottled("user", null)).isTrue();
+
+        clock.addAndGet(60_000);
+
+        assertThat(loginThrottle.isThrottled("user", null)).isFalse();
+        assertThat(loginThrottle.getRetryAfterSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    public void testDisabledThrottle() {
+        applicationProperties.getLoginThrottling().setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            loginThrottle.recordFailure("user", "10.0.0.1");
+        }
+
+        assertThat(loginThrottle.isThrottled("user", "10.0.0.1")).isFalse();
+    }
+
+    @Test
+    public void testDistinctLoginBurstDoesNotThrottleOtherLogins() {
+        loginThrottle = new LoginThrottle(new ApplicationProperties(), metricRegistry, clock::get);
+        for (int i = 0; i < 1_000_000; i++) {
+            loginThrottle.recordFailure("burst-" + i, "10." + (i >> 16) + "." + ((i >> 8) & 255) + "." + (i & 255));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(loginThrottle.isThrottled("user-" + i, "192.168.0.1")).isFalse();
+        }
+    }
+
+    @Test
+    public void testForwardedForIsIgnoredFromUntrustedClients() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-Forwarded-For", "192.168.0.1");
+
+        assertThat(loginThrottle.getClientIp(request)).isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    public void testForwardedForIsReadFromTrustedProxies() {
+        applicationProperties.getLoginThrottling().setTrustedProxies(Arrays.asList("10.0.0.1", "10.0.0.2"));
+        loginThrottle = new LoginThrottle(applicationProperties, metricRegistry, clock::get);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-Forwarded-For", "1.2.3.4, 192.168.0.1, 10.0.0.2");
+
+        assertThat(loginThrottle.getClientIp(request)).isEqualTo("192.168.0.1");
+
+        MockHttpServletRequest unforwarded = new MockHttpServletRequest();
+        unforwarded.setRemoteAddr("10.0.0.1");
+        assertThat(loginThrottle.getClientIp(unforwarded)).isEqualTo("10.0.0.1");
+    }
+}
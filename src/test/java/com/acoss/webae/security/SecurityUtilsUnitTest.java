@@ -70,4 +70,21 @@ public class SecurityUtilsUnitTest {
         assertThat(SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN)).isFalse();
     }
 
+    @Test
+    public void testIsCurrentUserInRoleWithAuthoritySet() {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        AuthoritySet authorities = AuthoritySet.fromClaim(AuthoritiesConstants.USER);
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken("user", "user", authorities) {
+            @Override
+            public Collection<GrantedAuthority> getAuthorities() {
+                return authorities;
+            }
+        });
+        SecurityContextHolder.setContext(securityContext);
+
+        assertThat(SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.USER)).isTrue();
+        assertThat(SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ADMIN)).isFalse();
+        assertThat(SecurityUtils.isAuthenticated()).isTrue();
+    }
+
 }
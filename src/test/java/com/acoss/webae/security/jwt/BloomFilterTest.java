@@ -0,0 +1,44 @@
+package com.acoss.webae.security.jwt;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the BloomFilter class.
+ *
+ * @see BloomFilter
+ */
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegative() {
+        BloomFilter filter = new BloomFilter(1000);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain("token-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(1000);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    public void testEmptyFilter() {
+        assertThat(new BloomFilter(0).mightContain("token")).isFalse();
+    }
+}
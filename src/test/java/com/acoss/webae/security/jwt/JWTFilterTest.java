@@ -21,6 +21,8 @@ public class JWTFilterTest {
 
     private TokenProvider tokenProvider;
 
+    private TokenRevocationList tokenRevocationList;
+
     private JWTFilter jwtFilter;
 
     @Before
@@ -29,7 +31,8 @@ public class JWTFilterTest {
         tokenProvider = new TokenProvider(jHipsterProperties);
         ReflectionTestUtils.setField(tokenProvider, "secretKey", "test secret");
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
-        jwtFilter = new JWTFilter(tokenProvider);
+        tokenRevocationList = new TokenRevocationList();
+        jwtFilter = new JWTFilter(tokenProvider, tokenRevocationList);
         SecurityContextHolder.getContext().setAuthentication(null);
     }
 
@@ -52,6 +55,27 @@ public class JWTFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication().getCredentials().toString()).isEqualTo(jwt);
     }
 
+    @Test
+    public void testJWTFilterRevokedToken() throws Exception {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, false);
+        // The authentication is cached, the revocation must be checked anyway
+        tokenProvider.resolveAuthentication(jwt);
+        tokenRevocationList.revokeSubject("test-user", System.currentTimeMillis(), System.currentTimeMillis() + 60000);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(JWTConfigurer.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        request.setRequestURI("/api/test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+        jwtFilter.doFilter(request, response, filterChain);
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
     @Test
     public void testJWTFilterInvalidToken() throws Exception {
         String jwt = "wrong_jwt";
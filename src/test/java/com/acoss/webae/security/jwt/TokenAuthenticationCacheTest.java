@@ -0,0 +1,88 @@
+package com.acoss.webae.security.jwt;
+
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the TokenAuthenticationCache class.
+ *
+ * @see TokenAuthenticationCache
+ */
+public class TokenAuthenticationCacheTest {
+
+    private final TokenAuthenticationCache cache = new TokenAuthenticationCache(3);
+
+    @Test
+    public void testEntryExpiresWithItsToken() {
+        Authentication authentication = authentication("user");
+        cache.put("token", authentication, 2000, 1000);
+
+        assertThat(cache.get("token", 1999)).isSameAs(authentication);
+        assertThat(cache.get("other-token", 1999)).isNull();
+        assertThat(cache.get("token", 2000)).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testExpiredTokenIsNotCached() {
+        cache.put("token", authentication("user"), 1000, 1000);
+
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        cache.put("expired", authentication("expired"), 1500, 1000);
+        cache.put("token-1", authentication("user-1"), 5000, 1000);
+        cache.put("token-2", authentication("user-2"), 5000, 1000);
+
+        // The expired entry is evicted first
+        cache.put("token-3", authentication("user-3"), 5000, 2000);
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("token-1", 2000)).isNotNull();
+        assertThat(cache.get("token-2", 2000)).isNotNull();
+        assertThat(cache.get("token-3", 2000)).isNotNull();
+
+        // Then the oldest entry
+        cache.put("token-4", authentication("user-4"), 5000, 2000);
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("token-1", 2000)).isNull();
+        assertThat(cache.get("token-2", 2000)).isNotNull();
+        assertThat(cache.get("token-4", 2000)).isNotNull();
+    }
+
+    @Test
+    public void testExpiredEntriesAreSweptPeriodically() {
+        cache.put("token-1", authentication("user-1"), 1500, 1000);
+        cache.put("token-2", authentication("user-2"), 1500, 1000);
+        assertThat(cache.size()).isEqualTo(2);
+
+        // The third insertion sweeps the entries expired meanwhile, though the cache is not full
+        cache.put("token-3", authentication("user-3"), 5000, 2000);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("token-3", 2000)).isNotNull();
+    }
+
+    @Test
+    public void testReplacedEntryIsNotEvictedForItsOlderInsertion() {
+        cache.put("token-1", authentication("user-1"), 5000, 1000);
+        cache.put("token-2", authentication("user-2"), 5000, 1000);
+        cache.put("token-1", authentication("user-1"), 5000, 1000);
+        cache.put("token-3", authentication("user-3"), 5000, 1000);
+
+        // token-2 is now the oldest entry
+        cache.put("token-4", authentication("user-4"), 5000, 1000);
+        assertThat(cache.get("token-1", 1000)).isNotNull();
+        assertThat(cache.get("token-2", 1000)).isNull();
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    private static Authentication authentication(String login) {
+        return new UsernamePasswordAuthenticationToken(login, "", Collections.emptyList());
+    }
+}
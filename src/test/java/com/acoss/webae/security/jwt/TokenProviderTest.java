@@ -1,6 +1,7 @@
 package com.acoss.webae.security.jwt;
 
 import com.acoss.webae.security.AuthoritiesConstants;
+import com.acoss.webae.security.AuthoritySet;
 import io.github.jhipster.config.JHipsterProperties;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -16,6 +17,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -79,6 +81,48 @@ public class TokenProviderTest {
         assertThat(isTokenValid).isEqualTo(false);
     }
 
+    @Test
+    public void testResolveAuthenticationIsCached() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> first = tokenProvider.resolveAuthentication(token);
+        Optional<Authentication> second = tokenProvider.resolveAuthentication(token);
+
+        assertThat(first).isPresent();
+        assertThat(first.get().getName()).isEqualTo("anonymous");
+        assertThat(first.get().getCredentials()).isEqualTo(token);
+        assertThat(first.get().getAuthorities()).extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(second.get()).isSameAs(first.get());
+    }
+
+    @Test
+    public void testAuthoritiesAreSharedBetweenTokens() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        String otherToken = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("other", "other", createAuthentication().getAuthorities()), false);
+
+        Authentication authentication = tokenProvider.getAuthentication(token);
+        Authentication otherAuthentication = tokenProvider.resolveAuthentication(otherToken).get();
+
+        assertThat(authentication.getAuthorities()).isInstanceOf(AuthoritySet.class);
+        assertThat(otherAuthentication.getAuthorities()).isSameAs(authentication.getAuthorities());
+    }
+
+    @Test
+    public void testResolveAuthenticationOfInvalidToken() {
+        assertThat(tokenProvider.resolveAuthentication(createTokenWithDifferentSignature())).isEmpty();
+        assertThat(tokenProvider.resolveAuthentication("")).isEmpty();
+    }
+
+    @Test
+    public void testResolveAuthenticationOfExpiredToken() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.resolveAuthentication(token)).isEmpty();
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
@@ -0,0 +1,58 @@
+package com.acoss.webae.security.jwt;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the TokenRevocationList class.
+ *
+ * @see TokenRevocationList
+ */
+public class TokenRevocationListTest {
+
+    private final TokenRevocationList tokenRevocationList = new TokenRevocationList();
+
+    @Test
+    public void testNothingIsRevoked() {
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", 1000)).isFalse();
+        assertThat(tokenRevocationList.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRevokeToken() {
+        tokenRevocationList.revokeToken("token-1", 60000);
+
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", 1000)).isTrue();
+        assertThat(tokenRevocationList.isRevoked("token-2", "user", 1000)).isFalse();
+        assertThat(tokenRevocationList.isRevoked(null, "user", 1000)).isFalse();
+    }
+
+    @Test
+    public void testRevokeSubject() {
+        tokenRevocationList.revokeSubject("user", 10500, 60000);
+
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", 9000)).isTrue();
+        // The "iat" claim is in seconds, so the tokens of the same second are revoked
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", 10999)).isTrue();
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", 11000)).isFalse();
+        assertThat(tokenRevocationList.isRevoked(null, "user", 0)).isTrue();
+        assertThat(tokenRevocationList.isRevoked("token-1", "admin", 9000)).isFalse();
+
+        tokenRevocationList.revokeSubject("user", 20000, 30000);
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", 15000)).isTrue();
+    }
+
+    @Test
+    public void testRemoveExpired() {
+        tokenRevocationList.revokeToken("token-1", 60000);
+        tokenRevocationList.revokeToken("token-2", 120000);
+        tokenRevocationList.revokeSubject("user", 10000, 60000);
+
+        tokenRevocationList.removeExpired(60000);
+
+        assertThat(tokenRevocationList.size()).isEqualTo(1);
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", 9000)).isFalse();
+        assertThat(tokenRevocationList.isRevoked("token-2", "user", 9000)).isTrue();
+    }
+}
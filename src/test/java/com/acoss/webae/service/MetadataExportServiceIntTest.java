@@ -0,0 +1,75 @@
+package com.acoss.webae.service;
+
+import com.acoss.webae.CfeBackonlyApp;
+import com.acoss.webae.domain.Metadata;
+import com.acoss.webae.repository.MetadataRepository;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the MetadataExportService.
+ *
+ * @see MetadataExportService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = CfeBackonlyApp.class)
+@Transactional
+public class MetadataExportServiceIntTest {
+
+    @Autowired
+    private MetadataRepository metadataRepository;
+
+    @Autowired
+    private MetadataExportService metadataExportService;
+
+    @Test
+    @Transactional
+    public void assertThatMetadataAreExportedAsNdjson() throws Exception {
+        Metadata first = metadataRepository.saveAndFlush(new Metadata().title("first"));
+        Metadata second = metadataRepository.saveAndFlush(new Metadata().title("second"));
+        long existing = metadataRepository.count() - 2;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = metadataExportService.export(MetadataExportService.Format.NDJSON, out);
+
+        assertThat(count).isEqualTo(existing + 2);
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertThat(lines).hasSize((int) count + 1);
+        assertThat(lines[lines.length - 1]).isEmpty();
+        assertThat(lines).contains(
+            "{\"id\":" + first.getId() + ",\"title\":\"first\"}",
+            "{\"id\":" + second.getId() + ",\"title\":\"second\"}");
+    }
+
+    @Test
+    @Transactional
+    public void assertThatMetadataAreExportedAsCsv() throws Exception {
+        Metadata quoted = metadataRepository.saveAndFlush(new Metadata().title("a \"quoted\", title"));
+        Metadata untitled = metadataRepository.saveAndFlush(new Metadata());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        metadataExportService.export(MetadataExportService.Format.CSV, out);
+
+        String csv = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("id,title\r\n");
+        assertThat(csv).contains(quoted.getId() + ",\"a \"\"quoted\"\", title\"\r\n");
+        assertThat(csv).contains(untitled.getId() + ",\r\n");
+    }
+
+    @Test
+    public void assertThatFormatsAreFoundByName() {
+        assertThat(MetadataExportService.Format.fromName("CSV")).contains(MetadataExportService.Format.CSV);
+        assertThat(MetadataExportService.Format.fromName("ndjson")).contains(MetadataExportService.Format.NDJSON);
+        assertThat(MetadataExportService.Format.fromName("xml")).isEmpty();
+    }
+}
@@ -0,0 +1,87 @@
+package com.acoss.webae.service;
+
+import com.acoss.webae.CfeBackonlyApp;
+import com.acoss.webae.domain.Metadata;
+import com.acoss.webae.repository.MetadataRepository;
+import com.acoss.webae.service.dto.MetadataDTO;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the MetadataService, with the Hibernate second-level cache enabled.
+ *
+ * @see MetadataService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = CfeBackonlyApp.class, properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.cache.region.factory_class=io.github.jhipster.config.jcache.NoDefaultJCacheRegionFactory"
+})
+public class MetadataServiceIntTest {
+
+    @Autowired
+    private MetadataService metadataService;
+
+    @Autowired
+    private MetadataRepository metadataRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Metadata cached;
+
+    private Metadata uncached;
+
+    private Statistics statistics;
+
+    @Before
+    public void init() {
+        cached = metadataRepository.saveAndFlush(new Metadata().title("cached"));
+        uncached = metadataRepository.saveAndFlush(new Metadata().title("uncached"));
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @After
+    public void cleanup() {
+        metadataRepository.delete(Arrays.asList(cached, uncached));
+    }
+
+    @Test
+    public void assertThatACachedMetadataIsReadWithoutAQuery() {
+        // The first lookup loads the metadata into the second-level cache
+        assertThat(metadataService.findOne(cached.getId()).getTitle()).isEqualTo("cached");
+        assertThat(entityManagerFactory.getCache().contains(Metadata.class, cached.getId())).isTrue();
+        long statementCount = statistics.getPrepareStatementCount();
+
+        MetadataDTO metadataDTO = metadataService.findOne(cached.getId());
+
+        assertThat(metadataDTO.getTitle()).isEqualTo("cached");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementCount);
+    }
+
+    @Test
+    public void assertThatOnlyTheUncachedMetadataAreQueried() {
+        metadataService.findOne(cached.getId());
+        long statementCount = statistics.getPrepareStatementCount();
+
+        List<MetadataDTO> metadata = metadataService.findAll(Arrays.asList(uncached.getId(), cached.getId()));
+
+        assertThat(metadata).extracting(MetadataDTO::getTitle).containsExactly("uncached", "cached");
+        assertThat(statistics.getPrepareStatementCount() - statementCount).isEqualTo(1);
+    }
+}
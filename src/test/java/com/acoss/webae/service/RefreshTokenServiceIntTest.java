@@ -0,0 +1,112 @@
+package com.acoss.webae.service;
+
+import com.acoss.webae.CfeBackonlyApp;
+import com.acoss.webae.domain.RefreshToken;
+import com.acoss.webae.domain.User;
+import com.acoss.webae.repository.RefreshTokenRepository;
+import com.acoss.webae.repository.UserRepository;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the RefreshTokenService.
+ *
+ * @see RefreshTokenService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = CfeBackonlyApp.class)
+@Transactional
+public class RefreshTokenServiceIntTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @Before
+    public void init() {
+        user = new User();
+        user.setLogin("refresh-token-user");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail("refresh-token-user@localhost");
+        userRepository.saveAndFlush(user);
+    }
+
+    @Test
+    public void assertThatOnlyTheHashIsStored() {
+        String token = refreshTokenService.createToken(user.getLogin(), true).get();
+
+        RefreshToken refreshToken = refreshTokenRepository.findAll().get(0);
+        assertThat(refreshToken.getTokenHash()).hasSize(64).isNotEqualTo(token);
+        assertThat(refreshToken.isRememberMe()).isTrue();
+        assertThat(refreshToken.getExpiresAt()).isAfter(Instant.now().plus(29, ChronoUnit.DAYS));
+        assertThat(refreshTokenService.createToken("unknown-user", false)).isNotPresent();
+    }
+
+    @Test
+    public void assertThatRotatedTokenKeepsTheExpiration() {
+        String token = refreshTokenService.createToken(user.getLogin(), false).get();
+        Instant expiresAt = refreshTokenRepository.findAll().get(0).getExpiresAt();
+
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotateToken(token);
+
+        assertThat(rotation).isPresent();
+        assertThat(rotation.get().getUser().getLogin()).isEqualTo(user.getLogin());
+        assertThat(rotation.get().getToken()).isNotEqualTo(token);
+        assertThat(refreshTokenRepository.findAll()).extracting(RefreshToken::getExpiresAt).containsExactly(expiresAt);
+        assertThat(refreshTokenService.rotateToken(token)).isNotPresent();
+    }
+
+    @Test
+    public void assertThatExpiredTokenIsRejected() {
+        String token = refreshTokenService.createToken(user.getLogin(), false).get();
+        RefreshToken refreshToken = refreshTokenRepository.findAll().get(0);
+        refreshToken.setExpiresAt(Instant.now().minusSeconds(1));
+        refreshTokenRepository.saveAndFlush(refreshToken);
+
+        assertThat(refreshTokenService.rotateToken(token)).isNotPresent();
+        assertThat(refreshTokenRepository.count()).isEqualTo(0);
+    }
+
+    @Test
+    public void assertThatTokenOfDeactivatedUserIsRejected() {
+        String token = refreshTokenService.createToken(user.getLogin(), false).get();
+        user.setActivated(false);
+        userRepository.saveAndFlush(user);
+
+        assertThat(refreshTokenService.rotateToken(token)).isNotPresent();
+    }
+
+    @Test
+    public void testRemoveExpiredTokens() {
+        refreshTokenService.createToken(user.getLogin(), false);
+        refreshTokenService.createToken(user.getLogin(), false);
+        RefreshToken refreshToken = refreshTokenRepository.findAll().get(0);
+        refreshToken.setExpiresAt(Instant.now().minusSeconds(1));
+        refreshTokenRepository.saveAndFlush(refreshToken);
+
+        refreshTokenService.removeExpiredTokens();
+
+        assertThat(refreshTokenRepository.count()).isEqualTo(1);
+    }
+}
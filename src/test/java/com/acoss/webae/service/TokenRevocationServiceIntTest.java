@@ -0,0 +1,151 @@
+package com.acoss.webae.service;
+
+import com.acoss.webae.CfeBackonlyApp;
+import com.acoss.webae.domain.RevokedToken;
+import com.acoss.webae.repository.RevokedTokenRepository;
+import com.acoss.webae.security.AuthoritiesConstants;
+import com.acoss.webae.security.UserDetailsCache;
+import com.acoss.webae.security.jwt.TokenRevocationList;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the TokenRevocationService.
+ * <p>
+ * It is not transactional, so that the revocations are committed, like on a real node.
+ *
+ * @see TokenRevocationService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = CfeBackonlyApp.class)
+public class TokenRevocationServiceIntTest {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @After
+    public void cleanup() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    @Test
+    public void testRevokedTokenIsAppliedOnCommit() {
+        String tokenId = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        assertThat(tokenRevocationList.isRevoked(tokenId, "token-revocation-user", now)).isFalse();
+
+        tokenRevocationService.revokeToken(tokenId, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        assertThat(tokenRevocationList.isRevoked(tokenId, "token-revocation-user", now)).isTrue();
+        assertThat(tokenRevocationList.isRevoked(UUID.randomUUID().toString(), "token-revocation-user", now)).isFalse();
+        assertThat(revokedTokenRepository.findAll()).extracting(RevokedToken::getTokenId).containsExactly(tokenId);
+    }
+
+    @Test
+    public void testAllTokensOfUserAreRevoked() {
+        long issuedBefore = System.currentTimeMillis() - 2000;
+
+        tokenRevocationService.revokeAllTokens("token-revocation-subject");
+
+        assertThat(tokenRevocationList.isRevoked(UUID.randomUUID().toString(), "token-revocation-subject", issuedBefore)).isTrue();
+        assertThat(tokenRevocationList.isRevoked(UUID.randomUUID().toString(), "token-revocation-subject",
+            System.currentTimeMillis() + 2000)).isFalse();
+        assertThat(tokenRevocationList.isRevoked(UUID.randomUUID().toString(), "token-revocation-other", issuedBefore)).isFalse();
+    }
+
+    @Test
+    public void testRevocationsOfOtherNodesAreLoaded() {
+        tokenRevocationService.loadRevocations();
+        String tokenId = UUID.randomUUID().toString();
+        // Another node revokes a token
+        new TransactionTemplate(transactionManager).execute(status -> {
+            revokedTokenRepository.incrementVersion();
+            RevokedToken revokedToken = new RevokedToken();
+            revokedToken.setTokenId(tokenId);
+            revokedToken.setRevokedAt(Instant.now());
+            revokedToken.setExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS));
+            revokedToken.setVersion(revokedTokenRepository.findVersion());
+            return revokedTokenRepository.save(revokedToken);
+        });
+        assertThat(tokenRevocationList.isRevoked(tokenId, "token-revocation-user", System.currentTimeMillis())).isFalse();
+
+        tokenRevocationService.loadRevocations();
+
+        assertThat(tokenRevocationList.isRevoked(tokenId, "token-revocation-user", System.currentTimeMillis())).isTrue();
+    }
+
+    @Test
+    public void testUserIsEvictedWhenAnotherNodeRevokesItsTokens() {
+        tokenRevocationService.loadRevocations();
+        UserDetails user = new User("token-revocation-subject", "old-password-hash",
+            Collections.singleton(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+        userDetailsCache.put("token-revocation-subject", user);
+        userDetailsCache.put("token-revocation-subject@localhost", user);
+        userDetailsCache.put("token-revocation-other", new User("token-revocation-other", "password-hash",
+            Collections.singleton(new SimpleGrantedAuthority(AuthoritiesConstants.USER))));
+        // Another node changes the password of the user, and revokes its tokens
+        new TransactionTemplate(transactionManager).execute(status -> {
+            revokedTokenRepository.incrementVersion();
+            RevokedToken revokedToken = new RevokedToken();
+            revokedToken.setSubject("token-revocation-subject");
+            revokedToken.setRevokedAt(Instant.now());
+            revokedToken.setExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS));
+            revokedToken.setVersion(revokedTokenRepository.findVersion());
+            return revokedTokenRepository.save(revokedToken);
+        });
+        assertThat(userDetailsCache.get("token-revocation-subject")).isNotNull();
+
+        tokenRevocationService.loadRevocations();
+
+        assertThat(userDetailsCache.get("token-revocation-subject")).isNull();
+        assertThat(userDetailsCache.get("token-revocation-subject@localhost")).isNull();
+        assertThat(userDetailsCache.get("token-revocation-other")).isNotNull();
+        userDetailsCache.evictLogin("token-revocation-other");
+    }
+
+    @Test
+    public void testExpiredRevocationsAreRemoved() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            RevokedToken revokedToken = new RevokedToken();
+            revokedToken.setTokenId(UUID.randomUUID().toString());
+            revokedToken.setRevokedAt(Instant.now().minus(2, ChronoUnit.DAYS));
+            revokedToken.setExpiresAt(Instant.now().minus(1, ChronoUnit.DAYS));
+            revokedToken.setVersion(0L);
+            return revokedTokenRepository.save(revokedToken);
+        });
+        tokenRevocationService.revokeToken(UUID.randomUUID().toString(), Instant.now().plus(1, ChronoUnit.HOURS));
+
+        tokenRevocationService.removeExpiredRevocations();
+
+        assertThat(revokedTokenRepository.findAll()).hasSize(1);
+    }
+}
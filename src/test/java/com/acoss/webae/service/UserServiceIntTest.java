@@ -2,12 +2,18 @@ package com.acoss.webae.service;
 
 import com.acoss.webae.CfeBackonlyApp;
 import com.acoss.webae.config.Constants;
+import com.acoss.webae.domain.Authority;
 import com.acoss.webae.domain.User;
+import com.acoss.webae.repository.AuthorityRepository;
+import com.acoss.webae.repository.RefreshTokenRepository;
 import com.acoss.webae.repository.UserRepository;
+import com.acoss.webae.security.AuthoritiesConstants;
 import com.acoss.webae.service.dto.UserDTO;
 import com.acoss.webae.service.util.RandomUtil;
 
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,15 +21,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Test class for the UserResource REST controller.
@@ -41,6 +53,21 @@ public class UserServiceIntTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private User user;
 
     @Before
@@ -159,6 +186,34 @@ public class UserServiceIntTest {
             .isTrue();
     }
 
+    @Test
+    @Transactional
+    public void assertThatForEachManagedUserLooksUpAuthoritiesInBatches() throws Exception {
+        Authority authority = authorityRepository.findOne(AuthoritiesConstants.USER);
+        for (int i = 0; i < 150; i++) {
+            User batchUser = new User();
+            batchUser.setLogin("batch-user-" + i);
+            batchUser.setPassword(RandomStringUtils.random(60));
+            batchUser.setActivated(true);
+            batchUser.setAuthorities(Collections.singleton(authority));
+            userRepository.save(batchUser);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.unwrap(Session.class).getSessionFactory().getStatistics();
+        long statementCount = statistics.getPrepareStatementCount();
+
+        List<UserDTO> users = new ArrayList<>();
+        long count = userService.forEachManagedUser(new PageRequest(0, Integer.MAX_VALUE), users::add);
+
+        assertThat(count).isEqualTo(users.size()).isGreaterThan(150);
+        assertThat(users).filteredOn(userDTO -> userDTO.getLogin().startsWith("batch-user-"))
+            .hasSize(150)
+            .allMatch(userDTO -> userDTO.getAuthorities().equals(Collections.singleton(AuthoritiesConstants.USER)));
+        // One cursor query, and one authority lookup per 100 users
+        assertThat(statistics.getPrepareStatementCount() - statementCount).isLessThanOrEqualTo(1 + (count + 99) / 100);
+    }
+
     @Test
     @Transactional
     public void testRemoveNotActivatedUsers() {
@@ -173,4 +228,48 @@ public class UserServiceIntTest {
         assertThat(userRepository.findOneByLogin("johndoe")).isNotPresent();
     }
 
+
+    @Test
+    @Transactional
+    public void assertThatDeletedUserHasNoRefreshToken() {
+        userRepository.saveAndFlush(user);
+        String refreshToken = refreshTokenService.createToken(user.getLogin(), false).get();
+        assertThat(refreshTokenRepository.count()).isEqualTo(1);
+
+        userService.deleteUser(user.getLogin());
+        userRepository.flush();
+
+        assertThat(userRepository.findOneByLogin(user.getLogin())).isNotPresent();
+        assertThat(refreshTokenRepository.count()).isEqualTo(0);
+        assertThat(refreshTokenService.rotateToken(refreshToken)).isNotPresent();
+    }
+
+    @Test
+    @Transactional
+    public void assertThatChangedAuthoritiesRevokeTheTokensOfTheUser() {
+        userRepository.saveAndFlush(user);
+        refreshTokenService.createToken(user.getLogin(), false);
+        UserDTO userDTO = new UserDTO(user);
+        userDTO.setFirstName("johnny");
+
+        userService.updateUser(userDTO);
+        assertThat(refreshTokenRepository.count()).isEqualTo(1);
+
+        userDTO.setAuthorities(Collections.singleton(AuthoritiesConstants.ADMIN));
+        userService.updateUser(userDTO);
+        assertThat(refreshTokenRepository.count()).isEqualTo(0);
+    }
+
+    @Test
+    @Transactional
+    public void assertThatDeletedUserIsEvictedFromTheUserDetailsCache() {
+        userRepository.saveAndFlush(user);
+        assertThat(userDetailsService.loadUserByUsername(user.getLogin()).getUsername()).isEqualTo(user.getLogin());
+
+        userService.deleteUser(user.getLogin());
+        userRepository.flush();
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(user.getLogin()))
+            .isInstanceOf(UsernameNotFoundException.class);
+    }
 }
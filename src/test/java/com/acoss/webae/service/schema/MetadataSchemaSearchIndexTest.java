@@ -0,0 +1,112 @@
+package com.acoss.webae.service.schema;
+
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.service.dto.MetadataSearchResultDTO;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for the MetadataSchemaSearchIndex class.
+ *
+ * @see MetadataSchemaSearchIndex
+ */
+public class MetadataSchemaSearchIndexTest {
+
+    private static final String ADDRESS_SCHEMA = "{\"title\": \"Adresse\", \"properties\": {" +
+        "\"C37\": {\"title\": \"Type d'adresse\", \"oneOf\": [" +
+        "{\"enum\": [\"DP\"], \"description\": \"Domicile personnel\"}, " +
+        "{\"enum\": [\"AP\"], \"description\": \"Adresse Professionnelle\"}]}, " +
+        "\"C37_4\": {\"title\": \"Code Rivoli de la voie ou lieu-dit\"}, " +
+        "\"C39_1\": {\"title\": \"Numéro de téléphone pour rel. Admin.\"}, " +
+        "\"C39_2\": {\"title\": \"Numéro de télécopie pour rel. Admin.\"}}}";
+
+    private static final String CONTACT_SCHEMA = "{\"title\": \"Contact\", \"properties\": {" +
+        "\"E70\": {\"title\": \"Téléphone du contact\"}}}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private MetadataSchemaRegistry registry;
+
+    private MetadataSchemaSearchIndex index;
+
+    @Before
+    public void setup() throws Exception {
+        write("address.json", ADDRESS_SCHEMA);
+        write("contact.json", CONTACT_SCHEMA);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSchemas().setLocation(folder.getRoot().toURI().toString());
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        registry = new MetadataSchemaRegistry(applicationProperties, new ObjectMapper(), eventPublisher);
+        registry.init();
+        index = new MetadataSchemaSearchIndex(registry);
+        index.init();
+    }
+
+    @Test
+    public void testSearchIgnoresAccentsAndCase() {
+        assertThat(fields(index.search("NUMERO TÉLÉCOPIE", 10))).containsExactly("address.C39_2");
+    }
+
+    @Test
+    public void testSearchMatchesPrefixes() {
+        assertThat(fields(index.search("num tel", 10))).containsExactly("address.C39_1", "address.C39_2");
+        assertThat(fields(index.search("tel", 10))).containsExactly("address.C39_1", "address.C39_2", "contact.E70");
+    }
+
+    @Test
+    public void testSearchMatchesFieldIdsAndEnumDescriptions() {
+        assertThat(fields(index.search("c37_4", 10))).containsExactly("address.C37_4");
+        assertThat(fields(index.search("domicile", 10))).containsExactly("address.C37");
+    }
+
+    @Test
+    public void testSearchRequiresAllWords() {
+        assertThat(index.search("rivoli telephone", 10)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    public void testSearchIsLimited() {
+        List<MetadataSearchResultDTO> results = index.search("tel", 2);
+        assertThat(fields(results)).containsExactly("address.C39_1", "address.C39_2");
+        assertThat(results.get(0).getTitle()).isEqualTo("Numéro de téléphone pour rel. Admin.");
+    }
+
+    @Test
+    public void testIndexIsUpdatedOnReload() throws Exception {
+        write("contact.json", "{\"properties\": {\"E71\": {\"title\": \"Télécopie du contact\"}}}");
+        registry.reload();
+        ArgumentCaptor<MetadataSchemasReloadedEvent> event = ArgumentCaptor.forClass(MetadataSchemasReloadedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        index.onSchemasReloaded(event.getValue());
+
+        assertThat(fields(index.search("telecopie", 10))).containsExactly("address.C39_2", "contact.E71");
+        assertThat(fields(index.search("E70", 10))).isEmpty();
+    }
+
+    private void write(String name, String content) throws Exception {
+        Files.write(new File(folder.getRoot(), name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] fields(List<MetadataSearchResultDTO> results) {
+        return results.stream().map(result -> result.getSchema() + "." + result.getField()).toArray(String[]::new);
+    }
+}
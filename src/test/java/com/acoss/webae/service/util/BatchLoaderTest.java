@@ -0,0 +1,142 @@
+package com.acoss.webae.service.util;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for the BatchLoader class.
+ *
+ * @see BatchLoader
+ */
+public class BatchLoaderTest {
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    private final List<Set<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private BatchLoader<Integer, String> loader;
+
+    @After
+    public void teardown() {
+        loader.shutdown();
+    }
+
+    @Test
+    public void testLookupsWithinTheWindowAreBatched() throws Exception {
+        loader = new BatchLoader<>(this::lookup, TimeUnit.MILLISECONDS.toMicros(200), 100, 2, 10, metricRegistry, "test");
+
+        CompletableFuture<String> one = loader.load(1);
+        CompletableFuture<String> two = loader.load(2);
+        CompletableFuture<String> duplicate = loader.load(1);
+        CompletableFuture<String> missing = loader.load(-1);
+
+        assertThat(one.get(5, TimeUnit.SECONDS)).isEqualTo("value-1");
+        assertThat(two.get(5, TimeUnit.SECONDS)).isEqualTo("value-2");
+        assertThat(duplicate).isSameAs(one);
+        assertThat(missing.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(batches).containsExactly(new HashSet<>(Arrays.asList(1, 2, -1)));
+        assertThat(metricRegistry.histogram("test.batch-size").getSnapshot().getMax()).isEqualTo(3);
+    }
+
+    @Test
+    public void testFullBatchIsExecutedImmediately() throws Exception {
+        loader = new BatchLoader<>(this::lookup, TimeUnit.HOURS.toMicros(1), 2, 2, 10, metricRegistry, "test");
+
+        CompletableFuture<String> one = loader.load(1);
+        assertThat(one.isDone()).isFalse();
+        CompletableFuture<String> two = loader.load(2);
+
+        assertThat(one.isDone()).isTrue();
+        assertThat(two.get()).isEqualTo("value-2");
+        assertThat(batches).hasSize(1);
+        assertThat(loader.load(3).isDone()).isFalse();
+    }
+
+    @Test
+    public void testFailureIsPropagatedToTheWholeBatch() throws Exception {
+        loader = new BatchLoader<>(ids -> {
+            throw new IllegalStateException("failure");
+        }, 1000, 100, 2, 10, metricRegistry, "test");
+
+        List<CompletableFuture<String>> futures = Arrays.asList(loader.load(1), loader.load(2));
+        for (CompletableFuture<String> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("The lookup should have failed");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(IllegalStateException.class).hasMessage("failure");
+            }
+        }
+    }
+
+    @Test
+    public void testSlowBatchDoesNotDelayTheNextBatch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        loader = new BatchLoader<>(ids -> {
+            if (ids.contains(1)) {
+                await(release);
+            }
+            return lookup(ids);
+        }, 1000, 100, 2, 10, metricRegistry, "test");
+
+        CompletableFuture<String> slow = loader.load(1);
+        Thread.sleep(100);
+        CompletableFuture<String> fast = loader.load(2);
+
+        assertThat(fast.get(5, TimeUnit.SECONDS)).isEqualTo("value-2");
+        assertThat(slow.isDone()).isFalse();
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("value-1");
+    }
+
+    @Test
+    public void testBatchIsRejectedWhenTheExecutorIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        loader = new BatchLoader<>(ids -> {
+            await(release);
+            return lookup(ids);
+        }, 1000, 100, 1, 1, metricRegistry, "test");
+
+        CompletableFuture<String> running = loader.load(1);
+        Thread.sleep(100);
+        CompletableFuture<String> queued = loader.load(2);
+        Thread.sleep(100);
+        CompletableFuture<String> rejected = loader.load(3);
+
+        try {
+            rejected.get(5, TimeUnit.SECONDS);
+            fail("The lookup should have been rejected");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+        }
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("value-1");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("value-2");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<Integer, String> lookup(Set<Integer> ids) {
+        batches.add(new HashSet<>(ids));
+        Map<Integer, String> values = new HashMap<>();
+        ids.stream().filter(id -> id > 0).forEach(id -> values.put(id, "value-" + id));
+        return values;
+    }
+}
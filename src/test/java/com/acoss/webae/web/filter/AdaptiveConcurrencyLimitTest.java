@@ -0,0 +1,97 @@
+package com.acoss.webae.web.filter;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the AdaptiveConcurrencyLimit class.
+ *
+ * @see AdaptiveConcurrencyLimit
+ */
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void testRequestsOverTheLimitAreRejected() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0, 0.2);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+
+        limit.release(FAST);
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void testLimitGrowsWhileTheLatencyIsStable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 50, 2.0, 0.2);
+
+        runAtLimit(limit, FAST, 100);
+
+        assertThat(limit.getLimit()).isEqualTo(50);
+    }
+
+    @Test
+    public void testLimitShrinksWhenTheLatencyIncreases() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 4, 50, 2.0, 0.2);
+        runAtLimit(limit, FAST, 10);
+        int limitBefore = limit.getLimit();
+
+        runAtLimit(limit, SLOW, 50);
+
+        assertThat(limit.getLimit()).isLessThan(limitBefore / 2).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    public void testLimitDoesNotChangeWithLittleLoad() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 50, 2.0, 0.2);
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(i % 2 == 0 ? FAST : SLOW);
+        }
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    public void testFixedLimit() {
+        AdaptiveConcurrencyLimit limit = AdaptiveConcurrencyLimit.fixed(3);
+
+        runAtLimit(limit, FAST, 10);
+        runAtLimit(limit, SLOW, 10);
+
+        assertThat(limit.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    public void testInvalidLimits() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(1, 2, 10, 2.0, 0.2))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(5, 0, 10, 2.0, 0.2))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Fill the limit, then release all the requests with the given latency, the given number of times.
+     */
+    private static void runAtLimit(AdaptiveConcurrencyLimit limit, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rttNanos);
+            }
+        }
+    }
+}
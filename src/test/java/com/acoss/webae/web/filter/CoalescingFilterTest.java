@@ -0,0 +1,165 @@
+package com.acoss.webae.web.filter;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the CoalescingFilter class.
+ *
+ * @see CoalescingFilter
+ */
+public class CoalescingFilterTest {
+
+    private MetricRegistry metricRegistry;
+
+    private CoalescingFilter filter;
+
+    private AtomicInteger executions;
+
+    private CountDownLatch release;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        metricRegistry = new MetricRegistry();
+        filter = new CoalescingFilter(metricRegistry, Collections.singletonList("/api/users"), 5000);
+        executions = new AtomicInteger();
+        release = new CountDownLatch(1);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIdenticalConcurrentRequestsAreCoalesced() throws Exception {
+        Future<MockHttpServletResponse> first = executor.submit(() -> perform("GET", "/api/users/admin"));
+        awaitMeter("coalescing.requests.executed");
+        Future<MockHttpServletResponse> second = executor.submit(() -> perform("GET", "/api/users/admin"));
+        awaitMeter("coalescing.requests.coalesced");
+        release.countDown();
+
+        for (Future<MockHttpServletResponse> result : new Future[]{first, second}) {
+            MockHttpServletResponse response = result.get(5, TimeUnit.SECONDS);
+            assertThat(response.getStatus()).isEqualTo(201);
+            assertThat(response.getContentType()).isEqualTo("application/json;charset=UTF-8");
+            assertThat(response.getHeader("X-Test")).isEqualTo("test");
+            assertThat(response.getContentAsString()).isEqualTo("{\"login\":\"admin\"}");
+        }
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOtherRequestsAreNotCoalesced() throws Exception {
+        release.countDown();
+        perform("GET", "/api/users/admin");
+        perform("GET", "/api/users/user");
+        perform("POST", "/api/users/admin");
+        assertThat(executions.get()).isEqualTo(3);
+        assertThat(metricRegistry.meter("coalescing.requests.coalesced").getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testExcludedResponseIsFlushedBeforeItCompletes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean committedBeforeCompletion = new AtomicBoolean();
+        filter.doFilter(request, response, (req, res) -> {
+            executions.incrementAndGet();
+            res.setContentType("application/json;charset=UTF-8");
+            res.getOutputStream().write("[{\"login\":\"admin\"}".getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+            committedBeforeCompletion.set(response.isCommitted());
+            res.getOutputStream().write("]".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertThat(committedBeforeCompletion.get()).isTrue();
+        assertThat(response.getContentAsString()).isEqualTo("[{\"login\":\"admin\"}]");
+        assertThat(metricRegistry.meter("coalescing.requests.executed").getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testWaitingRequestIsRejectedAfterTheTimeout() throws Exception {
+        filter = new CoalescingFilter(metricRegistry, Collections.emptyList(), 50);
+        Future<MockHttpServletResponse> first = executor.submit(() -> perform("GET", "/api/users/admin"));
+        awaitMeter("coalescing.requests.executed");
+
+        MockHttpServletResponse second = perform("GET", "/api/users/admin");
+        assertThat(second.getStatus()).isEqualTo(503);
+        assertThat(second.getHeader("Retry-After")).isEqualTo("1");
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAsyncResponseIsWrittenByItsAsyncDispatch() throws Exception {
+        release.countDown();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/admin");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> req.startAsync(req, res));
+        assertThat(request.isAsyncStarted()).isTrue();
+
+        // The async dispatch writes the body into the response given to the handler
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(asyncContext.getRequest(), asyncContext.getResponse(), (req, res) -> {
+            res.setContentType("application/json;charset=UTF-8");
+            res.getOutputStream().write("{\"login\":\"admin\"}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertThat(response.getContentAsString()).isEqualTo("{\"login\":\"admin\"}");
+    }
+
+    private MockHttpServletResponse perform(String method, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            executions.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) res).setStatus(201);
+            ((HttpServletResponse) res).setHeader("X-Test", "test");
+            res.setContentType("application/json;charset=UTF-8");
+            res.getOutputStream().write("{\"login\":\"admin\"}".getBytes(StandardCharsets.UTF_8));
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private void awaitMeter(String name) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (metricRegistry.meter(name).getCount() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(metricRegistry.meter(name).getCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.acoss.webae.web.filter;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the ConcurrencyLimitFilter class.
+ *
+ * @see ConcurrencyLimitFilter
+ */
+public class ConcurrencyLimitFilterTest {
+
+    private MetricRegistry metricRegistry;
+
+    private ConcurrencyLimitFilter filter;
+
+    private CountDownLatch started;
+
+    private CountDownLatch release;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        metricRegistry = new MetricRegistry();
+        filter = new ConcurrencyLimitFilter(metricRegistry,
+            Collections.singletonMap("metadata", Arrays.asList("/api/metadata", "/api/metadata/**")),
+            () -> AdaptiveConcurrencyLimit.fixed(1), 1, 3);
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void teardown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRequestsOverTheLimitAreRejected() throws Exception {
+        Future<MockHttpServletResponse> first = executor.submit(() -> perform("/api/metadata/1"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(gauge("concurrency-limit.metadata.in-flight")).isEqualTo(1);
+
+        MockHttpServletResponse rejected = perform("/api/metadata");
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("3");
+        assertThat(rejected.getContentType()).isEqualTo("application/problem+json");
+        assertThat(rejected.getContentAsString()).contains("\"status\":503");
+        assertThat(metricRegistry.meter("concurrency-limit.metadata.rejected").getCount()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(gauge("concurrency-limit.metadata.in-flight")).isEqualTo(0);
+        assertThat(perform("/api/metadata").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void testGroupsHaveTheirOwnLimit() throws Exception {
+        executor.submit(() -> perform("/api/metadata/1"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+
+        assertThat(perform("/api/users").getStatus()).isEqualTo(200);
+        assertThat(perform("/management/health").getStatus()).isEqualTo(200);
+        assertThat(gauge("concurrency-limit.default.limit")).isEqualTo(1);
+        assertThat(gauge("concurrency-limit.management.limit")).isEqualTo(1);
+    }
+
+    @Test
+    public void testManagementHasReservedCapacity() throws Exception {
+        executor.submit(() -> perform("/api/users"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(perform("/api/account").getStatus()).isEqualTo(503);
+        assertThat(perform("/management/health").getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse perform(String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            if (!uri.startsWith("/management")) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        return response;
+    }
+
+    private Object gauge(String name) {
+        return ((Gauge<?>) metricRegistry.getGauges().get(name)).getValue();
+    }
+}
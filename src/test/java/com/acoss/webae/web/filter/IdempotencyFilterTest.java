@@ -0,0 +1,357 @@
+package com.acoss.webae.web.filter;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the IdempotencyFilter class.
+ *
+ * @see IdempotencyFilter
+ */
+public class IdempotencyFilterTest {
+
+    private MetricRegistry metricRegistry;
+
+    private CacheManager cacheManager;
+
+    private IdempotencyFilter filter;
+
+    private AtomicInteger executions;
+
+    private CountDownLatch release;
+
+    private volatile int status;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        metricRegistry = new MetricRegistry();
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        // The cache may have been created by the application, in the same default cache manager
+        if (cacheManager.getCache(IdempotencyFilter.CACHE_NAME) == null) {
+            cacheManager.createCache(IdempotencyFilter.CACHE_NAME,
+                new MutableConfiguration<String, Object>().setStoreByValue(false));
+        }
+        filter = new IdempotencyFilter(metricRegistry, cacheManager,
+            Arrays.asList("/api/authenticate", "/api/authenticate/**"), Collections.singletonList("/api/register"), 5000);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "user", "ROLE_USER"));
+        executions = new AtomicInteger();
+        release = new CountDownLatch(1);
+        status = 201;
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+        cacheManager.getCache(IdempotencyFilter.CACHE_NAME).clear();
+    }
+
+    @Test
+    public void testReplayedRequestIsNotProcessed() throws Exception {
+        release.countDown();
+        MockHttpServletResponse first = perform("POST", "/api/metadata", "key-1");
+        MockHttpServletResponse second = perform("POST", "/api/metadata", "key-1");
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(first.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isNull();
+        assertThat(second.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+        for (MockHttpServletResponse response : new MockHttpServletResponse[]{first, second}) {
+            assertThat(response.getStatus()).isEqualTo(201);
+            assertThat(response.getContentType()).isEqualTo("application/json;charset=UTF-8");
+            assertThat(response.getHeader("Location")).isEqualTo("/api/metadata/1");
+            assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        }
+        assertThat(metricRegistry.meter("idempotency.requests.replayed").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConcurrentDuplicateWaitsForTheFirstRequest() throws Exception {
+        Future<MockHttpServletResponse> first = executor.submit(() -> perform("POST", "/api/register", "key-1"));
+        awaitMeter("idempotency.requests.executed");
+        Future<MockHttpServletResponse> second = executor.submit(() -> perform("POST", "/api/register", "key-1"));
+        awaitMeter("idempotency.requests.coalesced");
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        MockHttpServletResponse duplicate = second.get(5, TimeUnit.SECONDS);
+        assertThat(duplicate.getStatus()).isEqualTo(201);
+        assertThat(duplicate.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(duplicate.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailedRequestIsRetriedOnceByItsDuplicates() throws Exception {
+        FilterChain chain = (req, res) -> {
+            int execution = executions.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // The first execution fails, the retry succeeds
+            status = execution == 1 ? 503 : 201;
+            writeResponse(res);
+        };
+        Future<MockHttpServletResponse> first = executor.submit(() -> post("/api/register", "key-1", chain));
+        awaitMeter("idempotency.requests.executed");
+        List<Future<MockHttpServletResponse>> duplicates = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            duplicates.add(executor.submit(() -> post("/api/register", "key-1", chain)));
+        }
+        awaitMeter("idempotency.requests.coalesced", 2);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(503);
+        List<String> replayedHeaders = new ArrayList<>();
+        for (Future<MockHttpServletResponse> duplicate : duplicates) {
+            MockHttpServletResponse response = duplicate.get(5, TimeUnit.SECONDS);
+            assertThat(response.getStatus()).isEqualTo(201);
+            replayedHeaders.add(response.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER));
+        }
+        // A single retry is processed, and replayed to the other duplicate
+        assertThat(replayedHeaders).containsExactlyInAnyOrder(null, "true");
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDuplicateWaitIsBounded() throws Exception {
+        filter = new IdempotencyFilter(metricRegistry, cacheManager, Collections.emptyList(),
+            Collections.singletonList("/api/register"), 50);
+        Future<MockHttpServletResponse> first = executor.submit(() -> perform("POST", "/api/register", "key-1"));
+        awaitMeter("idempotency.requests.executed");
+
+        MockHttpServletResponse duplicate = executor.submit(() -> perform("POST", "/api/register", "key-1"))
+            .get(5, TimeUnit.SECONDS);
+        assertThat(duplicate.getStatus()).isEqualTo(409);
+        assertThat(metricRegistry.meter("idempotency.requests.timeouts").getCount()).isEqualTo(1);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOtherRequestsAreProcessed() throws Exception {
+        release.countDown();
+        perform("POST", "/api/metadata", "key-1");
+        perform("POST", "/api/metadata", "key-2");
+        perform("POST", "/api/register", "key-1");
+        perform("POST", "/api/metadata", null);
+        perform("POST", "/api/metadata", null);
+        perform("PUT", "/api/metadata", "key-1");
+        assertThat(executions.get()).isEqualTo(6);
+        assertThat(metricRegistry.meter("idempotency.requests.replayed").getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testServerErrorsAreNotStored() throws Exception {
+        release.countDown();
+        status = 500;
+        assertThat(perform("POST", "/api/metadata", "key-1").getStatus()).isEqualTo(500);
+        status = 201;
+        MockHttpServletResponse retry = perform("POST", "/api/metadata", "key-1");
+
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isNull();
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testTooLongKeyIsRejected() throws Exception {
+        release.countDown();
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < 256; i++) {
+            key.append('k');
+        }
+        assertThat(perform("POST", "/api/metadata", key.toString()).getStatus()).isEqualTo(400);
+        assertThat(executions.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void testKeyReusedWithAnotherBodyIsRejected() throws Exception {
+        release.countDown();
+        perform("POST", "/api/metadata", "key-1", "{\"name\":\"first\"}");
+        MockHttpServletResponse replay = perform("POST", "/api/metadata", "key-1", "{\"name\":\"first\"}");
+        MockHttpServletResponse other = perform("POST", "/api/metadata", "key-1", "{\"name\":\"second\"}");
+
+        assertThat(replay.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(other.getStatus()).isEqualTo(422);
+        assertThat(other.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isNull();
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTokenResponsesAreNotStored() throws Exception {
+        release.countDown();
+        perform("POST", "/api/authenticate", "key-1");
+        MockHttpServletResponse second = perform("POST", "/api/authenticate", "key-1");
+        perform("POST", "/api/authenticate/refresh", "key-1");
+        perform("POST", "/api/authenticate/refresh", "key-1");
+
+        assertThat(second.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isNull();
+        assertThat(executions.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void testAnonymousRequestsAreOnlyIdempotentOnTheAnonymousPaths() throws Exception {
+        release.countDown();
+        SecurityContextHolder.clearContext();
+        perform("POST", "/api/metadata", "key-1");
+        MockHttpServletResponse metadata = perform("POST", "/api/metadata", "key-1");
+        perform("POST", "/api/register", "key-1");
+        MockHttpServletResponse register = perform("POST", "/api/register", "key-1");
+
+        assertThat(metadata.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isNull();
+        assertThat(register.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(executions.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testAsyncResponseIsStoredOnceTheAsyncDispatchIsComplete() throws Exception {
+        release.countDown();
+        // Registrations are anonymous, as are the requests made on the executor threads
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/register");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            executions.incrementAndGet();
+            StreamUtils.drain(req.getInputStream());
+            req.startAsync(req, res);
+        });
+        assertThat(request.isAsyncStarted()).isTrue();
+
+        Future<MockHttpServletResponse> duplicate = executor.submit(() -> perform("POST", "/api/register", "key-1"));
+        awaitMeter("idempotency.requests.coalesced");
+        assertThat(duplicate.isDone()).isFalse();
+
+        // The async dispatch writes the response, then the container completes the request
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(asyncContext.getRequest(), asyncContext.getResponse(), (req, res) -> writeResponse(res));
+        asyncContext.complete();
+
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        for (MockHttpServletResponse replay : new MockHttpServletResponse[]{duplicate.get(5, TimeUnit.SECONDS),
+                perform("POST", "/api/register", "key-1")}) {
+            assertThat(replay.getStatus()).isEqualTo(201);
+            assertThat(replay.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+            assertThat(replay.getContentAsString()).isEqualTo("{\"id\":1}");
+        }
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAsyncRequestWithoutDispatchReleasesItsDuplicates() throws Exception {
+        release.countDown();
+        // Registrations are anonymous, as are the requests made on the executor threads
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/register");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            executions.incrementAndGet();
+            req.startAsync(req, res);
+        });
+        Future<MockHttpServletResponse> duplicate = executor.submit(() -> perform("POST", "/api/register", "key-1"));
+        awaitMeter("idempotency.requests.coalesced");
+
+        // The request ends in error, without an async dispatch
+        request.getAsyncContext().complete();
+
+        MockHttpServletResponse retry = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED_HEADER)).isNull();
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String idempotencyKey) throws Exception {
+        return perform(method, uri, idempotencyKey, "{}");
+    }
+
+    private MockHttpServletResponse post(String uri, String idempotencyKey, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String idempotencyKey, String content)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setContent(content.getBytes(StandardCharsets.UTF_8));
+        if (idempotencyKey != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            executions.incrementAndGet();
+            StreamUtils.drain(req.getInputStream());
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writeResponse(res);
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private void writeResponse(ServletResponse response) throws IOException {
+        ((HttpServletResponse) response).setStatus(status);
+        ((HttpServletResponse) response).setHeader("Location", "/api/metadata/1");
+        response.setContentType("application/json;charset=UTF-8");
+        response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void awaitMeter(String name) throws InterruptedException {
+        awaitMeter(name, 1);
+    }
+
+    private void awaitMeter(String name, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (metricRegistry.meter(name).getCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(metricRegistry.meter(name).getCount()).isEqualTo(count);
+    }
+}
@@ -10,6 +10,7 @@ import com.acoss.webae.security.AuthoritiesConstants;
 import com.acoss.webae.service.MailService;
 import com.acoss.webae.service.dto.UserDTO;
 import com.acoss.webae.web.rest.errors.ExceptionTranslator;
+import com.acoss.webae.web.rest.util.AsyncRequestExecutor;
 import com.acoss.webae.web.rest.vm.KeyAndPasswordVM;
 import com.acoss.webae.web.rest.vm.ManagedUserVM;
 import com.acoss.webae.service.UserService;
@@ -22,12 +23,15 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
@@ -76,6 +80,10 @@ public class AccountResourceIntTest {
     @Mock
     private MailService mockMailService;
 
+    // The user is registered on the thread of the test, in its transaction
+    private final AsyncRequestExecutor registrationExecutor =
+        new AsyncRequestExecutor(new TaskExecutorAdapter(new SyncTaskExecutor()), 5000);
+
     private MockMvc restMvc;
 
     private MockMvc restUserMockMvc;
@@ -85,10 +93,10 @@ public class AccountResourceIntTest {
         MockitoAnnotations.initMocks(this);
         doNothing().when(mockMailService).sendActivationEmail(anyObject());
         AccountResource accountResource =
-            new AccountResource(userRepository, userService, mockMailService);
+            new AccountResource(userRepository, userService, mockMailService, registrationExecutor);
 
         AccountResource accountUserMockResource =
-            new AccountResource(userRepository, mockUserService, mockMailService);
+            new AccountResource(userRepository, mockUserService, mockMailService, registrationExecutor);
         this.restMvc = MockMvcBuilders.standaloneSetup(accountResource)
             .setMessageConverters(httpMessageConverters)
             .setControllerAdvice(exceptionTranslator)
@@ -172,10 +180,13 @@ public class AccountResourceIntTest {
         validUser.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
         assertThat(userRepository.findOneByLogin("joe").isPresent()).isFalse();
 
-        restMvc.perform(
+        MvcResult registration = restMvc.perform(
             post("/api/register")
                 .contentType(TestUtil.APPLICATION_JSON_UTF8)
                 .content(TestUtil.convertObjectToJsonBytes(validUser)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restMvc.perform(asyncDispatch(registration))
             .andExpect(status().isCreated());
 
         assertThat(userRepository.findOneByLogin("joe").isPresent()).isTrue();
@@ -309,10 +320,13 @@ public class AccountResourceIntTest {
         duplicatedUser.setAuthorities(new HashSet<>(validUser.getAuthorities()));
 
         // Good user
-        restMvc.perform(
+        MvcResult registration = restMvc.perform(
             post("/api/register")
                 .contentType(TestUtil.APPLICATION_JSON_UTF8)
                 .content(TestUtil.convertObjectToJsonBytes(validUser)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restMvc.perform(asyncDispatch(registration))
             .andExpect(status().isCreated());
 
         // Duplicate login
@@ -358,10 +372,13 @@ public class AccountResourceIntTest {
         duplicatedUser.setAuthorities(new HashSet<>(validUser.getAuthorities()));
 
         // Good user
-        restMvc.perform(
+        MvcResult registration = restMvc.perform(
             post("/api/register")
                 .contentType(TestUtil.APPLICATION_JSON_UTF8)
                 .content(TestUtil.convertObjectToJsonBytes(validUser)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restMvc.perform(asyncDispatch(registration))
             .andExpect(status().isCreated());
 
         // Duplicate email
@@ -412,10 +429,13 @@ public class AccountResourceIntTest {
         validUser.setLangKey(Constants.DEFAULT_LANGUAGE);
         validUser.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
 
-        restMvc.perform(
+        MvcResult registration = restMvc.perform(
             post("/api/register")
                 .contentType(TestUtil.APPLICATION_JSON_UTF8)
                 .content(TestUtil.convertObjectToJsonBytes(validUser)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restMvc.perform(asyncDispatch(registration))
             .andExpect(status().isCreated());
 
         Optional<User> userDup = userRepository.findOneByLogin("badguy");
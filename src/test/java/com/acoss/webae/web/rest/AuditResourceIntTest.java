@@ -3,8 +3,12 @@ package com.acoss.webae.web.rest;
 import com.acoss.webae.CfeBackonlyApp;
 import com.acoss.webae.config.audit.AuditEventConverter;
 import com.acoss.webae.domain.PersistentAuditEvent;
+import com.acoss.webae.repository.CursorRepository;
 import com.acoss.webae.repository.PersistenceAuditEventRepository;
+import com.acoss.webae.repository.ProjectionRepository;
 import com.acoss.webae.service.AuditEventService;
+import com.acoss.webae.web.rest.errors.ExceptionTranslator;
+import com.acoss.webae.web.rest.util.JsonArrayStreamer;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -48,6 +52,18 @@ public class AuditResourceIntTest {
     @Autowired
     private AuditEventConverter auditEventConverter;
 
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private CursorRepository cursorRepository;
+
+    @Autowired
+    private JsonArrayStreamer jsonArrayStreamer;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -65,11 +81,12 @@ public class AuditResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         AuditEventService auditEventService =
-            new AuditEventService(auditEventRepository, auditEventConverter);
-        AuditResource auditResource = new AuditResource(auditEventService);
+            new AuditEventService(auditEventRepository, auditEventConverter, projectionRepository, cursorRepository);
+        AuditResource auditResource = new AuditResource(auditEventService, jsonArrayStreamer);
         this.restAuditMockMvc = MockMvcBuilders.standaloneSetup(auditResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setConversionService(formattingConversionService)
+            .setControllerAdvice(exceptionTranslator)
             .setMessageConverters(jacksonMessageConverter).build();
     }
 
@@ -144,4 +161,43 @@ public class AuditResourceIntTest {
         restAuditMockMvc.perform(get("/management/audits/{id}", Long.MAX_VALUE))
             .andExpect(status().isNotFound());
     }
+
+    @Test
+    public void getAllAuditsWithFields() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+
+        // Get only the principal and type of all the audits
+        restAuditMockMvc.perform(get("/management/audits?fields=principal,type"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[0].principal").value(SAMPLE_PRINCIPAL))
+            .andExpect(jsonPath("$.[0].type").value(SAMPLE_TYPE))
+            .andExpect(jsonPath("$.[0].timestamp").doesNotExist())
+            .andExpect(jsonPath("$.[0].data").doesNotExist());
+    }
+
+    @Test
+    public void getAuditsByDateWithFields() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+
+        String fromDate  = SAMPLE_TIMESTAMP.minusSeconds(SECONDS_PER_DAY).toString().substring(0,10);
+        String toDate = SAMPLE_TIMESTAMP.plusSeconds(SECONDS_PER_DAY).toString().substring(0,10);
+        restAuditMockMvc.perform(get("/management/audits?fields=principal&fromDate=" + fromDate + "&toDate=" + toDate))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].principal").value(hasItem(SAMPLE_PRINCIPAL)));
+
+        String beforeDate = SAMPLE_TIMESTAMP.minusSeconds(2*SECONDS_PER_DAY).toString().substring(0,10);
+        restAuditMockMvc.perform(get("/management/audits?fields=principal&fromDate=" + beforeDate + "&toDate=" + beforeDate))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "0"));
+    }
+
+    @Test
+    public void getAllAuditsWithUnsupportedFields() throws Exception {
+        restAuditMockMvc.perform(get("/management/audits?fields=principal,data"))
+            .andExpect(status().isBadRequest());
+    }
 }
@@ -1,13 +1,26 @@
 package com.acoss.webae.web.rest;
 
 import com.acoss.webae.CfeBackonlyApp;
+import com.acoss.webae.config.BinaryFormatConfiguration;
+import com.acoss.webae.config.BinaryMediaTypes;
 
 import com.acoss.webae.domain.Metadata;
 import com.acoss.webae.repository.MetadataRepository;
+import com.acoss.webae.service.MetadataExportService;
+import com.acoss.webae.service.MetadataImportService;
+import com.acoss.webae.service.MetadataManifestService;
 import com.acoss.webae.service.MetadataService;
 import com.acoss.webae.service.dto.MetadataDTO;
 import com.acoss.webae.service.mapper.MetadataMapper;
+import com.acoss.webae.service.schema.MetadataSchemaRegistry;
+import com.acoss.webae.service.schema.MetadataSchemaSearchIndex;
 import com.acoss.webae.web.rest.errors.ExceptionTranslator;
+import com.acoss.webae.web.rest.util.AsyncRequestExecutor;
+import com.acoss.webae.web.rest.util.JsonArrayStreamer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -15,20 +28,34 @@ import org.junit.runner.RunWith;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.acoss.webae.web.rest.TestUtil.createFormattingConversionService;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -53,9 +80,30 @@ public class MetadataResourceIntTest {
     @Autowired
     private MetadataService metadataService;
 
+    @Autowired
+    private MetadataManifestService metadataManifestService;
+
+    @Autowired
+    private MetadataSchemaRegistry metadataSchemaRegistry;
+
+    @Autowired
+    private MetadataExportService metadataExportService;
+
+    @Autowired
+    private MetadataImportService metadataImportService;
+
+    @Autowired
+    private MetadataSchemaSearchIndex metadataSchemaSearchIndex;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
+    @Autowired
+    private BinaryFormatConfiguration binaryFormatConfiguration;
+
+    @Autowired
+    private JsonArrayStreamer jsonArrayStreamer;
+
     @Autowired
     private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
 
@@ -65,6 +113,10 @@ public class MetadataResourceIntTest {
     @Autowired
     private EntityManager em;
 
+    // The metadata are imported on the thread of the test, in its transaction
+    private final AsyncRequestExecutor validationExecutor =
+        new AsyncRequestExecutor(new TaskExecutorAdapter(new SyncTaskExecutor()), 5000);
+
     private MockMvc restMetadataMockMvc;
 
     private Metadata metadata;
@@ -72,12 +124,19 @@ public class MetadataResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final MetadataResource metadataResource = new MetadataResource(metadataService);
+        final MetadataResource metadataResource = new MetadataResource(metadataService, metadataManifestService,
+            metadataSchemaRegistry, metadataExportService, metadataImportService, metadataSchemaSearchIndex,
+            jsonArrayStreamer, validationExecutor);
+        List<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
+        messageConverters.add(new StringHttpMessageConverter(StandardCharsets.UTF_8));
+        messageConverters.add(new ByteArrayHttpMessageConverter());
+        messageConverters.add(jacksonMessageConverter);
+        messageConverters.addAll(binaryFormatConfiguration.getBinaryMessageConverters());
         this.restMetadataMockMvc = MockMvcBuilders.standaloneSetup(metadataResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
             .setConversionService(createFormattingConversionService())
-            .setMessageConverters(jacksonMessageConverter).build();
+            .setMessageConverters(messageConverters.toArray(new HttpMessageConverter<?>[0])).build();
     }
 
     /**
@@ -147,7 +206,156 @@ public class MetadataResourceIntTest {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(metadata.getId().intValue())))
-            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE.toString())));
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE.toString())))
+            .andExpect(header().string("X-Total-Count", notNullValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getAllMetadataStreamsThePage() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 30; i++) {
+            metadataRepository.save(createEntity(em));
+        }
+        metadataRepository.flush();
+        long total = metadataRepository.count();
+        List<Long> ids = metadataRepository.findAll(new Sort(Sort.Direction.ASC, "id")).stream()
+            .map(Metadata::getId).skip(10).limit(10).collect(Collectors.toList());
+
+        // Get the second page of 10
+        byte[] content = restMetadataMockMvc.perform(get("/api/metadata?page=1&size=10&sort=id,asc")
+            .accept(BinaryMediaTypes.APPLICATION_SMILE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(BinaryMediaTypes.APPLICATION_SMILE))
+            .andExpect(header().string("X-Total-Count", String.valueOf(total)))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("page=2&size=10>; rel=\"next\"")))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        List<MetadataDTO> page = smileMapper.readValue(content,
+            smileMapper.getTypeFactory().constructCollectionType(List.class, MetadataDTO.class));
+        assertThat(page).extracting(MetadataDTO::getId).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    @Transactional
+    public void getAllMetadataNotAcceptable() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata").accept(MediaType.APPLICATION_XML))
+            .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    @Transactional
+    public void getAllMetadataWithFields() throws Exception {
+        // Initialize the database
+        metadataRepository.saveAndFlush(metadata);
+
+        // Get only the titles of all the metadata
+        restMetadataMockMvc.perform(get("/api/metadata?fields=title&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE.toString())))
+            .andExpect(jsonPath("$.[0].id").doesNotExist())
+            .andExpect(header().string("X-Total-Count", String.valueOf(metadataRepository.count())));
+    }
+
+    @Test
+    @Transactional
+    public void getAllMetadataWithUnsupportedFields() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata?fields=id,content"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getAllMetadataAfter() throws Exception {
+        // Initialize the database
+        Metadata first = metadataRepository.saveAndFlush(createEntity(em));
+        Metadata second = metadataRepository.saveAndFlush(createEntity(em));
+        Metadata third = metadataRepository.saveAndFlush(createEntity(em));
+
+        // Get the first slice, which has a next slice
+        restMetadataMockMvc.perform(get("/api/metadata?after={after}&limit=2", first.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(second.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK,
+                "</api/metadata?after=" + second.getId() + "&limit=2>; rel=\"next\""))
+            .andExpect(header().doesNotExist("X-Total-Count"));
+
+        // Get the last slice
+        restMetadataMockMvc.perform(get("/api/metadata?after={after}&limit=2", second.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(third.getId().intValue()))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    public void getAllMetadataAfterWithInvalidLimit() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata?after=0&limit=0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void importMetadata() throws Exception {
+        int databaseSizeBeforeImport = metadataRepository.findAll().size();
+
+        String body = "{\"title\":\"first\"}\n{\"title\":\"second\"}\n\n{\"title\":\"third\"}\n";
+        MvcResult mvcResult = restMetadataMockMvc.perform(post("/api/metadata/import")
+            .contentType("application/x-ndjson")
+            .content(body))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restMetadataMockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-cfeBackonlyApp-params", "3"));
+
+        List<Metadata> metadataList = metadataRepository.findAll();
+        assertThat(metadataList).hasSize(databaseSizeBeforeImport + 3);
+        assertThat(metadataList).extracting(Metadata::getTitle).contains("first", "second", "third");
+    }
+
+    @Test
+    public void importMetadataWithAnInvalidRow() throws Exception {
+        // Not transactional, so that the import runs and is rolled back in its own transaction
+        int databaseSizeBeforeImport = metadataRepository.findAll().size();
+
+        String body = "{\"title\":\"first\"}\n{\"id\":1,\"title\":\"second\"}\n";
+        MvcResult mvcResult = restMetadataMockMvc.perform(post("/api/metadata/import")
+            .contentType("application/x-ndjson")
+            .content(body))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restMetadataMockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.invalidimport"));
+
+        assertThat(metadataRepository.findAll()).hasSize(databaseSizeBeforeImport);
+    }
+
+    @Test
+    public void exportMetadata() throws Exception {
+        MvcResult mvcResult = restMetadataMockMvc.perform(get("/api/metadata/export?format=csv"))
+            .andExpect(request().asyncStarted())
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"metadata.csv\""))
+            .andReturn();
+
+        // Wait for the body to be written
+        mvcResult.getAsyncResult();
+        assertThat(mvcResult.getResponse().getContentAsString()).startsWith("id,title\r\n");
+    }
+
+    @Test
+    public void exportMetadataWithUnsupportedFormat() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata/export?format=xml"))
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -164,6 +372,106 @@ public class MetadataResourceIntTest {
             .andExpect(jsonPath("$.title").value(DEFAULT_TITLE.toString()));
     }
 
+    @Test
+    @Transactional
+    public void getMetadataAsSmile() throws Exception {
+        // Initialize the database
+        metadataRepository.saveAndFlush(metadata);
+
+        byte[] content = restMetadataMockMvc.perform(get("/api/metadata/{id}", metadata.getId())
+            .accept(BinaryMediaTypes.APPLICATION_SMILE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(BinaryMediaTypes.APPLICATION_SMILE))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        MetadataDTO metadataDTO = new ObjectMapper(new SmileFactory()).readValue(content, MetadataDTO.class);
+        assertThat(metadataDTO.getId()).isEqualTo(metadata.getId());
+        assertThat(metadataDTO.getTitle()).isEqualTo(DEFAULT_TITLE);
+    }
+
+    @Test
+    @Transactional
+    public void createMetadataFromCbor() throws Exception {
+        int databaseSizeBeforeCreate = metadataRepository.findAll().size();
+
+        MetadataDTO metadataDTO = metadataMapper.toDto(metadata);
+        restMetadataMockMvc.perform(post("/api/metadata")
+            .contentType(BinaryMediaTypes.APPLICATION_CBOR)
+            .accept(BinaryMediaTypes.APPLICATION_CBOR)
+            .content(new ObjectMapper(new CBORFactory()).writeValueAsBytes(metadataDTO)))
+            .andExpect(status().isCreated())
+            .andExpect(content().contentType(BinaryMediaTypes.APPLICATION_CBOR));
+
+        List<Metadata> metadataList = metadataRepository.findAll();
+        assertThat(metadataList).hasSize(databaseSizeBeforeCreate + 1);
+        assertThat(metadataList.get(metadataList.size() - 1).getTitle()).isEqualTo(DEFAULT_TITLE);
+    }
+
+    @Test
+    @Transactional
+    public void getMetadataDefaultsToJson() throws Exception {
+        // Initialize the database
+        metadataRepository.saveAndFlush(metadata);
+
+        // Accept header sent by browsers
+        restMetadataMockMvc.perform(get("/api/metadata/{id}", metadata.getId())
+            .header(HttpHeaders.ACCEPT, "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.id").value(metadata.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getMetadataByIds() throws Exception {
+        // Initialize the database
+        Metadata first = metadataRepository.saveAndFlush(createEntity(em));
+        Metadata second = metadataRepository.saveAndFlush(createEntity(em));
+
+        // Get the metadata, in the requested order
+        restMetadataMockMvc.perform(get("/api/metadata?ids={ids}", second.getId() + "," + Long.MAX_VALUE + "," + first.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(first.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getMetadataByIdsIgnoresAfter() throws Exception {
+        // Initialize the database
+        Metadata first = metadataRepository.saveAndFlush(createEntity(em));
+        Metadata second = metadataRepository.saveAndFlush(createEntity(em));
+
+        // The ids take precedence over the keyset pagination
+        restMetadataMockMvc.perform(get("/api/metadata?after={after}&ids={ids}", second.getId(), first.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()));
+    }
+
+    @Test
+    public void getMetadataOutsideOfATransaction() throws Exception {
+        // Not transactional, so that the lookups go through the metadata loader
+        Metadata first = metadataRepository.saveAndFlush(createEntity(em));
+        Metadata second = metadataRepository.saveAndFlush(createEntity(em));
+        try {
+            restMetadataMockMvc.perform(get("/api/metadata/{id}", first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(first.getId().intValue()))
+                .andExpect(jsonPath("$.title").value(DEFAULT_TITLE));
+            restMetadataMockMvc.perform(get("/api/metadata/{id}", second.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(second.getId().intValue()));
+            restMetadataMockMvc.perform(get("/api/metadata/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        } finally {
+            metadataRepository.delete(first);
+            metadataRepository.delete(second);
+        }
+    }
+
     @Test
     @Transactional
     public void getNonExistingMetadata() throws Exception {
@@ -235,6 +543,116 @@ public class MetadataResourceIntTest {
         assertThat(metadataList).hasSize(databaseSizeBeforeDelete - 1);
     }
 
+    @Test
+    @Transactional
+    public void getManifest() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata/manifest"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + metadataManifestService.getManifest().getVersion() + "\""))
+            .andExpect(jsonPath("$.entries.[*].name").value(hasItem("adf")))
+            .andExpect(jsonPath("$.entries.[*].name").value(hasItem("ace")))
+            .andExpect(jsonPath("$.entries.[*].name").value(hasItem("cae")))
+            .andExpect(jsonPath("$.entries.[*].name").value(hasItem(MetadataManifestService.METADATA_TABLE)))
+            .andExpect(jsonPath("$.entries.[*].version").value(hasItem(metadataSchemaRegistry.getSchema("adf").get().getHash())));
+    }
+
+    @Test
+    @Transactional
+    public void getManifestNotModified() throws Exception {
+        MvcResult result = restMetadataMockMvc.perform(get("/api/metadata/manifest"))
+            .andExpect(status().isOk())
+            .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        restMetadataMockMvc.perform(get("/api/metadata/manifest").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    public void getManifestAfterMetadataChange() throws Exception {
+        String version = metadataManifestService.getManifest().getVersion();
+
+        restMetadataMockMvc.perform(post("/api/metadata")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(metadataMapper.toDto(metadata))))
+            .andExpect(status().isCreated());
+
+        restMetadataMockMvc.perform(get("/api/metadata/manifest"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(not(version)));
+    }
+
+    @Test
+    @Transactional
+    public void getSchema() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata/schemas/{name}", "adf"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.title").value("ADF"))
+            .andExpect(jsonPath("$.properties.C37_4.title").value("Code Rivoli de la voie ou lieu-dit"));
+    }
+
+    @Test
+    @Transactional
+    public void getSchemaAsBinary() throws Exception {
+        JsonNode tree = metadataSchemaRegistry.getSchema("adf").get().getTree();
+
+        byte[] cbor = restMetadataMockMvc.perform(get("/api/metadata/schemas/{name}", "adf")
+            .accept(BinaryMediaTypes.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(BinaryMediaTypes.APPLICATION_CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(cbor)).isEqualTo(tree);
+        // The encoded variants are served as they were encoded when the schema was loaded
+        assertThat(cbor).isEqualTo(metadataSchemaRegistry.getSchema("adf").get().getEncodedContents()
+            .get(BinaryMediaTypes.APPLICATION_CBOR));
+
+        byte[] smile = restMetadataMockMvc.perform(get("/api/metadata/schemas/{name}", "adf")
+            .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/x-jackson-smile"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(BinaryMediaTypes.APPLICATION_SMILE))
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(smile)).isEqualTo(tree);
+
+        restMetadataMockMvc.perform(get("/api/metadata/schemas/{name}", "adf")
+            .accept(MediaType.APPLICATION_XML))
+            .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingSchema() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata/schemas/{name}", "unknown"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void searchSchemaFields() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata/search?q={q}", "numero telecop"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].field").value(hasItem("C39_2")))
+            .andExpect(jsonPath("$.[*].title").value(hasItem("Numéro de télécopie pour rel. Admin.")))
+            .andExpect(jsonPath("$.[*].field").value(not(hasItem("C39_1"))));
+    }
+
+    @Test
+    public void searchSchemaFieldsWithInvalidLimit() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata/search?q=code&limit=0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getMetadataACE() throws Exception {
+        restMetadataMockMvc.perform(get("/api/metadata/ace"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(metadataSchemaRegistry.getSchema("ace").get().getContent()))
+            .andExpect(jsonPath("$.required").value(hasItem("E71")));
+    }
+
     @Test
     @Transactional
     public void equalsVerifier() throws Exception {
@@ -1,23 +1,39 @@
 package com.acoss.webae.web.rest;
 
 import com.acoss.webae.CfeBackonlyApp;
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.domain.RevokedToken;
 import com.acoss.webae.domain.User;
 import com.acoss.webae.repository.UserRepository;
+import com.acoss.webae.repository.RevokedTokenRepository;
+import com.acoss.webae.security.LoginThrottle;
+import com.acoss.webae.security.jwt.JWTAuthenticationToken;
 import com.acoss.webae.security.jwt.TokenProvider;
+import com.acoss.webae.service.RefreshTokenService;
+import com.acoss.webae.service.TokenRevocationService;
 import com.acoss.webae.web.rest.vm.LoginVM;
+import com.acoss.webae.web.rest.vm.RefreshTokenVM;
 import com.acoss.webae.web.rest.errors.ExceptionTranslator;
+import com.codahale.metrics.MetricRegistry;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -50,11 +66,25 @@ public class UserJWTControllerIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     private MockMvc mockMvc;
 
     @Before
     public void setup() {
-        UserJWTController userJWTController = new UserJWTController(tokenProvider, authenticationManager);
+        UserJWTController userJWTController = new UserJWTController(tokenProvider, authenticationManager,
+            tokenRevocationService, refreshTokenService, new LoginThrottle(applicationProperties, new MetricRegistry()),
+            applicationProperties);
         this.mockMvc = MockMvcBuilders.standaloneSetup(userJWTController)
             .setControllerAdvice(exceptionTranslator)
             .build();
@@ -80,6 +110,8 @@ public class UserJWTControllerIntTest {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.id_token").isString())
             .andExpect(jsonPath("$.id_token").isNotEmpty())
+            .andExpect(jsonPath("$.refresh_token").isString())
+            .andExpect(jsonPath("$.refresh_token").isNotEmpty())
             .andExpect(header().string("Authorization", not(nullValue())))
             .andExpect(header().string("Authorization", not(isEmptyString())));
     }
@@ -122,4 +154,134 @@ public class UserJWTControllerIntTest {
             .andExpect(jsonPath("$.id_token").doesNotExist())
             .andExpect(header().doesNotExist("Authorization"));
     }
+
+    @Test
+    @Transactional
+    public void testAuthorizeIsThrottled() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-throttled");
+        user.setEmail("user-jwt-controller-throttled@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        userRepository.saveAndFlush(user);
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-throttled");
+        login.setPassword("wrong password");
+        int maxLoginFailures = applicationProperties.getLoginThrottling().getMaxLoginFailures();
+        for (int i = 0; i < maxLoginFailures; i++) {
+            mockMvc.perform(post("/api/authenticate")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(login)))
+                .andExpect(status().isUnauthorized());
+        }
+
+        // Even the right password is not checked anymore
+        login.setUsername("USER-JWT-CONTROLLER-THROTTLED");
+        login.setPassword("test");
+        mockMvc.perform(post("/api/authenticate")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(login)))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After",
+                String.valueOf(applicationProperties.getLoginThrottling().getHalfLifeSeconds())))
+            .andExpect(jsonPath("$.id_token").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void testLogout() throws Exception {
+        String jwt = tokenProvider.createToken(new UsernamePasswordAuthenticationToken("user-jwt-controller-logout", "test",
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))), false);
+        JWTAuthenticationToken authentication = (JWTAuthenticationToken) tokenProvider.resolveAuthentication(jwt).get();
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        mockMvc.perform(post("/api/logout"))
+            .andExpect(status().isOk());
+
+        assertThat(revokedTokenRepository.findAll()).extracting(RevokedToken::getTokenId)
+            .contains(authentication.getTokenId());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @Transactional
+    public void testRefresh() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-refresh");
+        user.setEmail("user-jwt-controller-refresh@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        userRepository.saveAndFlush(user);
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-refresh");
+        login.setPassword("test");
+        String refreshToken = JsonPath.read(mockMvc.perform(post("/api/authenticate")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(login)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), "$.refresh_token");
+
+        String response = mockMvc.perform(post("/api/authenticate/refresh")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(refreshTokenJson(refreshToken)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id_token").isNotEmpty())
+            .andExpect(jsonPath("$.refresh_token").isNotEmpty())
+            .andExpect(header().string("Authorization", not(isEmptyString())))
+            .andReturn().getResponse().getContentAsString();
+        String jwt = JsonPath.read(response, "$.id_token");
+        String rotatedToken = JsonPath.read(response, "$.refresh_token");
+
+        assertThat(rotatedToken).isNotEqualTo(refreshToken);
+        assertThat(tokenProvider.getAuthentication(jwt).getName()).isEqualTo("user-jwt-controller-refresh");
+        // A refresh token can only be used once
+        mockMvc.perform(post("/api/authenticate/refresh")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(refreshTokenJson(refreshToken)))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/authenticate/refresh")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(refreshTokenJson(rotatedToken)))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    public void testRefreshFails() throws Exception {
+        mockMvc.perform(post("/api/authenticate/refresh")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(refreshTokenJson("wrong-refresh-token")))
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.id_token").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void testLogoutDeletesRefreshToken() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-logout-refresh");
+        user.setEmail("user-jwt-controller-logout-refresh@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        userRepository.saveAndFlush(user);
+        String refreshToken = refreshTokenService.createToken("user-jwt-controller-logout-refresh", false).get();
+
+        mockMvc.perform(post("/api/logout")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(refreshTokenJson(refreshToken)))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/authenticate/refresh")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(refreshTokenJson(refreshToken)))
+            .andExpect(status().isUnauthorized());
+    }
+
+    private static byte[] refreshTokenJson(String refreshToken) throws Exception {
+        RefreshTokenVM refreshTokenVM = new RefreshTokenVM();
+        refreshTokenVM.setRefreshToken(refreshToken);
+        return TestUtil.convertObjectToJsonBytes(refreshTokenVM);
+    }
 }
@@ -1,6 +1,7 @@
 package com.acoss.webae.web.rest;
 
 import com.acoss.webae.CfeBackonlyApp;
+import com.acoss.webae.config.Constants;
 import com.acoss.webae.domain.Authority;
 import com.acoss.webae.domain.User;
 import com.acoss.webae.repository.UserRepository;
@@ -10,6 +11,7 @@ import com.acoss.webae.service.UserService;
 import com.acoss.webae.service.dto.UserDTO;
 import com.acoss.webae.service.mapper.UserMapper;
 import com.acoss.webae.web.rest.errors.ExceptionTranslator;
+import com.acoss.webae.web.rest.util.JsonArrayStreamer;
 import com.acoss.webae.web.rest.vm.ManagedUserVM;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Before;
@@ -33,6 +35,7 @@ import java.util.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -89,6 +92,9 @@ public class UserResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private JsonArrayStreamer jsonArrayStreamer;
+
     @Autowired
     private EntityManager em;
 
@@ -99,7 +105,7 @@ public class UserResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        UserResource userResource = new UserResource(userRepository, userService, mailService);
+        UserResource userResource = new UserResource(userRepository, userService, mailService, jsonArrayStreamer);
         this.restUserMockMvc = MockMvcBuilders.standaloneSetup(userResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -272,6 +278,37 @@ public class UserResourceIntTest {
             .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
     }
 
+    @Test
+    @Transactional
+    public void getAllUsersWithFields() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        // Get only the login and email of all the users
+        restUserMockMvc.perform(get("/api/users?fields=login,email&sort=id,desc")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().string("X-Total-Count", String.valueOf(userRepository.count() - 1)))
+            .andExpect(jsonPath("$.[*].login").value(hasItem(DEFAULT_LOGIN)))
+            .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)))
+            .andExpect(jsonPath("$.[*].login").value(not(hasItem(Constants.ANONYMOUS_USER))))
+            .andExpect(jsonPath("$.[0].firstName").doesNotExist())
+            .andExpect(jsonPath("$.[0].authorities").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getAllUsersWithUnsupportedFields() throws Exception {
+        restUserMockMvc.perform(get("/api/users?fields=login,password")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+
+        restUserMockMvc.perform(get("/api/users?fields=authorities")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     public void getUser() throws Exception {
@@ -0,0 +1,110 @@
+package com.acoss.webae.web.rest.util;
+
+import com.acoss.webae.config.ApplicationProperties;
+import com.acoss.webae.config.BinaryFormatConfiguration;
+import com.acoss.webae.config.BinaryMediaTypes;
+import com.acoss.webae.service.dto.MetadataDTO;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the JsonArrayStreamer.
+ *
+ * @see JsonArrayStreamer
+ */
+public class JsonArrayStreamerTest {
+
+    private JsonArrayStreamer jsonArrayStreamer;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getStreaming().setFlushSize(2);
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        jsonArrayStreamer = new JsonArrayStreamer(new CachingJackson2HttpMessageConverter(builder.build()),
+            new BinaryFormatConfiguration(builder), applicationProperties);
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void testWriteArray() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Total-Count", "3");
+
+        JsonArrayStreamer.ArrayWriter<MetadataDTO> writer = jsonArrayStreamer.open(request, response, headers, MetadataDTO.class);
+        writer.write(metadata(1L));
+        assertThat(response.isCommitted()).isFalse();
+        writer.write(metadata(2L));
+        assertThat(response.isCommitted()).isTrue();
+        writer.write(metadata(3L));
+        writer.finish();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("X-Total-Count")).isEqualTo("3");
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        assertThat(response.getContentAsString())
+            .isEqualTo("[{\"id\":1,\"title\":\"Title 1\"},{\"id\":2,\"title\":\"Title 2\"},{\"id\":3,\"title\":\"Title 3\"}]");
+    }
+
+    @Test
+    public void testWriteEmptyArray() throws Exception {
+        jsonArrayStreamer.open(request, response, new HttpHeaders(), MetadataDTO.class).finish();
+
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    public void testUnfinishedArrayIsIncomplete() throws Exception {
+        JsonArrayStreamer.ArrayWriter<MetadataDTO> writer = jsonArrayStreamer.open(request, response, new HttpHeaders(), MetadataDTO.class);
+        writer.write(metadata(1L));
+        writer.write(metadata(2L));
+
+        assertThat(response.getContentAsString()).startsWith("[").doesNotEndWith("]");
+    }
+
+    @Test
+    public void testWriteNegotiatedFormat() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor");
+
+        JsonArrayStreamer.ArrayWriter<MetadataDTO> writer = jsonArrayStreamer.open(request, response, new HttpHeaders(), MetadataDTO.class);
+        writer.write(metadata(1L));
+        writer.finish();
+
+        assertThat(response.getContentType()).isEqualTo(BinaryMediaTypes.APPLICATION_CBOR_VALUE);
+        List<MetadataDTO> metadata = new ObjectMapper(new CBORFactory()).readValue(response.getContentAsByteArray(),
+            new ObjectMapper().getTypeFactory().constructCollectionType(List.class, MetadataDTO.class));
+        assertThat(metadata).extracting(MetadataDTO::getId).containsExactly(1L);
+    }
+
+    @Test(expected = HttpMediaTypeNotAcceptableException.class)
+    public void testNotAcceptable() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE);
+
+        jsonArrayStreamer.open(request, response, new HttpHeaders(), MetadataDTO.class);
+    }
+
+    private static MetadataDTO metadata(Long id) {
+        MetadataDTO metadataDTO = new MetadataDTO();
+        metadataDTO.setId(id);
+        metadataDTO.setTitle("Title " + id);
+        return metadataDTO;
+    }
+}
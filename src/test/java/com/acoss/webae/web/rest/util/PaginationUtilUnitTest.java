@@ -2,15 +2,20 @@ package com.acoss.webae.web.rest.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Test;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpHeaders;
 
 /**
@@ -41,4 +46,32 @@ public class PaginationUtilUnitTest {
         assertTrue(Long.valueOf(xTotalCountHeaders.get(0)).equals(400L));
     }
 
+    @Test
+    public void generatePaginationHttpHeadersFromTotalTest() {
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(new PageRequest(6, 50), 400L, "/api/example");
+        assertEquals("</api/example?page=7&size=50>; rel=\"next\","
+                + "</api/example?page=5&size=50>; rel=\"prev\","
+                + "</api/example?page=7&size=50>; rel=\"last\","
+                + "</api/example?page=0&size=50>; rel=\"first\"", headers.getFirst(HttpHeaders.LINK));
+        assertEquals("400", headers.getFirst("X-Total-Count"));
+    }
+
+    @Test
+    public void generateKeysetPaginationHttpHeadersTest() {
+        String baseUrl = "/api/example";
+        Slice<String> slice = new SliceImpl<>(Arrays.asList("a", "b"), new PageRequest(0, 2), true);
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(slice, 42L, baseUrl);
+        List<String> strHeaders = headers.get(HttpHeaders.LINK);
+        assertNotNull(strHeaders);
+        assertTrue(strHeaders.size() == 1);
+        assertEquals("</api/example?after=42&limit=2>; rel=\"next\"", strHeaders.get(0));
+        assertNull(headers.get("X-Total-Count"));
+    }
+
+    @Test
+    public void generateKeysetPaginationHttpHeadersLastSliceTest() {
+        Slice<String> slice = new SliceImpl<>(Collections.singletonList("a"), new PageRequest(0, 2), false);
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(slice, 42L, "/api/example");
+        assertNull(headers.get(HttpHeaders.LINK));
+    }
 }